@@ -34,11 +34,24 @@ import pt.ua.tm.neji.processor.filewrappers.OutputFile;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Batch pipeline processors executor, with support for concurrent execution of multiple pipeline processors.
+ * <p>
+ * The input folder and its sub-folders are walked while files are processed, and only a few files per thread
+ * wait to be processed at any time, so no objects are kept for the files already processed.
  *
  * @author David Campos
  * @author Tiago Nunes
@@ -56,6 +69,15 @@ public class FileBatchExecutor extends BatchExecutor {
     private boolean storeDocuments;
     private final boolean addAnnotationsWithoutIDs;
 
+    /**
+     * Number of files, per thread, waiting to be processed.
+     */
+    private static final int PENDING_FILES_PER_THREAD = 2;
+
+    /**
+     * Interval between progress messages, in nanoseconds.
+     */
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(30);
 
     public FileBatchExecutor(final String inputFolderPath, final String outputFolderPath,
                              final boolean compressed, final int numThreads, final String inputWildcardFilter,
@@ -139,85 +161,171 @@ public class FileBatchExecutor extends BatchExecutor {
     }
 
     private int processFiles(final String inputFolderPath, final String inputWildcardFilter,
-                              final String outputFolderPath, final int numThreads, Context context,
-                              final Class<? extends Processor> processorCls, Object... args) {
+                              final String outputFolderPath, final int numThreads, final Context context,
+                              final Class<? extends Processor> processorCls, final Object... args) throws NejiException {
 
-        int filesProcessed = 0;
-        File inputFolder = new File(inputFolderPath);
-        FileFilter fileFilter = newFileFilter(inputWildcardFilter, compressed);
-        File[] files = inputFolder.listFiles(fileFilter);
+        final Path inputFolder = Paths.get(inputFolderPath).toAbsolutePath().normalize();
+        final Path outputFolder = Paths.get(outputFolderPath).toAbsolutePath().normalize();
+        final FileFilter fileFilter = newFileFilter(inputWildcardFilter, compressed);
+        // The output folder is only skipped when it lies inside the input folder
+        final boolean skipOutputFolder = !inputFolder.startsWith(outputFolder);
 
         logger.info("Starting thread pool with support for {} threads...", numThreads);
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-
-        LinkedList<Future> futures = new LinkedList<>();
-
-
-        for (File file : files) {
-
-            // Make corpus, output file
-            Corpus corpus = new Corpus();
-
-            // By default, the corpus identifier is the file name
-            corpus.setIdentifier(FilenameUtils.getBaseName(file.getName()));
-
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
 
-            // Make in/out corpus wrappers
-            InputFile inputFile = new InputFile(corpus, file, compressed);
-            List<OutputFile> outputFiles = new ArrayList<>();
-            for(OutputFormat outputFormat : context.getConfiguration().getOutputFormats()){
-                File outFile = OutputFile.newOutputFile(
-                        outputFolderPath, FilenameUtils.getBaseName(FilenameUtils.getBaseName(file.getName())),
-                        outputFormat, compressed);
-                outputFiles.add(new OutputFile(corpus, outFile, compressed));
-            }
+        // Files waiting to be processed, so that the walker does not run ahead of the processors
+        final Semaphore pending = new Semaphore(numThreads * PENDING_FILES_PER_THREAD);
+        final Progress progress = new Progress();
 
-            if (storeDocuments) {
-                processedCorpora.add(corpus);
-            }
+        logger.info("");
+        logger.info("Started processing...");
 
-            Processor processor;
+        try {
+            Files.walkFileTree(inputFolder, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (dir.equals(inputFolder)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    // Do not process hidden folders or the files written by this run
+                    if (Files.isHidden(dir) || (skipOutputFolder && dir.startsWith(outputFolder))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+                    File file = path.toFile();
+                    if (!attrs.isRegularFile() || !fileFilter.accept(file)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    // Output files keep the folder of the input file, relative to the input folder
+                    Path folder = outputFolder.resolve(inputFolder.relativize(path.getParent()));
+                    Files.createDirectories(folder);
+
+                    final String filePath = file.getAbsolutePath();
+                    try {
+                        pending.acquire();
+                    } catch (InterruptedException ex) {
+                        throw new InterruptedIOException("Interrupted while waiting to process the file: " + filePath);
+                    }
+
+                    // Only build the processor (and its corpus) once there is room for it
+                    final Processor processor;
+                    try {
+                        processor = newFileProcessor(file, folder.toString(), context, processorCls, args);
+                    } catch (RuntimeException ex) {
+                        pending.release();
+                        logger.error("There was a problem creating the processor of the file: " + filePath, ex);
+                        progress.completed(false);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                processor.run();
+                                progress.completed(true);
+                            } catch (RuntimeException ex) {
+                                logger.error("There was a problem running the processor of the file: " + filePath, ex);
+                                progress.completed(false);
+                            } finally {
+                                pending.release();
+                            }
+                        }
+                    });
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException ex) throws IOException {
+                    logger.error("There was a problem reading the file: " + path, ex);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem walking the input folder.", ex);
+        } finally {
+            executor.shutdown();
             try {
-                processor = newProcessor(processorCls, context, inputFile, outputFiles, addAnnotationsWithoutIDs, args);
-            } catch (NejiException ex) {
-                String m = "There was a problem creating the processor of the file: " + file.getAbsolutePath();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException ex) {
+                String m = "There was a problem executing the processing tasks.";
                 logger.error(m, ex);
                 throw new RuntimeException(m, ex);
             }
-
-            Future submit = executor.submit(processor);
-            futures.add(submit);
         }
 
-        logger.info("");
-        logger.info("{} file(s) to process.", futures.size());
-        logger.info("Started processing...");
+        progress.log();
+        if (progress.failed.get() > 0) {
+            logger.error("{} file(s) could not be processed.", progress.failed.get());
+        }
+        return progress.processed.get();
+    }
 
+    private Processor newFileProcessor(final File file, final String outputFolderPath, final Context context,
+                                       final Class<? extends Processor> processorCls, final Object... args) {
+        // Make corpus, output file
+        Corpus corpus = new Corpus();
+
+        // By default, the corpus identifier is the file name
+        corpus.setIdentifier(FilenameUtils.getBaseName(file.getName()));
+
+        // Make in/out corpus wrappers
+        InputFile inputFile = new InputFile(corpus, file, compressed);
+        List<OutputFile> outputFiles = new ArrayList<>();
+        for (OutputFormat outputFormat : context.getConfiguration().getOutputFormats()) {
+            File outFile = OutputFile.newOutputFile(
+                    outputFolderPath, FilenameUtils.getBaseName(FilenameUtils.getBaseName(file.getName())),
+                    outputFormat, compressed);
+            outputFiles.add(new OutputFile(corpus, outFile, compressed));
+        }
 
-        Iterator<Future> it = futures.iterator();
-        while (it.hasNext()) {
-            Future future = it.next();
-            try {
-                Object o = future.get();
-                future = null;
-                it.remove();
-                filesProcessed++;
-            } catch (ExecutionException | InterruptedException ex) {
-                String m = "There was a problem running the processor.";
-                logger.error(m, ex);
-            }
+        if (storeDocuments) {
+            processedCorpora.add(corpus);
         }
 
-        executor.shutdown();
         try {
-            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-        } catch (InterruptedException ex) {
-            String m = "There was a problem executing the processing tasks.";
+            return newProcessor(processorCls, context, inputFile, outputFiles, addAnnotationsWithoutIDs, args);
+        } catch (NejiException ex) {
+            String m = "There was a problem creating the processor of the file: " + file.getAbsolutePath();
             logger.error(m, ex);
             throw new RuntimeException(m, ex);
         }
+    }
+
+    /**
+     * Counts the processed files, periodically logging the progress and throughput of the executor.
+     */
+    private static class Progress {
+
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final long start = System.nanoTime();
+        private final AtomicLong nextLog = new AtomicLong(start + PROGRESS_INTERVAL);
+
+        void completed(boolean success) {
+            if (success) {
+                processed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
 
-        return filesProcessed;
+            long now = System.nanoTime();
+            long next = nextLog.get();
+            if (now >= next && nextLog.compareAndSet(next, now + PROGRESS_INTERVAL)) {
+                log();
+            }
+        }
+
+        void log() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            logger.info("Processed {} file(s) ({} files/s).", processed.get(),
+                    String.format("%.2f", seconds > 0 ? processed.get() / seconds : 0.0));
+        }
     }
 
 //    private class WildcardFileNameFilter implements FilenameFilter {
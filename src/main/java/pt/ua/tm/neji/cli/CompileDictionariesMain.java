@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.cli;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.dictionary.DictionariesLoader;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Compiles the dictionaries of a folder that are listed with the <code>compact:</code> prefix in its priority
+ * file into compact indexes, so that they are not compiled when the dictionaries are loaded.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class CompileDictionariesMain {
+
+    /**
+     * Help Messages.
+     */
+    private static final String HEADER = "\nNeji: modular biomedical concept recognition made easy, fast and accessible.";
+    private static final String USAGE
+            = "-d <folder> "
+            + "[-cs]";
+    private static final String EXAMPLES = "\nUsage example:\n"
+            + "1: "
+            + "./nejiCompileDictionaries.sh -d resources/dictionaries/\n";
+    private static final String FOOTER = "For more instructions, please visit http://bioinformatics.ua.pt/neji.";
+
+    /**
+     * {@link org.slf4j.Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(CompileDictionariesMain.class);
+
+    /**
+     * Print help message of the program.
+     *
+     * @param options Command line arguments.
+     * @param msg Message to be displayed.
+     */
+    private static void printHelp(final Options options, final String msg) {
+        if (msg.length() != 0) {
+            logger.error(msg);
+        }
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp(150, "./nejiCompileDictionaries.sh " + USAGE, HEADER, options, EXAMPLES + FOOTER);
+    }
+
+    public static void main(String[] args) {
+
+        CommandLineParser parser = new GnuParser();
+        Options options = new Options();
+        options.addOption("h", "help", false, "Print this usage information.");
+
+        options.addOption("d", "dictionaries", true, "Folder that contains the dictionaries and their _priority file.");
+        options.addOption("cs", "case-sensitive", false, "Match the terms of the dictionaries with their case. "
+                + "Dictionaries used for normalization must be compiled with this option.");
+
+        CommandLine commandLine = null;
+        try {
+            // Parse the program arguments
+            commandLine = parser.parse(options, args);
+        } catch (ParseException ex) {
+            logger.error("There was a problem processing the input arguments.", ex);
+            return;
+        }
+
+        // Show help text
+        if (commandLine.hasOption('h') || commandLine.getOptions().length == 0) {
+            printHelp(options, "");
+            return;
+        }
+
+        // Get dictionaries folder
+        File folder;
+        if (commandLine.hasOption('d')) {
+            folder = new File(commandLine.getOptionValue('d'));
+            if (!folder.isDirectory() || !folder.canRead()) {
+                logger.error("The specified dictionaries path is not a folder or is not readable.");
+                return;
+            }
+        } else {
+            printHelp(options, "Please specify the dictionaries folder.");
+            return;
+        }
+
+        File priority = new File(folder, "_priority");
+        if (!priority.isFile()) {
+            logger.error("The specified dictionaries folder does not have a _priority file.");
+            return;
+        }
+
+        boolean ignoreCase = !commandLine.hasOption("cs");
+
+        try (FileInputStream fis = new FileInputStream(priority)) {
+            DictionariesLoader dl = new DictionariesLoader(fis);
+            int count = dl.compile(folder, ignoreCase);
+            logger.info("Done. Compiled {} compact dictionaries, the others were up to date.", count);
+        } catch (IOException | NejiException ex) {
+            logger.error("There was a problem compiling the dictionaries.", ex);
+        }
+    }
+}
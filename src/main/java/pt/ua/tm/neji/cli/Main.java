@@ -30,6 +30,7 @@ import pt.ua.tm.neji.context.Context;
 import pt.ua.tm.neji.context.ContextConfiguration;
 import pt.ua.tm.neji.context.InputFormat;
 import pt.ua.tm.neji.context.OutputFormat;
+import pt.ua.tm.neji.context.ParserPool;
 import pt.ua.tm.neji.core.Constants;
 import pt.ua.tm.neji.core.batch.BatchExecutor;
 import pt.ua.tm.neji.core.parser.ParserLanguage;
@@ -41,6 +42,7 @@ import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.logger.LoggingOutputStream;
 import pt.ua.tm.neji.ml.MLModel;
+import pt.ua.tm.neji.ml.MLScoring;
 import pt.ua.tm.neji.ml.MLModelsLoader;
 import pt.ua.tm.neji.processor.FileProcessor;
 import pt.ua.tm.neji.train.config.ModelConfig;
@@ -52,6 +54,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.apache.commons.io.FileUtils;
@@ -208,7 +211,8 @@ public class Main {
         o.setArgs(Integer.MAX_VALUE);
         options.addOption(o);
 
-        options.addOption("ptool", "parsing-tool", true, "GDEP or OPENNLP (GDEP is set by default)");
+        options.addOption("ptool", "parsing-tool", true, "GDEP, OPENNLP or TOKENIZER (GDEP is set by default). "
+                + "TOKENIZER only supports the TOKENIZATION level, without launching an external process.");
 
         options.addOption("plang", "parsing-language", true, "DANISH, DUTCH, ENGLISH, FRENCH, GERMAN, PORTUGUESE or SWEDISH (ENGLISH is set by default)");
 
@@ -227,6 +231,25 @@ public class Main {
         options.addOption("t", "threads", true,
                 "Number of threads. By default, if more than one core is available, it is the number of cores minus 1.");
         
+        options.addOption("mlscore", "ml-scoring", true, "NONE, VITERBI or FULL (FULL is set by default). "
+                + "Strategy used to compute the confidence of machine learning annotations.");
+        options.addOption("mlbatch", "ml-batch", true, "Decode the sentences of each document in batch, using the "
+                + "specified number of threads. By default, sentences are decoded one at a time.");
+        options.addOption("st", "sentence-threads", true, "Number of threads used to annotate the sentences of "
+                + "each document in parallel. By default, sentences are annotated by the thread processing the document.");
+
+        options.addOption("dcomb", "combine-dictionaries", false, "Match all dictionaries in a single pass over each sentence.");
+        options.addOption("ddoc", "document-matching", false, "Match dictionaries in the text of each document at once, "
+                + "instead of in each sentence.");
+        options.addOption("pcache", "parse-cache", true, "File where the parsing results of each sentence are cached "
+                + "across runs, so that sentences parsed before are not parsed again.");
+        options.addOption("ppmin", "parser-pool-min", true, "Number of parsers kept launched even when idle "
+                + "(1 by default). Further parsers are launched when needed, up to the number of threads.");
+        options.addOption("ppidle", "parser-idle-timeout", true, "Seconds after which idle parsers above the "
+                + "minimum number are closed (300 by default).");
+        options.addOption("pptimeout", "parser-take-timeout", true, "Seconds to wait for a parser when every one "
+                + "is in use, after which the document fails. By default, documents wait indefinitely.");
+
         options.addOption("fp", "false-positives-filter", true, "File that contains the false positive terms.");
         options.addOption("gn", "semantic-groups-normalization", true, 
                 "File that contains the semantic groups normalization terms.");
@@ -491,6 +514,89 @@ public class Main {
             includeAnnotationsWithoutIDs = true;
         }
         
+        // Load machine learning scoring
+        MLScoring mlScoring = null;
+        if (commandLine.hasOption("mlscore")) {
+            String mlScoringName = commandLine.getOptionValue("mlscore");
+            try {
+                mlScoring = MLScoring.valueOf(mlScoringName);
+            } catch (IllegalArgumentException ex) {
+                logger.error("Invalid machine learning scoring \"" + mlScoringName + "\". "
+                        + "Must be one of " + StringUtils.join(MLScoring.values(), ", "));
+                return;
+            }
+        }
+
+        // Load machine learning batch decoding
+        int mlBatchThreads = 0;
+        if (commandLine.hasOption("mlbatch")) {
+            String mlBatchText = commandLine.getOptionValue("mlbatch");
+            try {
+                mlBatchThreads = Integer.parseInt(mlBatchText);
+            } catch (NumberFormatException ex) {
+                mlBatchThreads = 0;
+            }
+            if (mlBatchThreads <= 0 || mlBatchThreads > 32) {
+                logger.error("Illegal number of batch decoding threads. Must be between 1 and 32.");
+                return;
+            }
+        }
+
+        // Load sentence annotation threads
+        int sentenceThreads = 0;
+        if (commandLine.hasOption("st")) {
+            String sentenceThreadsText = commandLine.getOptionValue("st");
+            try {
+                sentenceThreads = Integer.parseInt(sentenceThreadsText);
+            } catch (NumberFormatException ex) {
+                sentenceThreads = 0;
+            }
+            if (sentenceThreads <= 0 || sentenceThreads > 32) {
+                logger.error("Illegal number of sentence threads. Must be between 1 and 32.");
+                return;
+            }
+        }
+
+        // Load parser pool settings
+        int parserPoolMinSize = 1;
+        if (commandLine.hasOption("ppmin")) {
+            try {
+                parserPoolMinSize = Integer.parseInt(commandLine.getOptionValue("ppmin"));
+            } catch (NumberFormatException ex) {
+                parserPoolMinSize = -1;
+            }
+            if (parserPoolMinSize < 0) {
+                logger.error("Illegal minimum number of parsers. Must be 0 or more.");
+                return;
+            }
+        }
+
+        long parserIdleTimeout = ParserPool.DEFAULT_IDLE_TIMEOUT;
+        if (commandLine.hasOption("ppidle")) {
+            try {
+                parserIdleTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(commandLine.getOptionValue("ppidle")));
+            } catch (NumberFormatException ex) {
+                parserIdleTimeout = 0;
+            }
+            if (parserIdleTimeout <= 0) {
+                logger.error("Illegal parser idle timeout. Must be 1 second or more.");
+                return;
+            }
+        }
+
+        long parserTakeTimeout = 0;
+        if (commandLine.hasOption("pptimeout")) {
+            try {
+                parserTakeTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(commandLine.getOptionValue("pptimeout")));
+            } catch (NumberFormatException ex) {
+                parserTakeTimeout = 0;
+            }
+            if (parserTakeTimeout <= 0) {
+                logger.error("Illegal parser take timeout. Must be 1 second or more.");
+                return;
+            }
+        }
+
         // Get false positives filter
         byte[] fpByteArray = null;
         if (commandLine.hasOption("fp")) {
@@ -552,6 +658,15 @@ public class Main {
             
             descriptor.setFalsePositives(fpByteArray);
             descriptor.setSemanticGroupsNormalization(groupsNormByteArray);
+            descriptor.setMLScoring(mlScoring);
+            descriptor.setMLBatchThreads(mlBatchThreads);
+            descriptor.setSentenceThreads(sentenceThreads);
+            descriptor.setCombinedDictionaries(commandLine.hasOption("dcomb"));
+            descriptor.setDocumentMatching(commandLine.hasOption("ddoc"));
+            descriptor.setParseCacheFile(commandLine.getOptionValue("pcache"));
+            descriptor.setParserPoolMinSize(parserPoolMinSize);
+            descriptor.setParserIdleTimeout(parserIdleTimeout);
+            descriptor.setParserTakeTimeout(parserTakeTimeout);
         } catch (NejiException ex) {
             ex.printStackTrace();
             System.exit(1);
@@ -18,17 +18,18 @@ package pt.ua.tm.neji.context;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.core.module.DfaCache;
 import pt.ua.tm.neji.train.model.CRFBase;
+import pt.ua.tm.neji.core.parser.ParseCache;
 import pt.ua.tm.neji.core.parser.Parser;
-import pt.ua.tm.neji.core.parser.ParserLanguage;
-import pt.ua.tm.neji.core.parser.ParserLevel;
-import pt.ua.tm.neji.core.parser.ParserTool;
 import pt.ua.tm.neji.dictionary.DictionariesLoader;
 import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
 import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.exception.ParserTimeoutException;
 import pt.ua.tm.neji.ml.MLModel;
 import pt.ua.tm.neji.ml.MLModelsLoader;
+import pt.ua.tm.neji.parser.OpenNLPParser;
 import pt.ua.tm.neji.sentencesplitter.LingpipeSentenceSplitter;
 import pt.ua.tm.neji.sentencesplitter.SentenceSplitter;
 
@@ -36,7 +37,18 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Context provider that manages sentence splitters, parsers, dictionaries and ML models..
@@ -53,12 +65,25 @@ public class Context {
      */
     private static Logger logger = LoggerFactory.getLogger(Context.class);
 
+    /**
+     * Maximum number of threads used to load models and dictionaries.
+     */
+    private static final int LOADING_THREADS = 8;
+
     private ContextConfiguration configuration;
-    private LinkedBlockingQueue<Parser> parsersTS;
+    private ParserPool parserPool;
+    private ParseCache parseCache;
     private LinkedBlockingQueue<SentenceSplitter> sentenceSplittersTS;
-    private Map<String, Dictionary> dictionariesTS;
+    private AtomicReference<Map<String, Dictionary>> dictionariesTS;
     private Map<String, MLModel> modelsTS;
+    private DfaCache dfaCache;
+    private PipelinePool pipelinePool;
+    private ForkJoinPool sentencePool;
+    private ExecutorService dictionaryLoader;
+    private final Map<String, Object> dictionaryLoads;
+    private ScheduledExecutorService maintenance;
     private boolean isInitialized;
+    private boolean retainsParserModels;
     private String dictionariesFolder;
     private String modelsFolder;
     private boolean doModels, doDictionaries,
@@ -90,10 +115,12 @@ public class Context {
         this.modelsFolder = modelsFolder;
         this.parserPath = parserPath;
 
-        this.parsersTS = new LinkedBlockingQueue<>();
-        this.dictionariesTS = new LinkedHashMap<>();
+        this.dictionariesTS = new AtomicReference<>(Collections.<String, Dictionary>emptyMap());
+        this.dictionaryLoads = new HashMap<>();
         this.modelsTS = new LinkedHashMap<>();
         this.sentenceSplittersTS = new LinkedBlockingQueue<>();
+        this.dfaCache = new DfaCache();
+        this.pipelinePool = new PipelinePool(this);
 
         this.readyForMultiThreading = false;
         this.isInitialized = false;
@@ -104,8 +131,20 @@ public class Context {
 //        this.setParsingLevelAutomatically = (parserLevel == null);
     }
 
-    public ContextProcessors take() throws InterruptedException {
-        Parser parser = parsersTS.take();
+    /**
+     * Takes the processors needed to process a document, waiting for a parser if every one is in use.
+     * @return the context processors
+     * @throws InterruptedException if interrupted while waiting for the processors
+     * @throws ParserTimeoutException if no parser became available within the take timeout of the parser pool
+     * @throws NejiException if there was a problem launching a parser
+     */
+    public ContextProcessors take() throws InterruptedException, NejiException {
+        // Release the processors held by idle pipelines
+        if (parserPool.isExhausted()) {
+            pipelinePool.clear();
+        }
+
+        Parser parser = parserPool.take();
         SentenceSplitter splitter = sentenceSplittersTS.take();
         Map<String, CRFBase> contextModels = new LinkedHashMap<>();
         
@@ -120,7 +159,7 @@ public class Context {
 
     public void put(ContextProcessors contextProcessors) throws InterruptedException {
         sentenceSplittersTS.put(contextProcessors.getSentenceSplitter());
-        parsersTS.put(contextProcessors.getParser());
+        parserPool.put(contextProcessors.getParser());
 
         for (MLModel model : modelsTS.values()) {
             model.put(contextProcessors.getCRF(model.getModelName()));
@@ -167,13 +206,13 @@ public class Context {
     public boolean addNewDictionary(String dictionaryName, List<String> lines) {
 
         try {
-            if (!dictionariesTS.containsKey(dictionaryName)) {
+            if (!dictionariesTS.get().containsKey(dictionaryName)) {
 
                 Dictionary d = VariantMatcherLoader.loadDictionaryFromLines(lines);
-                dictionariesTS.put(dictionaryName, d);
-                logger.info("Dictionary {}, group {}, was added to context.", dictionaryName, d.getGroup());
-
-                return true;
+                if (publish(dictionaryName, d, false)) {
+                    logger.info("Dictionary {}, group {}, was added to context.", dictionaryName, d.getGroup());
+                    return true;
+                }
             }
 
         } catch (NejiException ex) {
@@ -183,32 +222,202 @@ public class Context {
         return false;
     }
 
+    /**
+     * Loads a dictionary in background and swaps it into the context when ready, replacing the dictionary
+     * with the same name, if any. Documents being processed keep using the dictionaries they started with.
+     * <p>
+     * Only the latest load of each name is published: a load is discarded if the dictionary is removed or
+     * loaded again before it finishes.
+     * @param dictionaryName the name of the dictionary
+     * @param lines the lines of the dictionary
+     * @return the future dictionary, which fails if the lines could not be loaded or the load was discarded
+     */
+    public Future<Dictionary> loadDictionary(final String dictionaryName, final List<String> lines) {
+        ExecutorService executor;
+        synchronized (this) {
+            if (dictionaryLoader == null) {
+                dictionaryLoader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "dictionary-loader");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            executor = dictionaryLoader;
+        }
+
+        // Identifies this load, so that it is only published while it is the latest one of the dictionary
+        final Object load = new Object();
+        synchronized (dictionaryLoads) {
+            dictionaryLoads.put(dictionaryName, load);
+        }
+
+        return executor.submit(new Callable<Dictionary>() {
+            @Override
+            public Dictionary call() throws NejiException {
+                long start = System.nanoTime();
+                try {
+                    Dictionary d = VariantMatcherLoader.loadDictionaryFromLines(lines);
+                    synchronized (dictionaryLoads) {
+                        if (dictionaryLoads.get(dictionaryName) != load) {
+                            throw new CancellationException("The dictionary " + dictionaryName
+                                    + " was removed or loaded again while being loaded.");
+                        }
+                        dictionaryLoads.remove(dictionaryName);
+                        publish(dictionaryName, d, true);
+                    }
+                    logger.info("Dictionary {}, group {}, was loaded into context in {} ms.", new Object[]{
+                            dictionaryName, d.getGroup(), (System.nanoTime() - start) / 1000000});
+                    return d;
+                } catch (CancellationException ex) {
+                    logger.info("Discarded the load of the dictionary {}.", dictionaryName);
+                    throw ex;
+                } catch (NejiException | RuntimeException ex) {
+                    synchronized (dictionaryLoads) {
+                        if (dictionaryLoads.get(dictionaryName) == load) {
+                            dictionaryLoads.remove(dictionaryName);
+                        }
+                    }
+                    logger.error("There was a problem loading the dictionary " + dictionaryName + ".", ex);
+                    throw ex;
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes a dictionary from the context, discarding its load in background, if any.
+     * @param dictionaryName the name of the dictionary
+     */
     public void removeDictionary(String dictionaryName) {
-        Dictionary removedDictionary = dictionariesTS.remove(dictionaryName);
-        if (removedDictionary != null) {
-            logger.info("Dictionary {}, group {}, was removed from context.", dictionaryName, removedDictionary.getGroup());
+        synchronized (dictionaryLoads) {
+            if (dictionaryLoads.remove(dictionaryName) != null) {
+                logger.info("Dictionary {} is being loaded and will not be added to context.", dictionaryName);
+            }
+            Dictionary removedDictionary = dictionariesTS.get().get(dictionaryName);
+            if (removedDictionary != null && publish(dictionaryName, null, true)) {
+                logger.info("Dictionary {}, group {}, was removed from context.", dictionaryName, removedDictionary.getGroup());
+            }
+        }
+    }
+
+    /**
+     * Publishes a new snapshot of the dictionaries, with the specified dictionary added, replaced or removed.
+     * Snapshots are never changed after being published, so readers do not need any lock.
+     * @param dictionaryName the name of the dictionary
+     * @param dictionary the dictionary, or <code>null</code> to remove it
+     * @param replace <code>true</code> to replace an existing dictionary with the same name, <code>false</code>
+     * to keep it
+     * @return <code>true</code> if the dictionaries were changed, <code>false</code> otherwise
+     */
+    private boolean publish(String dictionaryName, Dictionary dictionary, boolean replace) {
+        while (true) {
+            Map<String, Dictionary> current = dictionariesTS.get();
+            if (dictionary == null ? !current.containsKey(dictionaryName)
+                    : !replace && current.containsKey(dictionaryName)) {
+                return false;
+            }
+
+            Map<String, Dictionary> next = new LinkedHashMap<>(current);
+            if (dictionary == null) {
+                next.remove(dictionaryName);
+            } else {
+                next.put(dictionaryName, dictionary);
+            }
+            if (dictionariesTS.compareAndSet(current, Collections.unmodifiableMap(next))) {
+                return true;
+            }
         }
     }
 
     // Dictionaries
     public List<Dictionary> getDictionaries() {
-        return Lists.newArrayList(dictionariesTS.values());
+        return Lists.newArrayList(dictionariesTS.get().values());
     }
 
     public Set<Map.Entry<String, Dictionary>> getDictionaryPairs() {
-        return dictionariesTS.entrySet();
+        return dictionariesTS.get().entrySet();
+    }
+
+    /**
+     * Gets the current snapshot of the dictionaries, which is not changed by later additions or removals.
+     * @return the dictionaries by name, in priority order
+     */
+    public Map<String, Dictionary> getDictionarySnapshot() {
+        return dictionariesTS.get();
     }
 
     public ContextConfiguration getConfiguration() {
         return configuration;
     }
 
+    /**
+     * Returns the cache of compiled module automata, shared by every pipeline created with this context.
+     * @return the cache of compiled module automata
+     */
+    public DfaCache getDfaCache() {
+        return dfaCache;
+    }
+
+    /**
+     * Returns the pool of assembled pipelines, which are reset and reused to process documents with this context.
+     * @return the pool of assembled pipelines
+     */
+    public PipelinePool getPipelinePool() {
+        return pipelinePool;
+    }
+
+    /**
+     * Gets the pool of parsers, which launches parsers on demand up to the number of threads.
+     * @return the parser pool
+     */
+    public ParserPool getParserPool() {
+        return parserPool;
+    }
+
+    /**
+     * Returns the pool used to annotate the sentences of a document in parallel, shared by every pipeline
+     * created with this context. The pool is created the first time it is requested.
+     * @return the pool, or <code>null</code> if sentences are not annotated in parallel
+     */
+    public synchronized ForkJoinPool getSentencePool() {
+        int threads = Math.max(configuration.getMLBatchThreads(), configuration.getSentenceThreads());
+        if (threads <= 1) {
+            return null;
+        }
+        if (sentencePool == null) {
+            sentencePool = new ForkJoinPool(threads);
+        }
+        return sentencePool;
+    }
+
     public void initialize() throws NejiException {
         if (isInitialized) {
             return;
         }
 
+        // Models and dictionaries are loaded concurrently, while the parser is launched
+        long start = System.nanoTime();
+        ForkJoinPool loadingPool = new ForkJoinPool(Math.min(LOADING_THREADS,
+                Runtime.getRuntime().availableProcessors()));
+        try {
+            initialize(loadingPool);
+        } finally {
+            loadingPool.shutdown();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        logger.info("Context initialized in {} ms ({} MB of heap in use)", (System.nanoTime() - start) / 1000000,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+        // Set initialized
+        isInitialized = true;
+    }
 
+    private void initialize(final ExecutorService loadingPool) throws NejiException {
+        List<Future<Void>> modelFutures = new ArrayList<>();
         if (doModels) {
             String priorityFileName = modelsFolder + "_priority";
             MLModelsLoader ml;
@@ -224,8 +433,14 @@ public class Context {
 
             // Initialize models
             List<MLModel> modelList = Lists.newArrayList(modelsTS.values());
-            for (MLModel model : modelList) {
-                model.initialize();
+            for (final MLModel model : modelList) {
+                modelFutures.add(loadingPool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws NejiException {
+                        model.initialize(loadingPool);
+                        return null;
+                    }
+                }));
             }
 
 //            if (setParsingLevelAutomatically) {
@@ -247,16 +462,29 @@ public class Context {
 //        }
 
         logger.info("Initializing parsers...");
-        // Initialize Parser
+        // Parser models shared with other contexts are kept until this one is terminated
+        synchronized (this) {
+            if (!retainsParserModels) {
+                OpenNLPParser.retainModels();
+                retainsParserModels = true;
+            }
+        }
+
+        // Initialize Parser, keeping one launched even when idle
+        parserPool = new ParserPool(configuration.getParserTool(), configuration.getParserLanguage(),
+                configuration.getParserLevel(), parserPath);
+        parserPool.setMinSize(configuration.getParserPoolMinSize());
+        parserPool.setIdleTimeout(configuration.getParserIdleTimeout());
+        parserPool.setTakeTimeout(configuration.getParserTakeTimeout());
+        if (configuration.getParseCacheFile() != null) {
+            parseCache = new ParseCache(ParseCache.DEFAULT_CAPACITY, new File(configuration.getParseCacheFile()));
+            parserPool.setParseCache(parseCache);
+        }
         try {
-            ParserTool tool = configuration.getParserTool();
-            ParserLanguage lang = configuration.getParserLanguage();
-            ParserLevel level = configuration.getParserLevel();
-            Parser p = Parser.defaultParserFactory(tool, lang, level, parserPath);
-            p.launch();
-            parsersTS.put(p);
-        } catch (Exception ex) {
-            throw new NejiException("There was a problem loading the parser.", ex);
+            parserPool.put(parserPool.take());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NejiException("Interrupted while loading the parser.", ex);
         }
 
 
@@ -270,8 +498,23 @@ public class Context {
             } catch (FileNotFoundException ex) {
                 throw new NejiException("There was a problem reading the dictionaries.", ex);
             }
-            dl.load(new File(dictionariesFolder), true);
-            dictionariesTS = dl.getDictionaries();
+            dl.load(new File(dictionariesFolder), true, configuration.isCombinedDictionaries(), loadingPool);
+            dictionariesTS.set(Collections.unmodifiableMap(new LinkedHashMap<>(dl.getDictionaries())));
+        }
+
+        // Wait for the models
+        for (Future<Void> future : modelFutures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new NejiException("Interrupted while loading the models.", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof NejiException) {
+                    throw (NejiException) ex.getCause();
+                }
+                throw new NejiException("There was a problem loading the models.", ex.getCause());
+            }
         }
 
         // Initialize sentence splitters
@@ -281,9 +524,6 @@ public class Context {
         } catch (Exception ex) {
             throw new NejiException("There was a problem loading the Sentence Splitters.", ex);
         }
-
-        // Set initialized
-        isInitialized = true;
     }
 
 //    private ParserLevel getParserLevel(final List<MLModel> models) {
@@ -329,18 +569,10 @@ public class Context {
             return;
         }
 
-        // Parsers
-        ParserTool tool = configuration.getParserTool();
-        ParserLanguage lang = configuration.getParserLanguage();
-        ParserLevel level = configuration.getParserLevel();
-        for (int i = 1; i < numThreads; i++) {
-            try {
-                Parser p = Parser.defaultParserFactory(tool, lang, level, parserPath);
-                p.launch();
-                parsersTS.put(p);
-            } catch (Exception ex) {
-                throw new NejiException("There was a problem loading the parser.", ex);
-            }
+        // Parsers are launched when needed, and closed after being idle for a while
+        parserPool.setMaxSize(numThreads);
+        if (numThreads > 1) {
+            startMaintenance();
         }
 
         // Models
@@ -369,33 +601,100 @@ public class Context {
         this.numThreads = numThreads;
     }
 
+    /**
+     * Starts a thread that periodically discards idle pipelines and closes idle or crashed parsers.
+     */
+    private synchronized void startMaintenance() {
+        if (maintenance != null) {
+            return;
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "parser-pool-maintenance");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        long period = Math.max(parserPool.getIdleTimeout() / 2, 1000);
+        maintenance.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Parsers of discarded pipelines are only closed after being idle in the parser pool
+                    pipelinePool.evictIdle(parserPool.getIdleTimeout());
+                    parserPool.evictIdle();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException ex) {
+                    logger.error("There was a problem evicting idle parsers.", ex);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
     public void terminate() throws NejiException {
+        synchronized (this) {
+            if (maintenance != null) {
+                maintenance.shutdownNow();
+                maintenance = null;
+            }
+        }
+
+        // Return processors held by idle pipelines
+        try {
+            pipelinePool.clear();
+        } catch (InterruptedException ex) {
+            throw new NejiException("There was a problem terminating the pipelines.", ex);
+        }
+
         // Finalize parsers
-        while (!parsersTS.isEmpty()) {
-            try {
-                Parser parser = parsersTS.take();
-                parser.close();
-                parser = null;
-            } catch (InterruptedException ex) {
-                throw new NejiException("There was a problem terminating the parsers.", ex);
+        if (parserPool != null) {
+            parserPool.close();
+            logger.info("Parser pool: {}", parserPool);
+        }
+        if (parseCache != null) {
+            logger.info("Parse cache: {}", parseCache);
+            parseCache.close();
+            parseCache = null;
+        }
+        synchronized (this) {
+            if (retainsParserModels) {
+                OpenNLPParser.releaseModels();
+                retainsParserModels = false;
             }
         }
-        this.parsersTS = new LinkedBlockingQueue<>();
 
         // Dictionaries
-        for (Map.Entry<String, Dictionary> e : dictionariesTS.entrySet()) {
-            e.setValue(null);
-            e = null;
+        synchronized (this) {
+            if (dictionaryLoader != null) {
+                dictionaryLoader.shutdownNow();
+                dictionaryLoader = null;
+            }
         }
-        this.dictionariesTS = new LinkedHashMap<>();
+        dictionariesTS.set(Collections.<String, Dictionary>emptyMap());
 
         // Models
         for (Map.Entry<String, MLModel> e : modelsTS.entrySet()) {
+            if (e.getValue().hasNormalizationDictionaries()) {
+                logger.info("Normalization cache of {}: {}", e.getKey(), e.getValue().getNormalizationCache());
+            }
             e.setValue(null);
             e = null;
         }
         this.modelsTS = new LinkedHashMap<>();
 
+        // Compiled automata
+        dfaCache.clear();
+
+        // Sentence annotation threads
+        synchronized (this) {
+            if (sentencePool != null) {
+                sentencePool.shutdown();
+                sentencePool = null;
+            }
+        }
 
         System.gc();
         isInitialized = false;
@@ -43,9 +43,11 @@ import pt.ua.tm.neji.core.parser.ParserLanguage;
 import pt.ua.tm.neji.core.parser.ParserLevel;
 import pt.ua.tm.neji.core.parser.ParserTool;
 import pt.ua.tm.neji.core.pipeline.PipelineValidator;
+import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.DictionaryHybrid;
 import pt.ua.tm.neji.disambiguator.Disambiguate;
 import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.ml.MLScoring;
 import pt.ua.tm.neji.nlp.NLP;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
 import pt.ua.tm.neji.pipeline.DefaultPipelineValidator;
@@ -80,6 +82,15 @@ public class ContextConfiguration {
     
     private byte[] falsePositives;
     private byte[] semanticGroupsNormalization;
+    private MLScoring mlScoring;
+    private int mlBatchThreads;
+    private int sentenceThreads;
+    private boolean combinedDictionaries;
+    private boolean documentMatching;
+    private String parseCacheFile;
+    private int parserPoolMinSize = 1;
+    private long parserIdleTimeout = ParserPool.DEFAULT_IDLE_TIMEOUT;
+    private long parserTakeTimeout = 0;
 
     private ContextConfiguration(final InputFormat inputFormat,
                                  final List<OutputFormat> outputFormats,
@@ -209,6 +220,157 @@ public class ContextConfiguration {
         this.semanticGroupsNormalization = semanticGroupsNormalization;
     }
 
+    /**
+     * Get machine learning scoring strategy.
+     * @return The scoring strategy, or null if each model uses its own
+     */
+    public MLScoring getMLScoring() {
+        return mlScoring;
+    }
+
+    /**
+     * Set machine learning scoring strategy, overriding the one of each model.
+     * @param mlScoring The scoring strategy
+     */
+    public void setMLScoring(MLScoring mlScoring) {
+        this.mlScoring = mlScoring;
+    }
+
+    /**
+     * Get number of threads used to decode the sentences of each document in batch.
+     * @return The number of threads, or 0 if sentences are decoded one at a time
+     */
+    public int getMLBatchThreads() {
+        return mlBatchThreads;
+    }
+
+    /**
+     * Set number of threads used to decode the sentences of each document in batch. With one thread,
+     * each batch is decoded by the thread processing the document.
+     * @param mlBatchThreads The number of threads, or 0 to decode sentences one at a time
+     */
+    public void setMLBatchThreads(int mlBatchThreads) {
+        this.mlBatchThreads = mlBatchThreads;
+    }
+
+    /**
+     * Get number of threads used to annotate the sentences of each document in parallel.
+     * @return The number of threads, or 0 if sentences are annotated by the thread processing the document
+     */
+    public int getSentenceThreads() {
+        return sentenceThreads;
+    }
+
+    /**
+     * Set number of threads used to annotate the sentences of each document in parallel. Dictionary matching
+     * and machine learning decoding of the sentences provided by the parser are shared by these threads.
+     * @param sentenceThreads The number of threads, or 0 to annotate sentences in the thread processing the document
+     */
+    public void setSentenceThreads(int sentenceThreads) {
+        this.sentenceThreads = sentenceThreads;
+    }
+
+    /**
+     * Check if the dictionaries are loaded in a single combined matcher.
+     * @return <code>true</code> if every sentence is matched against all dictionaries in one pass
+     */
+    public boolean isCombinedDictionaries() {
+        return combinedDictionaries;
+    }
+
+    /**
+     * Set if the dictionaries are loaded in a single combined matcher, which matches every sentence against
+     * all dictionaries in one pass instead of having a matching stage for each dictionary.
+     * @param combinedDictionaries <code>true</code> to combine the dictionaries, <code>false</code> otherwise
+     */
+    public void setCombinedDictionaries(boolean combinedDictionaries) {
+        this.combinedDictionaries = combinedDictionaries;
+    }
+
+    /**
+     * Check if dictionaries match the text of each document at once.
+     * @return <code>true</code> if the text of the corpus is matched, <code>false</code> if each sentence is matched
+     */
+    public boolean isDocumentMatching() {
+        return documentMatching;
+    }
+
+    /**
+     * Set if dictionaries match the text of each document at once, assigning the mentions to the sentences,
+     * instead of matching a copy of the text of each sentence.
+     * @param documentMatching <code>true</code> to match the text of the corpus, <code>false</code> otherwise
+     */
+    public void setDocumentMatching(boolean documentMatching) {
+        this.documentMatching = documentMatching;
+    }
+
+    /**
+     * Get the file where the parser output of each sentence is cached across runs.
+     * @return The cache file, or <code>null</code> if sentences are always parsed
+     */
+    public String getParseCacheFile() {
+        return parseCacheFile;
+    }
+
+    /**
+     * Set the file where the parser output of each sentence is cached across runs, so that sentences parsed
+     * before are not parsed again. The most recently used sentences are also cached in memory.
+     * @param parseCacheFile The cache file, or <code>null</code> to always parse sentences
+     */
+    public void setParseCacheFile(String parseCacheFile) {
+        this.parseCacheFile = parseCacheFile;
+    }
+
+    /**
+     * Get the number of parsers that are kept launched even when idle.
+     * @return The minimum number of parsers
+     */
+    public int getParserPoolMinSize() {
+        return parserPoolMinSize;
+    }
+
+    /**
+     * Set the number of parsers that are kept launched even when idle. Further parsers are launched when
+     * needed, up to the number of processing threads.
+     * @param parserPoolMinSize The minimum number of parsers
+     */
+    public void setParserPoolMinSize(int parserPoolMinSize) {
+        this.parserPoolMinSize = parserPoolMinSize;
+    }
+
+    /**
+     * Get the time after which idle parsers above the minimum number are closed.
+     * @return The idle timeout in milliseconds
+     */
+    public long getParserIdleTimeout() {
+        return parserIdleTimeout;
+    }
+
+    /**
+     * Set the time after which idle parsers above the minimum number are closed.
+     * @param parserIdleTimeout The idle timeout in milliseconds
+     */
+    public void setParserIdleTimeout(long parserIdleTimeout) {
+        this.parserIdleTimeout = parserIdleTimeout;
+    }
+
+    /**
+     * Get the maximum time to wait for a parser when every one is in use.
+     * @return The take timeout in milliseconds, or 0 if documents wait indefinitely
+     */
+    public long getParserTakeTimeout() {
+        return parserTakeTimeout;
+    }
+
+    /**
+     * Set the maximum time to wait for a parser when every one is in use, after which the document fails
+     * with a {@link pt.ua.tm.neji.exception.ParserTimeoutException}.
+     * @param parserTakeTimeout The take timeout in milliseconds, or 0 to wait indefinitely
+     */
+    public void setParserTakeTimeout(long parserTakeTimeout) {
+        this.parserTakeTimeout = parserTakeTimeout;
+    }
+
     public int fetchCustomModules(final List<Module> moduleList, Parser parser) {
         int indexAfterReaders = 1;
         int i = 0;
@@ -621,7 +783,7 @@ public class ContextConfiguration {
 //            } else if (moduleObject instanceof Writer) {
 //                outputFormats.add(((Writer) moduleObject).getOutputFormat());
             if(moduleObject instanceof NLP){
-                modulesForValidation.add(new DictionaryHybrid(null)); // just to provide Annotations during validation
+                modulesForValidation.add(new DictionaryHybrid((Dictionary) null)); // just to provide Annotations during validation
             }
 
             moduleNames.add(moduleClass.getName());
@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.core.parser.ParseCache;
+import pt.ua.tm.neji.core.parser.Parser;
+import pt.ua.tm.neji.core.parser.ParserLanguage;
+import pt.ua.tm.neji.core.parser.ParserLevel;
+import pt.ua.tm.neji.core.parser.ParserTool;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.exception.ParserTimeoutException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elastic pool of launched parsers, which grows with the load up to a maximum size and shrinks back to a
+ * minimum size when parsers stay idle.
+ * <p>
+ * Parsers are only launched when a thread takes one and no idle parser exists, so threads that are never used
+ * do not start a parser process. Idle parsers are reused in LIFO order, leaving the least recently used ones
+ * to be closed by {@link #evictIdle()} once idle for longer than the idle timeout. Parsers that are no longer
+ * healthy, such as GDep parsers whose process crashed, are closed and replaced by new ones.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ParserPool {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(ParserPool.class);
+
+    /**
+     * Default time, in milliseconds, after which idle parsers above the minimum size are closed.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private final ParserTool tool;
+    private final ParserLanguage language;
+    private final ParserLevel level;
+    private final String parserPath;
+    private final Deque<Idle> idle;
+    private volatile ParseCache parseCache;
+    private int minSize;
+    private int maxSize;
+    private long idleTimeout;
+    private long takeTimeout;
+    private int size;
+    private int busy;
+    private boolean closed;
+
+    // Statistics
+    private long takes;
+    private long timeouts;
+    private long waitTime;
+    private long maxWaitTime;
+    private long launched;
+    private long restarted;
+    private long evicted;
+    private long busyTime;
+    private long sizeTime;
+    private long lastChange;
+
+    public ParserPool(final ParserTool tool, final ParserLanguage language, final ParserLevel level,
+                      final String parserPath) {
+        this.tool = tool;
+        this.language = language;
+        this.level = level;
+        this.parserPath = parserPath;
+        this.idle = new ArrayDeque<>();
+        this.minSize = 1;
+        this.maxSize = 1;
+        this.idleTimeout = DEFAULT_IDLE_TIMEOUT;
+        this.takeTimeout = 0;
+        this.lastChange = System.nanoTime();
+    }
+
+    /**
+     * Launches a new parser. Called without holding the lock of the pool, so several parsers may be
+     * launched concurrently.
+     * @return the launched parser
+     * @throws NejiException if there was a problem launching the parser
+     */
+    protected Parser launch() throws NejiException {
+        Parser parser = Parser.defaultParserFactory(tool, language, level, parserPath);
+        if (parser == null) {
+            throw new NejiException("There is no parser for the tool " + tool + ".");
+        }
+        parser.setParseCache(parseCache);
+        try {
+            parser.launch();
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem loading the parser.", ex);
+        }
+        return parser;
+    }
+
+    /**
+     * Takes a parser from the pool, launching a new one if none is idle and the pool is not full. Otherwise,
+     * waits for a parser to be returned, up to the take timeout.
+     * @return the parser
+     * @throws InterruptedException if interrupted while waiting for a parser
+     * @throws ParserTimeoutException if no parser was returned before the take timeout
+     * @throws NejiException if there was a problem launching a new parser
+     */
+    public Parser take() throws InterruptedException, NejiException {
+        long start = System.nanoTime();
+        Parser parser = null;
+
+        synchronized (this) {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(takeTimeout);
+            while (idle.isEmpty() && size >= maxSize) {
+                if (takeTimeout > 0) {
+                    if (remaining <= 0) {
+                        timeouts++;
+                        throw new ParserTimeoutException("No parser was available after waiting " + takeTimeout + " ms.");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining = TimeUnit.MILLISECONDS.toNanos(takeTimeout) - (System.nanoTime() - start);
+                } else {
+                    wait();
+                }
+            }
+
+            if (idle.isEmpty()) {
+                // Reserve the slot of the parser to be launched
+                update(1, 1);
+            } else {
+                parser = idle.pop().parser;
+                update(1, 0);
+            }
+
+            long wait = System.nanoTime() - start;
+            takes++;
+            waitTime += wait;
+            maxWaitTime = Math.max(maxWaitTime, wait);
+        }
+
+        if (parser != null && !parser.isHealthy()) {
+            logger.warn("Restarting a {} parser that stopped working.", tool);
+            parser.close();
+            parser = null;
+            synchronized (this) {
+                restarted++;
+            }
+        }
+
+        if (parser == null) {
+            boolean success = false;
+            try {
+                parser = launch();
+                success = true;
+            } finally {
+                synchronized (this) {
+                    if (success) {
+                        launched++;
+                    } else {
+                        update(-1, -1);
+                        notifyAll();
+                    }
+                }
+            }
+        }
+        return parser;
+    }
+
+    /**
+     * Returns a parser to the pool. Parsers that are no longer healthy are closed, so that a new one is
+     * launched when needed.
+     * @param parser the parser taken from the pool
+     */
+    public void put(final Parser parser) {
+        boolean healthy = parser.isHealthy();
+        boolean close;
+        synchronized (this) {
+            close = !healthy || closed;
+            if (close) {
+                update(-1, -1);
+                if (!healthy) {
+                    restarted++;
+                }
+            } else {
+                idle.push(new Idle(parser, System.nanoTime()));
+                update(-1, 0);
+            }
+            notifyAll();
+        }
+
+        if (close) {
+            if (!healthy) {
+                logger.warn("Closing a {} parser that stopped working.", tool);
+            }
+            parser.close();
+        }
+    }
+
+    /**
+     * Closes the idle parsers that are no longer healthy, and the least recently used idle parsers above the
+     * minimum size that stayed idle for longer than the idle timeout.
+     * @return the number of closed parsers
+     */
+    public int evictIdle() {
+        List<Parser> toClose = new ArrayList<>();
+        int numEvicted = 0;
+
+        synchronized (this) {
+            Iterator<Idle> it = idle.iterator();
+            while (it.hasNext()) {
+                Parser parser = it.next().parser;
+                if (!parser.isHealthy()) {
+                    it.remove();
+                    toClose.add(parser);
+                    update(0, -1);
+                    restarted++;
+                }
+            }
+
+            long now = System.nanoTime();
+            long timeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+            while (size > minSize && !idle.isEmpty() && now - idle.peekLast().since > timeout) {
+                toClose.add(idle.removeLast().parser);
+                update(0, -1);
+                numEvicted++;
+            }
+            evicted += numEvicted;
+
+            if (!toClose.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        if (numEvicted > 0) {
+            logger.info("Closing {} idle {} parsers.", numEvicted, tool);
+        }
+        for (Parser parser : toClose) {
+            parser.close();
+        }
+        return toClose.size();
+    }
+
+    /**
+     * Closes every idle parser. Parsers still in use are closed when returned to the pool.
+     */
+    public void close() {
+        List<Parser> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Idle i : idle) {
+                toClose.add(i.parser);
+            }
+            idle.clear();
+            update(0, -toClose.size());
+            notifyAll();
+        }
+
+        for (Parser parser : toClose) {
+            parser.close();
+        }
+    }
+
+    /**
+     * Updates the number of busy and launched parsers, accumulating the time spent with the previous values.
+     */
+    private void update(final int busyDelta, final int sizeDelta) {
+        long now = System.nanoTime();
+        busyTime += busy * (now - lastChange);
+        sizeTime += size * (now - lastChange);
+        lastChange = now;
+        busy += busyDelta;
+        size += sizeDelta;
+    }
+
+    /**
+     * Checks if taking a parser would block, since no parser is idle and the pool cannot grow.
+     * @return <code>true</code> if the pool is exhausted, <code>false</code> otherwise
+     */
+    public synchronized boolean isExhausted() {
+        return idle.isEmpty() && size >= maxSize;
+    }
+
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * Sets the cache of parsed sentences used by the parsers launched afterwards.
+     * @param parseCache the cache, or <code>null</code> to always parse sentences
+     */
+    public void setParseCache(final ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    public synchronized int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Sets the number of parsers that are kept launched even when idle.
+     * @param minSize the minimum number of parsers
+     */
+    public synchronized void setMinSize(final int minSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("The minimum size must not be negative.");
+        }
+        this.minSize = minSize;
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of launched parsers.
+     * @param maxSize the maximum number of parsers
+     */
+    public synchronized void setMaxSize(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be at least 1.");
+        }
+        this.maxSize = maxSize;
+        notifyAll();
+    }
+
+    public synchronized long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the time after which idle parsers above the minimum size are closed.
+     * @param idleTimeout the idle timeout in milliseconds
+     */
+    public synchronized void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public synchronized long getTakeTimeout() {
+        return takeTimeout;
+    }
+
+    /**
+     * Sets the maximum time to wait for a parser when the pool is exhausted.
+     * @param takeTimeout the take timeout in milliseconds, or 0 to wait indefinitely
+     */
+    public synchronized void setTakeTimeout(final long takeTimeout) {
+        this.takeTimeout = takeTimeout;
+    }
+
+    /**
+     * Gets the number of launched parsers, either idle or in use.
+     * @return the number of parsers
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized int getBusy() {
+        return busy;
+    }
+
+    public synchronized int getIdle() {
+        return idle.size();
+    }
+
+    public synchronized long getTakes() {
+        return takes;
+    }
+
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    public synchronized long getLaunched() {
+        return launched;
+    }
+
+    public synchronized long getRestarted() {
+        return restarted;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Gets the average time threads waited to take a parser, including the time spent waiting for the lock.
+     * @return the average wait time in milliseconds
+     */
+    public synchronized double getAverageWaitTime() {
+        return takes == 0 ? 0 : waitTime / 1e6 / takes;
+    }
+
+    public synchronized double getMaxWaitTime() {
+        return maxWaitTime / 1e6;
+    }
+
+    /**
+     * Gets the fraction of time that launched parsers spent in use.
+     * @return the utilisation, between 0 and 1
+     */
+    public synchronized double getUtilisation() {
+        update(0, 0);
+        return sizeTime == 0 ? 0 : (double) busyTime / sizeTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d parsers (%d busy, max %d), %.1f%% utilisation, %d takes with %.2f ms average "
+                        + "and %.2f ms max wait, %d timeouts, %d launched, %d restarted, %d evicted",
+                size, busy, maxSize, getUtilisation() * 100, takes, getAverageWaitTime(), getMaxWaitTime(),
+                timeouts, launched, restarted, evicted);
+    }
+
+    /**
+     * Idle parser and the time it was returned to the pool.
+     */
+    private static class Idle {
+
+        private final Parser parser;
+        private final long since;
+
+        Idle(final Parser parser, final long since) {
+            this.parser = parser;
+            this.since = since;
+        }
+    }
+}
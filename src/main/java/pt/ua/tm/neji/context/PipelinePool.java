@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.context;
+
+import pt.ua.tm.neji.core.pipeline.Pipeline;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of fully assembled pipelines, each one bound to the {@link ContextProcessors} used to build its modules.
+ * <p>
+ * Workers take an entry from the pool for each document, identified by a key that describes the modules of the
+ * pipeline. If an idle pipeline with the same key exists, it is returned and only needs to be reset with
+ * {@link Pipeline#reset(pt.ua.tm.neji.core.corpus.Corpus)}. Otherwise, the returned entry only holds context
+ * processors, and the worker must assemble a new pipeline and set it in the entry before returning it.
+ * <p>
+ * Idle entries keep their context processors, so the pool returns them to the {@link Context} whenever another
+ * worker is waiting for processors, preventing workers with different keys from starving each other, and
+ * once idle for a long time, allowing the {@link ParserPool} to close parsers that are no longer needed.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class PipelinePool {
+
+    private final Context context;
+    private final Map<Object, Deque<Entry>> idle;
+    private int waiting;
+
+    public PipelinePool(final Context context) {
+        this.context = context;
+        this.idle = new LinkedHashMap<>();
+        this.waiting = 0;
+    }
+
+    /**
+     * Takes an entry for the pipeline identified by the specified key. The entry holds an idle pipeline
+     * with the same key, if one exists, or the context processors needed to assemble a new one.
+     * @param key the key that identifies the modules of the pipeline
+     * @return the entry with the pipeline and respective context processors
+     * @throws InterruptedException if interrupted while waiting for context processors
+     * @throws NejiException if no parser became available or there was a problem launching one
+     */
+    public Entry take(final Object key) throws InterruptedException, NejiException {
+        Entry evicted = null;
+
+        synchronized (this) {
+            Deque<Entry> entries = idle.get(key);
+            if (entries != null && !entries.isEmpty()) {
+                return entries.pop();
+            }
+
+            // Reuse the processors of an idle pipeline with a different key
+            Iterator<Deque<Entry>> it = idle.values().iterator();
+            while (evicted == null && it.hasNext()) {
+                Deque<Entry> other = it.next();
+                evicted = other.poll();
+                if (other.isEmpty()) {
+                    it.remove();
+                }
+            }
+
+            if (evicted == null) {
+                waiting++;
+            }
+        }
+
+        if (evicted != null) {
+            evicted.getPipeline().clear();
+            return new Entry(key, evicted.getProcessors());
+        }
+
+        try {
+            return new Entry(key, context.take());
+        } finally {
+            synchronized (this) {
+                waiting--;
+            }
+        }
+    }
+
+    /**
+     * Returns the specified entry to the pool after processing a document. If the entry does not hold an
+     * assembled pipeline, if its pipeline has modules that cannot be reset or if another worker is waiting
+     * for context processors, its processors are returned to the context instead.
+     * @param entry the entry to be returned
+     * @throws InterruptedException if interrupted while returning the context processors
+     */
+    public void put(final Entry entry) throws InterruptedException {
+        synchronized (this) {
+            if (entry.getPipeline() != null && entry.getPipeline().isResettable() && waiting == 0) {
+                Deque<Entry> entries = idle.get(entry.getKey());
+                if (entries == null) {
+                    entries = new ArrayDeque<>();
+                    idle.put(entry.getKey(), entries);
+                }
+                entry.idleSince = System.nanoTime();
+                entries.push(entry);
+                return;
+            }
+        }
+        discard(entry);
+    }
+
+    /**
+     * Discards the pipeline of the specified entry, returning its processors to the context. Should be used
+     * when processing failed and the state of the pipeline modules is unknown.
+     * @param entry the entry to be discarded
+     * @throws InterruptedException if interrupted while returning the context processors
+     */
+    public void discard(final Entry entry) throws InterruptedException {
+        if (entry.getPipeline() != null) {
+            entry.getPipeline().clear();
+        }
+        context.put(entry.getProcessors());
+    }
+
+    /**
+     * Discards every idle pipeline, returning their processors to the context.
+     * @throws InterruptedException if interrupted while returning the context processors
+     */
+    public void clear() throws InterruptedException {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (Deque<Entry> d : idle.values()) {
+                entries.addAll(d);
+            }
+            idle.clear();
+        }
+
+        for (Entry entry : entries) {
+            discard(entry);
+        }
+    }
+
+    /**
+     * Discards the pipelines that stayed idle for longer than the specified time, returning their processors
+     * to the context.
+     * @param timeout the idle time in milliseconds
+     * @return the number of discarded pipelines
+     * @throws InterruptedException if interrupted while returning the context processors
+     */
+    public int evictIdle(final long timeout) throws InterruptedException {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            Iterator<Deque<Entry>> it = idle.values().iterator();
+            while (it.hasNext()) {
+                // The least recently used entries are at the end
+                Deque<Entry> d = it.next();
+                while (!d.isEmpty() && now - d.peekLast().idleSince > nanos) {
+                    entries.add(d.removeLast());
+                }
+                if (d.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+
+        for (Entry entry : entries) {
+            discard(entry);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Pipeline taken from a {@link PipelinePool}, together with the context processors used by its modules.
+     */
+    public static class Entry {
+
+        private final Object key;
+        private final ContextProcessors processors;
+        private Pipeline pipeline;
+        private long idleSince;
+
+        private Entry(final Object key, final ContextProcessors processors) {
+            this.key = key;
+            this.processors = processors;
+            this.pipeline = null;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public ContextProcessors getProcessors() {
+            return processors;
+        }
+
+        /**
+         * Returns the assembled pipeline of this entry.
+         * @return the assembled pipeline, or <code>null</code> if a new pipeline must be assembled
+         */
+        public Pipeline getPipeline() {
+            return pipeline;
+        }
+
+        public void setPipeline(final Pipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+    }
+}
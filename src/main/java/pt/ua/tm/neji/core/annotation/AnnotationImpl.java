@@ -18,7 +18,6 @@ package pt.ua.tm.neji.core.annotation;
 
 import org.apache.commons.lang.StringUtils;
 import pt.ua.tm.neji.core.corpus.Sentence;
-import pt.ua.tm.neji.core.corpus.Token;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -92,19 +91,8 @@ public class AnnotationImpl
 
     public static Annotation newAnnotationByCharPositions(final Sentence s,
                                                           final int firstChar, final int lastChar, final double score) {
-        int startToken = 0, endToken = 0;
-
-        Token t;
-        for (int i = 0; i < s.size(); i++) {
-            t = s.getToken(i);
-
-            if (firstChar >= t.getStart()) {
-                startToken = i;
-            }
-            if (lastChar >= t.getEnd()) {
-                endToken = i;
-            }
-        }
+        int startToken = Math.max(s.getTokenIndexByStart(firstChar), 0);
+        int endToken = Math.max(s.getTokenIndexByEnd(lastChar), 0);
 
         if (endToken < startToken) {
             // Annotation doesn't fit tokenization!
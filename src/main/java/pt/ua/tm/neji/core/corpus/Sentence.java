@@ -58,6 +58,11 @@ public class Sentence implements Iterable<Token>, Serializable {
      */
     private List<Token> tokens;
 
+    /**
+     * The character positions of the tokens, built when first needed.
+     */
+    private transient volatile TokenIndex tokenIndex;
+
     /**
      * The tree of the annotations associated with this sentence.
      */
@@ -141,6 +146,7 @@ public class Sentence implements Iterable<Token>, Serializable {
      */
     public void addToken(Token t) {
         tokens.add(t);
+        tokenIndex = null;
     }
 
     /**
@@ -159,6 +165,7 @@ public class Sentence implements Iterable<Token>, Serializable {
      */
     public void setToken(final int i, final Token t) {
         tokens.set(i, t);
+        tokenIndex = null;
     }
 
     /**
@@ -174,6 +181,40 @@ public class Sentence implements Iterable<Token>, Serializable {
      */
     public void reverseTokens() {
         Collections.reverse(tokens);
+        tokenIndex = null;
+    }
+
+    /**
+     * Gets the index of the last token that starts at or before the specified character position.
+     * The character positions of the tokens are indexed when first needed, so tokens must not be changed
+     * after being added to the sentence.
+     * @param position the character position in the sentence
+     * @return the index of the token, or -1 if every token starts after the position
+     */
+    public int getTokenIndexByStart(final int position) {
+        TokenIndex index = getTokenIndex();
+        return index.last(index.starts, position);
+    }
+
+    /**
+     * Gets the index of the last token that ends at or before the specified character position.
+     * The character positions of the tokens are indexed when first needed, so tokens must not be changed
+     * after being added to the sentence.
+     * @param position the character position in the sentence
+     * @return the index of the token, or -1 if every token ends after the position
+     */
+    public int getTokenIndexByEnd(final int position) {
+        TokenIndex index = getTokenIndex();
+        return index.last(index.ends, position);
+    }
+
+    private TokenIndex getTokenIndex() {
+        TokenIndex index = tokenIndex;
+        if (index == null || index.starts.length != tokens.size()) {
+            index = new TokenIndex(tokens);
+            tokenIndex = index;
+        }
+        return index;
     }
 
     /**
@@ -898,4 +939,56 @@ public class Sentence implements Iterable<Token>, Serializable {
         return result;
     }
     
+
+    /**
+     * Start and end character positions of the tokens of a sentence, searched with binary search when the
+     * tokens are in text order, or sequentially otherwise.
+     */
+    private static final class TokenIndex {
+
+        private final int[] starts;
+        private final int[] ends;
+        private final boolean sorted;
+
+        TokenIndex(final List<Token> tokens) {
+            this.starts = new int[tokens.size()];
+            this.ends = new int[tokens.size()];
+            boolean inOrder = true;
+            for (int i = 0; i < starts.length; i++) {
+                Token t = tokens.get(i);
+                starts[i] = t.getStart();
+                ends[i] = t.getEnd();
+                if (i > 0 && (starts[i] < starts[i - 1] || ends[i] < ends[i - 1])) {
+                    inOrder = false;
+                }
+            }
+            this.sorted = inOrder;
+        }
+
+        /**
+         * Gets the index of the last position less than or equal to the specified one.
+         */
+        int last(final int[] positions, final int position) {
+            if (!sorted) {
+                int last = -1;
+                for (int i = 0; i < positions.length; i++) {
+                    if (positions[i] <= position) {
+                        last = i;
+                    }
+                }
+                return last;
+            }
+
+            int low = 0, high = positions.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
 }
@@ -24,6 +24,10 @@ import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Abstract class that integrates base functionality of a {@link Module}.
  *
@@ -39,6 +43,8 @@ public abstract class BaseModule implements Module {
     private Dfa dfa;
     private FaAction eof_action;
     private final DfaRun.FailedMatchBehaviour failedBehaviour;
+    private final List<BaseAction> actions;
+    private final StringBuilder signature;
 
 
     /**
@@ -51,6 +57,8 @@ public abstract class BaseModule implements Module {
         this.dfa = null;
         this.eof_action = null;
         this.failedBehaviour = failedBehaviour;
+        this.actions = new ArrayList<>();
+        this.signature = new StringBuilder();
     }
 
 //    /**
@@ -85,24 +93,52 @@ public abstract class BaseModule implements Module {
      * BaseAction methods, according to the defined parameters in the module's constructor.
      * If a specific module is defined to have a BaseAction for a certain tag and if
      * the respective method was not overridden, an exception is thrown.
+     *
+     * If the pipeline of this module provides a {@link DfaCache}, the compiled automaton is
+     * shared with every other module of the same class and configuration, and the NFA is only
+     * compiled the first time such a module is found.
      */
     @Override
     public final void compile() throws NejiException {
         try {
             if(dfa==null){
-                if(eof_action!=null){
-                    this.dfa = nfa.compile(failedBehaviour, eof_action);
-                    pipeline.storeModuleData(this, dfa);
+                DfaCache cache = pipeline.getDfaCache();
+                if (cache != null) {
+                    Object key = getCompiledAutomatonKey();
+                    Dfa cached = cache.get(key);
+                    if (cached == null) {
+                        cached = cache.put(key, compileNfa());
+                    }
+                    this.dfa = cached;
                 } else {
-                    this.dfa = nfa.compile(failedBehaviour);
-                    pipeline.storeModuleData(this, dfa);
+                    this.dfa = compileNfa();
                 }
+                pipeline.storeModuleData(this, dfa);
             }
         } catch (CompileDfaException ex) {
             throw new NejiException(ex);
         }
     }
 
+    private Dfa compileNfa() throws CompileDfaException {
+        if(eof_action!=null){
+            return nfa.compile(failedBehaviour, eof_action);
+        } else {
+            return nfa.compile(failedBehaviour);
+        }
+    }
+
+    /**
+     * Returns the key that identifies the automaton of this module in a {@link DfaCache}. Two modules
+     * with the same key have the same class, failed match behaviour and registered patterns, with each
+     * pattern bound to an action of the same class in the same registration order, so they are able to
+     * share the same compiled automaton.
+     * @return the key that identifies the automaton of this module
+     */
+    private Object getCompiledAutomatonKey() {
+        return Arrays.asList(getClass(), failedBehaviour, signature.toString());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -132,7 +168,9 @@ public abstract class BaseModule implements Module {
         if (dfa == null) {
             throw new RuntimeException("DFA module was not compiled! Must use the 'compile()' method first!");
         }
-        return dfa.createRun();
+        DfaRun run = dfa.createRun();
+        run.clientData = this;
+        return run;
     }
 
 
@@ -140,9 +178,33 @@ public abstract class BaseModule implements Module {
 
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * This implementation resets the sentence counters of the actions of this module. Modules that
+     * keep additional per-document state must override this method and call <code>super.reset()</code>.
+     */
+    @Override
+    public void reset() throws NejiException {
+        for (BaseAction action : actions) {
+            action.reset();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * This implementation checks if the class of this module is marked as {@link Resettable}.
+     */
+    @Override
+    public boolean isResettable() {
+        return getClass().isAnnotationPresent(Resettable.class);
+    }
+
     protected void addReplaceAction(String oldElement, String newElement) throws NejiException {
         try{
             nfa.or(oldElement, new Replace(newElement));
+            sign(oldElement, "replace:" + newElement);
         } catch (ReSyntaxException ex) {
             throw new NejiException(ex);
         }
@@ -155,8 +217,11 @@ public abstract class BaseModule implements Module {
                     "Must only use DefaultAction or SentenceIteratorDefaultAction.");
 
         try{
-            for(String element : elements)
-                nfa.or(Xml.GoofedElement(element), actionClass.getAction());
+            for(String element : elements) {
+                String regex = Xml.GoofedElement(element);
+                nfa.or(regex, actionClass.getAction());
+                sign(regex, actionClass);
+            }
         } catch (ReSyntaxException ex) {
             throw new NejiException(ex);
         }
@@ -179,8 +244,10 @@ public abstract class BaseModule implements Module {
                     "SentenceIteratorStartAction, EndAction or SentenceIteratorEndAction.");
 
         try{
-            for(String tag : tags)
+            for(String tag : tags) {
                 nfa.or(tag, actionClass.getAction());
+                sign(tag, actionClass);
+            }
         } catch (ReSyntaxException ex) {
             throw new NejiException(ex);
         }
@@ -194,13 +261,18 @@ public abstract class BaseModule implements Module {
                     "SentenceIteratorStartAction, EndAction or SentenceIteratorEndAction.");
         try{
             for(String tag : tags) {
+                String regex;
                 if(actionClass instanceof StartAction){
-                    nfa.or(Xml.STag(tag), actionClass.getAction());
+                    regex = Xml.STag(tag);
                 } else if(actionClass instanceof EndAction){
-                    nfa.or(Xml.ETag(tag), actionClass.getAction());
+                    regex = Xml.ETag(tag);
                 } else if(actionClass instanceof DefaultAction){
-                    nfa.or(Xml.EmptyElemTag(tag), actionClass.getAction());
+                    regex = Xml.EmptyElemTag(tag);
+                } else {
+                    continue;
                 }
+                nfa.or(regex, actionClass.getAction());
+                sign(regex, actionClass);
             }
         } catch (ReSyntaxException ex) {
             throw new NejiException(ex);
@@ -209,30 +281,81 @@ public abstract class BaseModule implements Module {
 
     protected void setEofAction(EofAction actionClass) throws NejiException {
         this.eof_action = actionClass.getAction();
+        sign("<eof>", actionClass);
+    }
+
+    private void sign(String regex, Action actionClass) {
+        BaseAction action = (BaseAction) actionClass;
+        sign(regex, action.slot + ":" + action.getClass().getName());
+    }
+
+    private void sign(String regex, String action) {
+        signature.append(regex).append('\u0000').append(action).append('\n');
     }
 
     private abstract class BaseAction implements Action {
 
         private FaAction action;
+        private final int slot;
+        private boolean keepCollecting;
 
-        private BaseAction(){}
+        private BaseAction(){
+            this.slot = actions.size();
+            actions.add(this);
+        }
 
         public abstract void execute(StringBuffer text, int startIndex);
 
         public final FaAction getAction(){
             return action;
         }
+
+        void reset() {
+            keepCollecting = false;
+        }
+    }
+
+    /**
+     * Action registered in the module automaton, which does not reference the module that compiled it.
+     * Instead, it forwards every match to the action with the same registration slot in the module that
+     * owns the running {@link DfaRun}, allowing the compiled automaton to be shared by several modules.
+     */
+    private static final class ActionDispatcher extends AbstractFaAction {
+
+        private final int slot;
+        private final boolean startCollecting;
+        private final boolean stopCollecting;
+
+        private ActionDispatcher(final int slot, final boolean startCollecting, final boolean stopCollecting) {
+            this.slot = slot;
+            this.startCollecting = startCollecting;
+            this.stopCollecting = stopCollecting;
+        }
+
+        @Override
+        public void invoke(StringBuffer yytext, int start, DfaRun runner) {
+            if (!(runner.clientData instanceof BaseModule)) {
+                throw new IllegalStateException("Module automata must be run using the 'getRun()' method.");
+            }
+            if (startCollecting) {
+                runner.collect = true;
+            }
+            BaseAction action = ((BaseModule) runner.clientData).actions.get(slot);
+            action.execute(yytext, start);
+            if (stopCollecting) {
+                if (action.keepCollecting) {
+                    action.keepCollecting = false;
+                } else {
+                    runner.collect = false;
+                }
+            }
+        }
     }
 
     protected abstract class DefaultAction extends BaseAction {
 
         protected DefaultAction() {
-            super.action = new AbstractFaAction() {
-                @Override
-                public void invoke(StringBuffer yytext, int start, DfaRun runner) {
-                    execute(yytext, start);
-                }
-            };
+            super.action = new ActionDispatcher(super.slot, false, false);
         }
 
         @Override
@@ -243,13 +366,7 @@ public abstract class BaseModule implements Module {
     protected abstract class StartAction extends BaseAction {
 
         protected StartAction() {
-            super.action = new AbstractFaAction() {
-                @Override
-                public void invoke(StringBuffer yytext, int start, DfaRun runner) {
-                    runner.collect = true;
-                    execute(yytext, start);
-                }
-            };
+            super.action = new ActionDispatcher(super.slot, true, false);
         }
 
         @Override
@@ -260,18 +377,20 @@ public abstract class BaseModule implements Module {
     protected abstract class EndAction extends BaseAction {
 
         protected EndAction() {
-            super.action = new AbstractFaAction() {
-                @Override
-                public void invoke(StringBuffer yytext, int start, DfaRun runner) {
-                    execute(yytext, start);
-                    runner.collect = false;
-                }
-            };
+            super.action = new ActionDispatcher(super.slot, false, true);
         }
 
         @Override
         public abstract void execute(StringBuffer yytext, int start);
 
+        /**
+         * Keeps collecting the input after the current execution of this action, so that the text of the
+         * following matches is appended to the same text and only released by a later end action.
+         */
+        protected final void keepCollecting() {
+            ((BaseAction) this).keepCollecting = true;
+        }
+
     }
 
     protected abstract class SentenceIteratorDefaultAction extends DefaultAction {
@@ -290,6 +409,12 @@ public abstract class BaseModule implements Module {
             sentenceCounter++;
         }
 
+        @Override
+        void reset() {
+            super.reset();
+            this.sentenceCounter = 0;
+        }
+
         public abstract void execute(StringBuffer yytext, int start, Sentence nextSentence);
     }
 
@@ -309,6 +434,12 @@ public abstract class BaseModule implements Module {
             sentenceCounter++;
         }
 
+        @Override
+        void reset() {
+            super.reset();
+            this.sentenceCounter = 0;
+        }
+
         public abstract void execute(StringBuffer yytext, int start, Sentence nextSentence);
     }
     
@@ -328,6 +459,12 @@ public abstract class BaseModule implements Module {
             sentenceCounter++;
         }
 
+        @Override
+        void reset() {
+            super.reset();
+            this.sentenceCounter = 0;
+        }
+
         public abstract void execute(StringBuffer yytext, int start, Sentence nextSentence);
     }
 
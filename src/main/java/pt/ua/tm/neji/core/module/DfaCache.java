@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.core.module;
+
+import monq.jfa.Dfa;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache of compiled module automata, keyed by module class and configuration.
+ * <p>
+ * The {@link Dfa} instances stored in this cache are immutable and do not reference the module
+ * instance that compiled them, since every action is dispatched to the module that owns the
+ * {@link monq.jfa.DfaRun} being executed. This allows modules created for different documents,
+ * possibly in different threads, to share a single compiled automaton.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class DfaCache {
+
+    private final ConcurrentMap<Object, Dfa> cache;
+
+    public DfaCache() {
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the compiled automaton identified by the specified key.
+     * @param key the key that identifies the module class and configuration
+     * @return the compiled automaton, or <code>null</code> if it was not compiled yet
+     */
+    public Dfa get(Object key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Stores the specified compiled automaton, unless another thread already stored one with the same key.
+     * @param key the key that identifies the module class and configuration
+     * @param dfa the compiled automaton
+     * @return the automaton that is stored in the cache after this call returns
+     */
+    public Dfa put(Object key, Dfa dfa) {
+        Dfa previous = cache.putIfAbsent(key, dfa);
+        return previous == null ? dfa : previous;
+    }
+
+    /**
+     * Returns the number of compiled automata stored in this cache.
+     * @return the number of compiled automata
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes every compiled automaton from this cache.
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
@@ -77,6 +77,23 @@ public interface Module {
      */
     DfaRun getRun() throws NejiException;
 
+    /**
+     * Clears the per-document state of this module, such as sentence counters, offsets and output
+     * buffers, allowing it to process another document without being instantiated and compiled again.
+     * Modules that reset all their state should be marked as {@link Resettable}.
+     *
+     * @throws NejiException if there was a problem resetting the module
+     */
+    void reset() throws NejiException;
+
+    /**
+     * Checks if this module can be reset with {@link #reset()} and reused to process another document.
+     * Pipelines with modules that cannot be reset are used for a single document.
+     *
+     * @return <code>true</code> if this module can be reset, <code>false</code> otherwise
+     */
+    boolean isResettable();
+
     /**
      * Interface that defines an action, which encapsulates an {@link FaAction} to be used in this module's
      * NFA and re-implements the method {@link FaAction#invoke(StringBuffer, int, monq.jfa.DfaRun)} into a
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.core.module;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Marks modules whose {@link Module#reset()} clears all their per-document state, so that pipelines built
+ * with them can be reused for other documents. The annotation is not inherited, so subclasses that add
+ * per-document state must be marked again once they reset it.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Resettable {
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.core.parser;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the output of a parser for each sentence, shared by every parser of a context.
+ * <p>
+ * Entries are keyed by a hash of the sentence text together with the tool, language and level of the parser,
+ * and store the lines replied by the parser for the sentence. Recently used entries are kept in memory, and
+ * every entry can also be stored in a SQLite database, so that sentences parsed in previous runs, such as
+ * titles or abstracts processed again, do not have to be parsed again. The database must be removed when
+ * the parser or its models change.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ParseCache implements AutoCloseable {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(ParseCache.class);
+
+    /**
+     * Default number of sentences kept in memory.
+     */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    private final Map<String, String> memory;
+    private final File file;
+    private Connection connection;
+    private PreparedStatement select;
+    private PreparedStatement insert;
+
+    // Statistics
+    private final AtomicLong memoryHits;
+    private final AtomicLong diskHits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructor of a cache that only keeps the most recently used sentences in memory.
+     * @param capacity the maximum number of sentences kept in memory
+     */
+    public ParseCache(final int capacity) {
+        this.memory = newMemory(capacity);
+        this.file = null;
+        this.memoryHits = new AtomicLong();
+        this.diskHits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Constructor of a cache that keeps the most recently used sentences in memory and every sentence in the
+     * specified database, which is created if it does not exist.
+     * @param capacity the maximum number of sentences kept in memory
+     * @param file the SQLite database file
+     * @throws NejiException if there was a problem opening the database
+     */
+    public ParseCache(final int capacity, final File file) throws NejiException {
+        this.memory = newMemory(capacity);
+        this.file = file;
+        this.memoryHits = new AtomicLong();
+        this.diskHits = new AtomicLong();
+        this.misses = new AtomicLong();
+
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("PRAGMA synchronous = NORMAL");
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS Parse ("
+                        + " key     TEXT    PRIMARY KEY     NOT NULL, "
+                        + " reply   TEXT    NOT NULL)");
+            }
+            select = connection.prepareStatement("SELECT reply FROM Parse WHERE key=?");
+            insert = connection.prepareStatement("INSERT OR REPLACE INTO Parse(key, reply) VALUES (?, ?)");
+        } catch (ClassNotFoundException | SQLException ex) {
+            close();
+            throw new NejiException("There was a problem opening the parse cache " + file + ".", ex);
+        }
+        logger.info("Using the parse cache {}", file);
+    }
+
+    private static Map<String, String> newMemory(final int capacity) {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the key of the specified sentence.
+     * @param tool the tool of the parser
+     * @param language the language of the parser
+     * @param level the level of the parser
+     * @param options other options of the parser that change its output
+     * @param sentence the sentence text, as sent to the parser
+     * @return the key
+     */
+    public static String key(final ParserTool tool, final ParserLanguage language, final ParserLevel level,
+                             final String options, final String sentence) {
+        return DigestUtils.sha1Hex(tool + "\t" + language + "\t" + level + "\t" + options + "\t" + sentence);
+    }
+
+    /**
+     * Gets the parser output stored with the specified key, from memory or, if not there, from the database.
+     * @param key the key of the sentence
+     * @return the lines replied by the parser, or <code>null</code> if the sentence is not in the cache
+     */
+    public List<String> get(final String key) {
+        String reply;
+        synchronized (memory) {
+            reply = memory.get(key);
+        }
+        if (reply != null) {
+            memoryHits.incrementAndGet();
+            return split(reply);
+        }
+
+        reply = select(key);
+        if (reply == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        diskHits.incrementAndGet();
+        synchronized (memory) {
+            memory.put(key, reply);
+        }
+        return split(reply);
+    }
+
+    /**
+     * Stores the parser output of several sentences in memory and in the database, in a single transaction.
+     * @param entries the lines replied by the parser, by key of the sentence
+     */
+    public void putAll(final Map<String, List<String>> entries) {
+        Map<String, String> replies = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> e : entries.entrySet()) {
+            replies.put(e.getKey(), join(e.getValue()));
+        }
+
+        synchronized (memory) {
+            memory.putAll(replies);
+        }
+        insert(replies);
+    }
+
+    private synchronized String select(final String key) {
+        if (select == null) {
+            return null;
+        }
+        try {
+            select.setString(1, key);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException ex) {
+            logger.error("There was a problem reading from the parse cache.", ex);
+            return null;
+        }
+    }
+
+    private synchronized void insert(final Map<String, String> replies) {
+        if (insert == null || replies.isEmpty()) {
+            return;
+        }
+        try {
+            connection.setAutoCommit(false);
+            for (Map.Entry<String, String> e : replies.entrySet()) {
+                insert.setString(1, e.getKey());
+                insert.setString(2, e.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            connection.commit();
+        } catch (SQLException ex) {
+            logger.error("There was a problem writing to the parse cache.", ex);
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                // Nothing else to do, the transaction is discarded when the connection is closed
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ex) {
+                logger.error("There was a problem writing to the parse cache.", ex);
+            }
+        }
+    }
+
+    private static String join(final List<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(line);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> split(final String reply) {
+        if (reply.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return new ArrayList<>(Arrays.asList(reply.split("\n", -1)));
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the fraction of the sentences that were found in the cache.
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = getMemoryHits() + getDiskHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of sentences kept in memory.
+     * @return the number of sentences
+     */
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sentences in memory, %d memory hits, %d disk hits, %d misses (%.1f%% hit rate)",
+                size(), getMemoryHits(), getDiskHits(), getMisses(), getHitRate() * 100);
+    }
+
+    /**
+     * Closes the database. Sentences in memory are still returned, but new ones are no longer stored
+     * in the database.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (select != null) {
+                select.close();
+            }
+            if (insert != null) {
+                insert.close();
+            }
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException ex) {
+            logger.error("There was a problem closing the parse cache " + file + ".", ex);
+        }
+        select = null;
+        insert = null;
+        connection = null;
+    }
+}
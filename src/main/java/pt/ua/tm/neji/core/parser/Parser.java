@@ -24,6 +24,7 @@ import pt.ua.tm.neji.core.corpus.dependency.ChunkTag;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.parser.GDepParser;
 import pt.ua.tm.neji.parser.OpenNLPParser;
+import pt.ua.tm.neji.parser.TokenizerParser;
 import pt.ua.tm.neji.sentencesplitter.LingpipeSentenceSplitter;
 
 import java.io.IOException;
@@ -51,6 +52,7 @@ public abstract class Parser implements AutoCloseable {
     private ParserTool tool;
     protected ParserLanguage language;
     protected ParserLevel level;
+    private ParseCache parseCache;
 
     protected Parser(ParserTool tool, ParserLanguage language, ParserLevel level) throws NejiException {
         validate(tool, language, level);
@@ -76,6 +78,15 @@ public abstract class Parser implements AutoCloseable {
         return hasInstance;
     }
 
+    /**
+     * Checks if the parser is still able to parse texts. Parsers that depend on external resources,
+     * such as another process, should override it to check them.
+     * @return <code>true</code> if the parser is launched and working, <code>false</code> otherwise
+     */
+    public boolean isHealthy() {
+        return isLaunched();
+    }
+
     /**
      * Terminates the execution of the parser.
      */
@@ -86,6 +97,23 @@ public abstract class Parser implements AutoCloseable {
         hasInstance = false;
     }
 
+    /**
+     * Gets the cache of parsed sentences used by this parser.
+     * @return the cache, or <code>null</code> if sentences are always parsed
+     */
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * Sets the cache of parsed sentences, which parsers backed by an external process use to avoid parsing
+     * sentences already parsed.
+     * @param parseCache the cache, or <code>null</code> to always parse sentences
+     */
+    public void setParseCache(final ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
     public ParserTool getTool() {
         return tool;
     }
@@ -217,6 +245,9 @@ public abstract class Parser implements AutoCloseable {
                 } else {
                     return new OpenNLPParser(language, level);
                 }
+            case TOKENIZER:
+                return new TokenizerParser(language, level, new LingpipeSentenceSplitter(), false);
+
             default:
                 return null;
         }
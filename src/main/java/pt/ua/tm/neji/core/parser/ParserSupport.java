@@ -69,12 +69,23 @@ public class ParserSupport {
         supportMaps.put(ParserTool.OPENNLP, builder.build());
     }
 
+    private static void generateTokenizerMap() {
+        ImmutableMultimap.Builder<ParserLanguage, ParserLevel> builder = ImmutableMultimap.builder();
+
+        for (ParserLanguage language : ParserLanguage.values()) {
+            builder.put(language, ParserLevel.TOKENIZATION);
+        }
+
+        supportMaps.put(ParserTool.TOKENIZER, builder.build());
+    }
+
     private static ImmutableMultimap<ParserLanguage, ParserLevel> getMapforTool(ParserTool tool) {
         ImmutableMultimap<ParserLanguage, ParserLevel> supportMap = supportMaps.get(tool);
         if(supportMap == null){
             switch(tool) {
                 case GDEP:    generateGDepMap(); break;
                 case OPENNLP: generateOpenNLPMap(); break;
+                case TOKENIZER: generateTokenizerMap(); break;
             }
             return getMapforTool(tool);
         } else {
@@ -21,5 +21,6 @@ package pt.ua.tm.neji.core.parser;
  */
 public enum ParserTool {
     GDEP,
-    OPENNLP
+    OPENNLP,
+    TOKENIZER
 }
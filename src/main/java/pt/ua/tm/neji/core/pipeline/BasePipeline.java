@@ -21,6 +21,7 @@ import com.google.common.collect.Multimap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.module.DfaCache;
 import pt.ua.tm.neji.core.module.Module;
 import pt.ua.tm.neji.core.module.Reader;
 import pt.ua.tm.neji.core.module.Writer;
@@ -68,6 +69,7 @@ public abstract class BasePipeline implements Pipeline {
     protected List<Module> processingList;
     protected List<Writer> writerList;
     private Multimap<Object, Object> storage;
+    private DfaCache dfaCache;
 
 
     protected BasePipeline() {
@@ -81,6 +83,7 @@ public abstract class BasePipeline implements Pipeline {
         this.processingList = new ArrayList<>();
         this.writerList = new ArrayList<>();
         this.storage = HashMultimap.create();
+        this.dfaCache = null;
     }
 
 
@@ -175,6 +178,25 @@ public abstract class BasePipeline implements Pipeline {
         return corpus;
     }
 
+    /**
+     * Sets the cache of compiled automata shared by the modules of this pipeline.
+     * @param dfaCache the cache to be used, or <code>null</code> to compile every module independently
+     */
+    @Override
+    public final Pipeline setDfaCache(DfaCache dfaCache) {
+        this.dfaCache = dfaCache;
+        return this;
+    }
+
+    /**
+     * Returns the cache of compiled automata shared by the modules of this pipeline.
+     * @return the cache of compiled automata, or <code>null</code> if no cache was set
+     */
+    @Override
+    public final DfaCache getDfaCache() {
+        return dfaCache;
+    }
+
     /**
      * Removes all of the stored module data from this pipeline.
      */
@@ -196,6 +218,52 @@ public abstract class BasePipeline implements Pipeline {
         return clearStoredData();
     }
 
+    /**
+     * Prepares this pipeline to process a new document, by setting the specified corpus and by
+     * removing the stored module data and the per-document state of every added module. Unlike
+     * {@link Pipeline#clear()}, the added modules are kept, so they are not instantiated and
+     * compiled again.
+     * @param corpus the corpus of the next document to be processed
+     * @throws NejiException if there was a problem resetting the modules
+     */
+    @Override
+    public final Pipeline reset(Corpus corpus) throws NejiException {
+        setCorpus(corpus);
+        clearStoredData();
+
+        if (reader != null) {
+            reader.reset();
+        }
+        for (Module m : processingList) {
+            m.reset();
+        }
+        for (Writer w : writerList) {
+            w.reset();
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isResettable() {
+        if (reader != null && !reader.isResettable()) {
+            return false;
+        }
+        for (Module m : processingList) {
+            if (!m.isResettable()) {
+                return false;
+            }
+        }
+        for (Writer w : writerList) {
+            if (!w.isResettable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Execution method that processes the specified {@link InputStream} using the added
      * modules and that writes the resulting output in a generated list of {@link OutputStream}.
@@ -16,6 +16,7 @@
 package pt.ua.tm.neji.core.pipeline;
 
 import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.module.DfaCache;
 import pt.ua.tm.neji.core.module.Module;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -67,6 +68,18 @@ public interface Pipeline {
      */
     Corpus getCorpus();
 
+    /**
+     * Sets the cache of compiled automata shared by the modules of this pipeline.
+     * @param dfaCache the cache to be used, or <code>null</code> to compile every module independently
+     */
+    Pipeline setDfaCache(DfaCache dfaCache);
+
+    /**
+     * Returns the cache of compiled automata shared by the modules of this pipeline.
+     * @return the cache of compiled automata, or <code>null</code> if no cache was set
+     */
+    DfaCache getDfaCache();
+
     /**
      * Removes all of the stored module data from this pipeline.
      */
@@ -78,6 +91,23 @@ public interface Pipeline {
      */
     Pipeline clear();
 
+    /**
+     * Prepares this pipeline to process a new document, by setting the specified corpus and by
+     * removing the stored module data and the per-document state of every added module. Unlike
+     * {@link Pipeline#clear()}, the added modules are kept, so they are not instantiated and
+     * compiled again.
+     * @param corpus the corpus of the next document to be processed
+     * @throws NejiException if there was a problem resetting the modules
+     */
+    Pipeline reset(Corpus corpus) throws NejiException;
+
+    /**
+     * Checks if this pipeline can be reset with {@link #reset(Corpus)} and reused to process another
+     * document, which requires every added module to be resettable.
+     * @return <code>true</code> if this pipeline can be reset, <code>false</code> otherwise
+     */
+    boolean isResettable();
+
     /**
      * Run method to process the specified {@link InputStream} using the added
      * modules. The order of the added modules might largely affect the run process.
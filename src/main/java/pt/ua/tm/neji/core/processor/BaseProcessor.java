@@ -29,17 +29,22 @@ import pt.ua.tm.neji.core.module.Writer;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
+import pt.ua.tm.neji.dictionary.CombinedMatcher;
 import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.DictionaryHybrid;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.misc.DTDTagger;
 import pt.ua.tm.neji.ml.MLHybrid;
 import pt.ua.tm.neji.ml.MLModel;
+import pt.ua.tm.neji.ml.MLScoring;
 import pt.ua.tm.neji.nlp.NLP;
 import pt.ua.tm.neji.reader.BioCReader;
 import pt.ua.tm.neji.train.context.TrainContext;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import pt.ua.tm.neji.postprocessing.FalsePositivesFilter;
@@ -70,6 +75,31 @@ public abstract class BaseProcessor implements Processor {
         this.context = context;
     }
 
+    /**
+     * Builds the key that identifies, in the {@link PipelinePool} of the context, pipelines assembled with the
+     * specified arguments. Pipelines with equal keys contain the same modules and can be reused between them.
+     * @return the key of the pipeline
+     */
+    protected final Object getPipelineKey(List<Dictionary> dictionaries,
+                                          List<MLModel> models,
+                                          ParserLevel customLevel,
+                                          Map<String, Boolean> groups,
+                                          String[] xmlTags,
+                                          boolean addAnnotationsWithoutIDs) {
+        ContextConfiguration config = context.getConfiguration();
+        return Arrays.asList(getClass(), new ArrayList<>(dictionaries), new ArrayList<>(models), customLevel,
+                groups == null ? null : new HashMap<>(groups),
+                xmlTags == null ? null : Arrays.asList(xmlTags), addAnnotationsWithoutIDs,
+                config.getInputFormat(), new ArrayList<>(config.getOutputFormats()),
+                wrap(config.getFalsePositives()), wrap(config.getSemanticGroupsNormalization()),
+                config.getMLScoring(), config.getMLBatchThreads(), config.getSentenceThreads(),
+                config.isDocumentMatching());
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return bytes == null ? null : ByteBuffer.wrap(bytes);
+    }
+
     protected final void instantiateModules(List<Dictionary> dictionaries,
                                             List<MLModel> models,
                                             ContextProcessors cp,
@@ -97,10 +127,7 @@ public abstract class BaseProcessor implements Processor {
         int index = 2;
 
         // Dictionary matching
-        for (Dictionary d : dictionaries) {
-            DictionaryHybrid dtl = new DictionaryHybrid(d);
-            moduleList.add(index++, dtl);
-        }
+        index = addDictionaryModules(dictionaries, c, moduleList, index);
 
         // Machine learning
         for (MLModel model : models) {
@@ -115,6 +142,7 @@ public abstract class BaseProcessor implements Processor {
             } else {
                 ml = new MLHybrid(crf, model.getSemanticGroup(), addAnnotationsWithoutIDs);
             }
+            setDecoding(c, model, ml);
             moduleList.add(index++, ml);
         }
         
@@ -133,7 +161,8 @@ public abstract class BaseProcessor implements Processor {
             moduleList.add(index++, sgn);
         }
 
-        // Add all of the modules to the pipeline
+        // Add all of the modules to the pipeline, sharing the compiled automata from the context
+        p.setDfaCache(c.getDfaCache());
         for (Module m : moduleList) {
             p.add(m);
         }
@@ -176,14 +205,15 @@ public abstract class BaseProcessor implements Processor {
         int index = 2;
 
         // Dictionaries
+        List<Dictionary> selected = new ArrayList<>();
         for (Dictionary d : dictionaries) {
             if (groups.containsKey(d.getGroup())) {
                 if (groups.get(d.getGroup())) {
-                    DictionaryHybrid dtl = new DictionaryHybrid(d);
-                    moduleList.add(index++, dtl);
+                    selected.add(d);
                 }
             }
         }
+        index = addDictionaryModules(selected, c, moduleList, index);
 
         // Machine learning
         for (MLModel model : models) {
@@ -196,8 +226,10 @@ public abstract class BaseProcessor implements Processor {
 
             if (addModel) {
                 CRFBase crf = cp.getCRF(model.getModelName());
-                moduleList.add(index++, new MLHybrid(crf, model.getSemanticGroup(),
-                        model.getNormalizationDictionaries(), addAnnotationsWithoutIDs));
+                MLHybrid ml = new MLHybrid(crf, model.getSemanticGroup(),
+                        model.getNormalizationDictionaries(), addAnnotationsWithoutIDs);
+                setDecoding(c, model, ml);
+                moduleList.add(index++, ml);
             }
         }
         
@@ -216,7 +248,8 @@ public abstract class BaseProcessor implements Processor {
             moduleList.add(index++, sgn);
         }
 
-        // Add all of the modules to the pipeline
+        // Add all of the modules to the pipeline, sharing the compiled automata from the context
+        p.setDfaCache(c.getDfaCache());
         for (Module m : moduleList) {
             p.add(m);
         }
@@ -233,6 +266,49 @@ public abstract class BaseProcessor implements Processor {
     }
 
 
+    /**
+     * Adds the dictionary matching modules, in the order of the dictionaries. Consecutive dictionaries loaded in
+     * the same {@link CombinedMatcher} are matched by a single module.
+     */
+    private static int addDictionaryModules(List<Dictionary> dictionaries, Context c,
+                                            List<Module> moduleList, int index) throws NejiException {
+        int i = 0;
+        while (i < dictionaries.size()) {
+            CombinedMatcher combined = getCombinedMatcher(dictionaries.get(i));
+            int j = i + 1;
+            while (combined != null && j < dictionaries.size() && getCombinedMatcher(dictionaries.get(j)) == combined) {
+                j++;
+            }
+
+            DictionaryHybrid dtl = new DictionaryHybrid(dictionaries.subList(i, j));
+            setMatching(c, dtl);
+            moduleList.add(index++, dtl);
+            i = j;
+        }
+        return index;
+    }
+
+    private static CombinedMatcher getCombinedMatcher(Dictionary d) {
+        return d.getMatcher() instanceof CombinedMatcher.View
+                ? ((CombinedMatcher.View) d.getMatcher()).getCombinedMatcher()
+                : null;
+    }
+
+    private static void setMatching(Context c, DictionaryHybrid dtl) {
+        if (c.getConfiguration().getSentenceThreads() > 0) {
+            dtl.setPool(c.getSentencePool());
+        }
+        dtl.setDocumentMatching(c.getConfiguration().isDocumentMatching());
+    }
+
+    private static void setDecoding(Context c, MLModel model, MLHybrid ml) {
+        MLScoring scoring = c.getConfiguration().getMLScoring();
+        ml.setScoring(scoring != null ? scoring : model.getScoring());
+        ContextConfiguration config = c.getConfiguration();
+        ml.setBatch(config.getMLBatchThreads() > 0 || config.getSentenceThreads() > 0);
+        ml.setPool(c.getSentencePool());
+    }
+
     private void fetchModulesFromConfig(Parser parser,
                                         ParserLevel parserLevel,
                                         List<Module> moduleList,
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.dictionary;
+
+import uk.ac.man.documentparser.dataholders.Document;
+import uk.ac.man.entitytagger.Mention;
+import uk.ac.man.entitytagger.matching.Matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matcher of the terms of several dictionaries, which finds the mentions of every dictionary in a single pass
+ * over the text.
+ * <p>
+ * Terms are split into tokens, which are sequences of letters and digits or single symbols, and stored in a
+ * trie shared by all dictionaries. Tokens preceded by white space are distinguished from the ones that are
+ * not, so the text must have the same tokens and spacing of a term to match it, although any sequence of
+ * white space characters matches a single space. Each node of the trie stores the identifiers of the term
+ * ending there for each dictionary.
+ * <p>
+ * Tokens and transitions are kept in open addressing hash tables of primitive arrays, and the identifiers of
+ * each node in an array indexed by the node, so no boxed keys or map entries are allocated per transition.
+ * <p>
+ * After being loaded, a combined matcher can be shared by several threads. The {@link Matcher} of each
+ * dictionary is provided by {@link #getMatcher(int)}.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class CombinedMatcher {
+
+    private static final Pattern TAB = Pattern.compile("\t");
+    private static final Pattern PIPE = Pattern.compile("\\|");
+
+    private final boolean ignoreCase;
+    private final TokenTable tokens;
+    private final TransitionTable transitions;
+    private final List<View> matchers;
+    private Output[] outputs;
+    private int numNodes;
+
+    /**
+     * Constructor.
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     */
+    public CombinedMatcher(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.tokens = new TokenTable();
+        this.transitions = new TransitionTable();
+        this.matchers = new ArrayList<>();
+        this.outputs = new Output[16];
+        this.numNodes = 1;
+    }
+
+    /**
+     * Adds a new empty dictionary to the matcher.
+     * @return the index of the dictionary, which is its priority when solving conflicts
+     */
+    public int addDictionary() {
+        matchers.add(new View(matchers.size()));
+        return matchers.size() - 1;
+    }
+
+    /**
+     * Gets the number of dictionaries of the matcher.
+     * @return the number of dictionaries
+     */
+    public int getNumDictionaries() {
+        return matchers.size();
+    }
+
+    /**
+     * Gets the matcher that only provides the mentions of the specified dictionary.
+     * @param dictionary the index of the dictionary
+     * @return the matcher of the dictionary
+     */
+    public Matcher getMatcher(int dictionary) {
+        return matchers.get(dictionary);
+    }
+
+    /**
+     * Loads a line of a dictionary, in the TSV format used by {@link VariantMatcherLoader}: the identifier is
+     * separated from the terms by a tab, and terms are separated from each other by a pipe.
+     * @param dictionary the index of the dictionary
+     * @param line the line to be loaded
+     */
+    public void load(int dictionary, String line) {
+        String[] fields = TAB.split(line);
+        if (fields.length < 2) {
+            return;
+        }
+
+        for (String term : PIPE.split(fields[1])) {
+            Tokens t = new Tokens(term, ignoreCase);
+            if (t.size() == 0) {
+                continue;
+            }
+
+            int node = 0;
+            for (int i = 0; i < t.size(); i++) {
+                int token = tokens.add(t.word(i), t.spaced(i));
+                long transition = transition(node, token);
+                int next = transitions.get(transition);
+                if (next < 0) {
+                    next = numNodes++;
+                    transitions.put(transition, next);
+                }
+                node = next;
+            }
+
+            addOutput(node, dictionary, fields[0]);
+        }
+        matchers.get(dictionary).size++;
+    }
+
+    private void addOutput(int node, int dictionary, String id) {
+        if (node >= outputs.length) {
+            outputs = Arrays.copyOf(outputs, Math.max(outputs.length * 2, node + 1));
+        }
+
+        Output output = outputs[node];
+        Output last = null;
+        while (output != null && output.dictionary != dictionary) {
+            last = output;
+            output = output.next;
+        }
+
+        if (output == null) {
+            output = new Output(dictionary, id);
+            // Keep outputs sorted by dictionary
+            if (last == null) {
+                output.next = outputs[node];
+                outputs[node] = output;
+            } else {
+                output.next = last.next;
+                last.next = output;
+            }
+        } else if (!Arrays.asList(output.ids).contains(id)) {
+            output.ids = Arrays.copyOf(output.ids, output.ids.length + 1);
+            output.ids[output.ids.length - 1] = id;
+        }
+    }
+
+    /**
+     * Finds the mentions of every dictionary in the specified text.
+     * @param text the text
+     * @return the mentions of each dictionary, sorted by their start and end positions
+     */
+    public List<List<Mention>> match(String text) {
+        List<List<Mention>> mentions = new ArrayList<>(matchers.size());
+        for (int i = 0; i < matchers.size(); i++) {
+            mentions.add(new ArrayList<Mention>());
+        }
+        match(text, mentions);
+        return mentions;
+    }
+
+    /**
+     * Finds the mentions of a single dictionary in the specified text, without building the mentions of the
+     * other dictionaries.
+     * @param text the text
+     * @param dictionary the index of the dictionary
+     * @return the mentions of the dictionary, sorted by their start and end positions
+     */
+    public List<Mention> match(String text, int dictionary) {
+        List<List<Mention>> mentions = new ArrayList<>(Collections.nCopies(matchers.size(), (List<Mention>) null));
+        List<Mention> result = new ArrayList<>();
+        mentions.set(dictionary, result);
+        match(text, mentions);
+        return result;
+    }
+
+    /**
+     * Adds the mentions found in the text to the list of each dictionary, skipping the dictionaries without a
+     * list.
+     */
+    private void match(String text, List<List<Mention>> mentions) {
+        Tokens t = new Tokens(text, ignoreCase);
+        for (int start = 0; start < t.size(); start++) {
+            int node = 0;
+            for (int end = start; end < t.size(); end++) {
+                // The first token of a term is never preceded by white space
+                int token = tokens.get(t.word(end), end > start && t.spaced(end));
+                if (token < 0) {
+                    break;
+                }
+                int next = transitions.get(transition(node, token));
+                if (next < 0) {
+                    break;
+                }
+                node = next;
+
+                Output first = node < outputs.length ? outputs[node] : null;
+                for (Output output = first; output != null; output = output.next) {
+                    List<Mention> list = mentions.get(output.dictionary);
+                    if (list != null) {
+                        int s = t.start(start), e = t.end(end);
+                        list.add(new Mention(output.ids.clone(), s, e, text.substring(s, e)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static long transition(int node, int token) {
+        return ((long) node << 32) | (token & 0xffffffffL);
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Open addressing hash table of the token identifiers. Each word keeps one identifier when it is preceded
+     * by white space and another when it is not, or -1 if it was not found in that position.
+     */
+    private static class TokenTable {
+        private String[] words = new String[64];
+        private int[] ids = new int[64];
+        private int[] spacedIds = new int[64];
+        private int size = 0;
+        private int numIds = 0;
+
+        int get(String word, boolean spaced) {
+            int slot = slot(words, word);
+            if (words[slot] == null) {
+                return -1;
+            }
+            return spaced ? spacedIds[slot] : ids[slot];
+        }
+
+        int add(String word, boolean spaced) {
+            int slot = slot(words, word);
+            if (words[slot] == null) {
+                if ((size + 1) * 2 > words.length) {
+                    grow();
+                    slot = slot(words, word);
+                }
+                words[slot] = word;
+                ids[slot] = -1;
+                spacedIds[slot] = -1;
+                size++;
+            }
+
+            int[] table = spaced ? spacedIds : ids;
+            if (table[slot] < 0) {
+                table[slot] = numIds++;
+            }
+            return table[slot];
+        }
+
+        private void grow() {
+            String[] oldWords = words;
+            int[] oldIds = ids;
+            int[] oldSpacedIds = spacedIds;
+            words = new String[oldWords.length * 2];
+            ids = new int[words.length];
+            spacedIds = new int[words.length];
+            for (int i = 0; i < oldWords.length; i++) {
+                if (oldWords[i] != null) {
+                    int slot = slot(words, oldWords[i]);
+                    words[slot] = oldWords[i];
+                    ids[slot] = oldIds[i];
+                    spacedIds[slot] = oldSpacedIds[i];
+                }
+            }
+        }
+
+        private static int slot(String[] words, String word) {
+            int mask = words.length - 1;
+            int slot = mix(word.hashCode()) & mask;
+            while (words[slot] != null && !words[slot].equals(word)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Open addressing hash table of the transitions of the trie, from a node and token pair to the next node.
+     * Keys are never negative, so -1 marks the free slots.
+     */
+    private static class TransitionTable {
+        private long[] keys = newKeys(64);
+        private int[] nodes = new int[64];
+        private int size = 0;
+
+        int get(long key) {
+            int slot = slot(keys, key);
+            return keys[slot] == key ? nodes[slot] : -1;
+        }
+
+        void put(long key, int node) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int slot = slot(keys, key);
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                size++;
+            }
+            nodes[slot] = node;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldNodes = nodes;
+            keys = newKeys(oldKeys.length * 2);
+            nodes = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] >= 0) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    nodes[slot] = oldNodes[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, -1L);
+            return keys;
+        }
+
+        private static int slot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Identifiers of the term that ends in a node of the trie, for one dictionary.
+     */
+    private static class Output {
+        private final int dictionary;
+        private String[] ids;
+        private Output next;
+
+        Output(int dictionary, String id) {
+            this.dictionary = dictionary;
+            this.ids = new String[]{id};
+        }
+    }
+
+    /**
+     * Matcher of a single dictionary of the combined matcher.
+     */
+    public class View extends Matcher {
+
+        private final int dictionary;
+        private int size;
+
+        private View(int dictionary) {
+            this.dictionary = dictionary;
+            this.size = 0;
+        }
+
+        /**
+         * Gets the combined matcher of this dictionary.
+         * @return the combined matcher
+         */
+        public CombinedMatcher getCombinedMatcher() {
+            return CombinedMatcher.this;
+        }
+
+        /**
+         * Gets the index of this dictionary in the combined matcher.
+         * @return the index of the dictionary
+         */
+        public int getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        public List<Mention> match(String text) {
+            return CombinedMatcher.this.match(text, dictionary);
+        }
+
+        @Override
+        public List<Mention> match(String text, Document document) {
+            return match(text);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.dictionary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+import uk.ac.man.documentparser.dataholders.Document;
+import uk.ac.man.entitytagger.Mention;
+import uk.ac.man.entitytagger.matching.Matcher;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Dictionary matcher backed by a compact index file, which is mapped into memory instead of being loaded into
+ * the heap.
+ * <p>
+ * The index stores the terms of the dictionary, normalized as in {@link CombinedMatcher}, as a table of UTF-8
+ * strings sorted by their bytes. Each term references its identifiers in a pool in which every identifier is
+ * stored once. Matching looks up the tokens that start at each position of the text with a binary search,
+ * extending the candidate term while it is a prefix of a dictionary term.
+ * <p>
+ * The index also stores the size, modification time and checksum of the dictionary it was compiled from,
+ * which allows to detect outdated indexes with {@link #isCompiled(File, File, boolean)}. The checksum is only
+ * computed when the size or modification time changed. The index ends with the magic number, so truncated
+ * indexes are detected without reading them. Lookups only read the mapped buffers, so an instance can be
+ * shared by several threads.
+ * <p>
+ * Indexes are mapped in a single buffer addressed with <code>int</code> offsets, so they are limited to
+ * {@link #MAX_INDEX_SIZE} bytes. Larger dictionaries must be split into several ones.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class CompactMatcher extends Matcher {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(CompactMatcher.class);
+
+    /**
+     * Magic number that identifies the compact index files.
+     */
+    static final int MAGIC = 0x4E4A4449;
+
+    /**
+     * Version of the compact index format.
+     */
+    static final int VERSION = 3;
+
+    /**
+     * Maximum size, in bytes, of a compact index.
+     */
+    public static final long MAX_INDEX_SIZE = Integer.MAX_VALUE;
+
+    private static final Pattern TAB = Pattern.compile("\t");
+    private static final Pattern PIPE = Pattern.compile("\\|");
+
+    private final boolean ignoreCase;
+    private final int numTerms;
+    private final IntBuffer termOffsets;
+    private final ByteBuffer terms;
+    private final IntBuffer idRefOffsets;
+    private final IntBuffer idRefs;
+    private final IntBuffer idOffsets;
+    private final ByteBuffer ids;
+
+    private CompactMatcher(final ByteBuffer buffer) throws NejiException {
+        if (buffer.getInt() != MAGIC) {
+            throw new NejiException("Provided file is not a compact dictionary index.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new NejiException("Unsupported version of the compact dictionary index: " + version);
+        }
+        this.ignoreCase = buffer.getInt() != 0;
+        buffer.getLong(); // Size of the dictionary
+        buffer.getLong(); // Modification time of the dictionary
+        buffer.getLong(); // Checksum of the dictionary
+
+        this.numTerms = buffer.getInt();
+        this.termOffsets = slice(buffer, (numTerms + 1) * 4).asIntBuffer();
+        this.terms = slice(buffer, termOffsets.get(numTerms));
+        this.idRefOffsets = slice(buffer, (numTerms + 1) * 4).asIntBuffer();
+        this.idRefs = slice(buffer, idRefOffsets.get(numTerms) * 4).asIntBuffer();
+
+        int numIds = buffer.getInt();
+        this.idOffsets = slice(buffer, (numIds + 1) * 4).asIntBuffer();
+        this.ids = slice(buffer, idOffsets.get(numIds));
+
+        if (buffer.getInt() != MAGIC || buffer.hasRemaining()) {
+            throw new NejiException("The dictionary index is truncated or corrupted.");
+        }
+    }
+
+    /**
+     * Maps the specified compact index into memory.
+     * @param file the index file
+     * @return the matcher of the index
+     * @throws NejiException if there was a problem reading the index
+     */
+    public static CompactMatcher open(final File file) throws NejiException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > MAX_INDEX_SIZE) {
+                throw new NejiException("The dictionary index is larger than the limit of " + MAX_INDEX_SIZE
+                        + " bytes: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem reading the dictionary index: " + file, ex);
+        }
+
+        try {
+            return new CompactMatcher(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new NejiException("The dictionary index is truncated or corrupted: " + file, ex);
+        }
+    }
+
+    /**
+     * Checks if the specified index was compiled from the current contents of a dictionary, with the same
+     * version of the format and case setting. The checksum of the dictionary is only computed if its size or
+     * modification time are not the ones stored in the index.
+     * @param dictionary the dictionary file
+     * @param index the index file
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     * @return <code>true</code> if the index can be used instead of the dictionary, <code>false</code> if it is
+     * missing, truncated or outdated
+     * @throws NejiException if there was a problem reading the dictionary
+     */
+    public static boolean isCompiled(final File dictionary, final File index, final boolean ignoreCase)
+            throws NejiException {
+        if (!index.isFile()) {
+            return false;
+        }
+
+        long size, lastModified, checksum;
+        try (RandomAccessFile in = new RandomAccessFile(index, "r")) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || (in.readInt() != 0) != ignoreCase) {
+                return false;
+            }
+            size = in.readLong();
+            lastModified = in.readLong();
+            checksum = in.readLong();
+
+            in.seek(in.length() - 4);
+            if (in.readInt() != MAGIC) {
+                logger.warn("The dictionary index is truncated: {}", index);
+                return false;
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not read the dictionary index: {}", index);
+            return false;
+        }
+
+        if (size == dictionary.length() && lastModified == dictionary.lastModified()) {
+            return true;
+        }
+        return checksum == checksum(dictionary);
+    }
+
+    /**
+     * Computes the checksum of the specified dictionary file.
+     * @param dictionary the dictionary file
+     * @return the CRC32 checksum of the file
+     * @throws NejiException if there was a problem reading the dictionary
+     */
+    public static long checksum(final File dictionary) throws NejiException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[65536];
+        try (InputStream in = new CheckedInputStream(new FileInputStream(dictionary), crc)) {
+            while (in.read(buffer) != -1) {
+                // Checksum is updated by the stream
+            }
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem reading the dictionary: " + dictionary, ex);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Writes the compact index of a dictionary in the TSV format used by {@link VariantMatcherLoader}: the
+     * identifier is separated from the terms by a tab, and terms are separated from each other by a pipe.
+     * The index is written to a temporary file in the same folder and then moved into place, so readers never
+     * see a partially written index.
+     * @param dictionary the dictionary file
+     * @param index the index file to write
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     * @throws NejiException if there was a problem reading the dictionary or writing the index
+     */
+    public static void compile(final File dictionary, final File index, final boolean ignoreCase) throws NejiException {
+        logger.info("Compiling dictionary index: {}", index.getName());
+
+        // Taken before reading, so that changes made while compiling are detected by the checksum
+        long size = dictionary.length();
+        long lastModified = dictionary.lastModified();
+
+        // Terms, as UTF-8 bytes, and the identifier of each one
+        Map<String, Integer> idPool = new HashMap<>();
+        List<String> idList = new ArrayList<>();
+        List<byte[]> termList = new ArrayList<>();
+        int[] termIds = new int[1024];
+        CRC32 crc = new CRC32();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new CheckedInputStream(new FileInputStream(dictionary), crc), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = TAB.split(line);
+                if (fields.length < 2) {
+                    continue;
+                }
+
+                Integer id = idPool.get(fields[0]);
+                if (id == null) {
+                    id = idList.size();
+                    idPool.put(fields[0], id);
+                    idList.add(fields[0]);
+                }
+
+                for (String term : PIPE.split(fields[1])) {
+                    Tokens t = new Tokens(term, ignoreCase);
+                    if (t.size() > 0) {
+                        if (termList.size() == termIds.length) {
+                            termIds = Arrays.copyOf(termIds, termIds.length * 2);
+                        }
+                        termIds[termList.size()] = id;
+                        termList.add(t.key(0, t.size()).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem reading the dictionary: " + dictionary, ex);
+        }
+
+        // Sort terms by their bytes and identifiers by their position in the pool
+        int[] order = new int[termList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[order.length], 0, order.length, termList, termIds);
+
+        // Merge the identifiers of repeated terms
+        List<byte[]> sortedTerms = new ArrayList<>();
+        List<int[]> sortedIds = new ArrayList<>();
+        long termBytes = 0, numIdRefs = 0;
+        int i = 0;
+        while (i < order.length) {
+            byte[] term = termList.get(order[i]);
+            int j = i + 1, count = 1;
+            while (j < order.length && Arrays.equals(term, termList.get(order[j]))) {
+                if (termIds[order[j]] != termIds[order[j - 1]]) {
+                    count++;
+                }
+                j++;
+            }
+
+            int[] array = new int[count];
+            array[0] = termIds[order[i]];
+            for (int k = i + 1, n = 1; k < j; k++) {
+                if (termIds[order[k]] != termIds[order[k - 1]]) {
+                    array[n++] = termIds[order[k]];
+                }
+            }
+            sortedTerms.add(term);
+            sortedIds.add(array);
+            termBytes += term.length;
+            numIdRefs += count;
+            i = j;
+        }
+
+        List<byte[]> idBytes = new ArrayList<>(idList.size());
+        long idsBytes = 0;
+        for (String id : idList) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            idBytes.add(bytes);
+            idsBytes += bytes.length;
+        }
+
+        // Offsets are stored as int values, so the whole index must fit in the limit
+        long indexSize = 36 + 4 + 8L * (sortedTerms.size() + 1) + termBytes + 4 * numIdRefs
+                + 4 + 4L * (idBytes.size() + 1) + idsBytes + 4;
+        if (indexSize > MAX_INDEX_SIZE) {
+            throw new NejiException("The index of the dictionary would take " + indexSize + " bytes, more than the "
+                    + "limit of " + MAX_INDEX_SIZE + " bytes. Split it into smaller dictionaries: " + dictionary);
+        }
+
+        File tmp;
+        try {
+            tmp = File.createTempFile(index.getName() + ".", ".tmp", index.getAbsoluteFile().getParentFile());
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem writing the dictionary index: " + index, ex);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ignoreCase ? 1 : 0);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeLong(crc.getValue());
+
+            out.writeInt(sortedTerms.size());
+            writeStrings(out, sortedTerms);
+
+            int offset = 0;
+            for (int[] ids : sortedIds) {
+                out.writeInt(offset);
+                offset += ids.length;
+            }
+            out.writeInt(offset);
+            for (int[] ids : sortedIds) {
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+            }
+
+            out.writeInt(idBytes.size());
+            writeStrings(out, idBytes);
+            out.writeInt(MAGIC);
+        } catch (IOException ex) {
+            tmp.delete();
+            throw new NejiException("There was a problem writing the dictionary index: " + index, ex);
+        }
+
+        try {
+            try {
+                Files.move(tmp.toPath(), index.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            tmp.delete();
+            throw new NejiException("There was a problem writing the dictionary index: " + index, ex);
+        }
+    }
+
+    /**
+     * Checks if the terms of the index are matched ignoring their case.
+     * @return <code>true</code> if the case of terms is ignored, <code>false</code> otherwise
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    @Override
+    public List<Mention> match(final String text) {
+        List<Mention> mentions = new ArrayList<>();
+        Tokens t = new Tokens(text, ignoreCase);
+
+        for (int start = 0; start < t.size(); start++) {
+            StringBuilder key = new StringBuilder();
+            for (int end = start; end < t.size(); end++) {
+                if (end > start && t.spaced(end)) {
+                    key.append(' ');
+                }
+                key.append(t.word(end));
+                byte[] bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+
+                int i = lowerBound(bytes);
+                if (i < numTerms && compare(i, bytes) == 0) {
+                    int s = t.start(start), e = t.end(end);
+                    mentions.add(new Mention(getIds(i), s, e, text.substring(s, e)));
+                    i++;
+                }
+
+                // Stop when no term starts with the current tokens
+                if (i == numTerms || !startsWith(i, bytes)) {
+                    break;
+                }
+            }
+        }
+        return mentions;
+    }
+
+    @Override
+    public List<Mention> match(final String text, final Document document) {
+        return match(text);
+    }
+
+    @Override
+    public int size() {
+        return numTerms;
+    }
+
+    private int lowerBound(final byte[] bytes) {
+        int low = 0, high = numTerms;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, bytes) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(final int term, final byte[] bytes) {
+        int start = termOffsets.get(term);
+        int length = termOffsets.get(term + 1) - start;
+        int n = Math.min(length, bytes.length);
+        for (int i = 0; i < n; i++) {
+            int c = (terms.get(start + i) & 0xff) - (bytes[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return length - bytes.length;
+    }
+
+    private boolean startsWith(final int term, final byte[] bytes) {
+        int start = termOffsets.get(term);
+        if (termOffsets.get(term + 1) - start < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (terms.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String[] getIds(final int term) {
+        int from = idRefOffsets.get(term), to = idRefOffsets.get(term + 1);
+        String[] result = new String[to - from];
+        for (int i = from; i < to; i++) {
+            int id = idRefs.get(i);
+            int start = idOffsets.get(id);
+            byte[] bytes = new byte[idOffsets.get(id + 1) - start];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = ids.get(start + j);
+            }
+            result[i - from] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private static void writeStrings(final DataOutputStream out, final List<byte[]> strings) throws IOException {
+        int offset = 0;
+        for (byte[] s : strings) {
+            out.writeInt(offset);
+            offset += s.length;
+        }
+        out.writeInt(offset);
+        for (byte[] s : strings) {
+            out.write(s);
+        }
+    }
+
+    /**
+     * Sorts the positions of the terms by their bytes and then by their identifiers, with a merge sort of
+     * primitive positions.
+     */
+    private static void sort(final int[] order, final int[] tmp, final int from, final int to,
+                             final List<byte[]> terms, final int[] ids) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(order, tmp, from, middle, terms, ids);
+        sort(order, tmp, middle, to, terms, ids);
+        if (compareTerms(order[middle - 1], order[middle], terms, ids) <= 0) {
+            return;
+        }
+
+        System.arraycopy(order, from, tmp, from, to - from);
+        int i = from, j = middle;
+        for (int k = from; k < to; k++) {
+            if (j == to || (i < middle && compareTerms(tmp[i], tmp[j], terms, ids) <= 0)) {
+                order[k] = tmp[i++];
+            } else {
+                order[k] = tmp[j++];
+            }
+        }
+    }
+
+    private static int compareTerms(final int t1, final int t2, final List<byte[]> terms, final int[] ids) {
+        int c = compareBytes(terms.get(t1), terms.get(t2));
+        return c != 0 ? c : Integer.compare(ids[t1], ids[t2]);
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static int compareBytes(final byte[] b1, final byte[] b2) {
+        int n = Math.min(b1.length, b2.length);
+        for (int i = 0; i < n; i++) {
+            int c = (b1[i] & 0xff) - (b2[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return b1.length - b2.length;
+    }
+}
@@ -15,6 +15,7 @@
 
 package pt.ua.tm.neji.dictionary;
 
+import com.google.common.base.Throwables;
 import martin.common.ArgParser;
 import martin.common.Loggers;
 import org.apache.commons.io.IOUtils;
@@ -27,9 +28,15 @@ import uk.ac.man.entitytagger.matching.Matcher;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -43,22 +50,67 @@ import java.util.regex.Pattern;
  */
 public class DictionariesLoader {
 
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(DictionariesLoader.class);
+
+    /**
+     * Prefix of the entries of the priority list whose dictionaries are matched with a {@link CompactMatcher}.
+     */
+    public static final String COMPACT_PREFIX = "compact:";
+
+    /**
+     * Extension of the compact index files, which are stored next to the dictionaries. Only dictionaries with
+     * the {@link #COMPACT_PREFIX} use their index, which is compiled again when it is missing or outdated.
+     */
+    public static final String COMPACT_EXTENSION = ".idx";
+
     private List<String> priority;
+    private Set<String> compact;
     private Map<String, Dictionary> dictionaries;
 
     public DictionariesLoader(List<String> priority) {
         assert (priority != null);
         this.dictionaries = new LinkedHashMap<>();
-        this.priority = priority;
+        this.compact = new HashSet<>();
+        this.priority = new ArrayList<>();
+        for (String entry : priority) {
+            String name = getDictionaryName(entry);
+            if (isCompact(entry)) {
+                compact.add(name);
+            }
+            this.priority.add(name);
+        }
     }
 
     public DictionariesLoader(InputStream input) throws NejiException {
-        assert (input != null);
-        this.dictionaries = new LinkedHashMap<>();
-        this.priority = loadPriority(input);
+        this(loadPriorityEntries(input));
     }
 
+    /**
+     * Loads the file names of the dictionaries in the priority list, without the {@link #COMPACT_PREFIX} of
+     * their entries.
+     * @param input the priority list
+     * @return the file names of the dictionaries, in priority order
+     * @throws NejiException if there was a problem reading the priority list
+     */
     public static List<String> loadPriority(InputStream input) throws NejiException {
+        List<String> result = new ArrayList<>();
+        for (String entry : loadPriorityEntries(input)) {
+            result.add(getDictionaryName(entry));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the entries of the priority list as they are written, including the {@link #COMPACT_PREFIX} of
+     * the dictionaries to be matched with a {@link CompactMatcher}.
+     * @param input the priority list
+     * @return the entries of the priority list, in priority order
+     * @throws NejiException if there was a problem reading the priority list
+     */
+    public static List<String> loadPriorityEntries(InputStream input) throws NejiException {
         List<String> result = new ArrayList<>();
         BufferedReader br = new BufferedReader(new InputStreamReader(input));
         String line;
@@ -78,42 +130,233 @@ public class DictionariesLoader {
         return result;
     }
 
+    /**
+     * Gets the file name of the dictionary of an entry of the priority list.
+     * @param entry the entry of the priority list
+     * @return the file name of the dictionary, without the {@link #COMPACT_PREFIX}
+     */
+    public static String getDictionaryName(String entry) {
+        return isCompact(entry) ? entry.substring(COMPACT_PREFIX.length()) : entry;
+    }
+
+    /**
+     * Checks if an entry of the priority list asks for its dictionary to be matched with a
+     * {@link CompactMatcher}.
+     * @param entry the entry of the priority list
+     * @return <code>true</code> if the entry has the {@link #COMPACT_PREFIX}, <code>false</code> otherwise
+     */
+    public static boolean isCompact(String entry) {
+        return entry.startsWith(COMPACT_PREFIX);
+    }
+
     public void load(File folder, boolean ignoreCase) {
-        assert (folder != null);
-        Pattern groupPattern = Pattern.compile("([A-Za-z0-9]+?)\\.");
+        load(folder, ignoreCase, false);
+    }
 
+    /**
+     * Compiles the index of each dictionary of the priority list with the {@link #COMPACT_PREFIX} that is
+     * missing or outdated, so that it does not need to be compiled when loaded.
+     * @param folder the folder of the dictionaries
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     * @return the number of compiled indexes
+     * @throws NejiException if there was a problem compiling an index
+     */
+    public int compile(File folder, boolean ignoreCase) throws NejiException {
+        assert (folder != null);
+        int count = 0;
         for (String name : priority) {
-//            String group = null;
-//            java.util.regex.Matcher m = groupPattern.matcher(name);
-//            while (m.find()) {
-//                group = m.group(1);
-//            }
-//            if (group == null) {
-//                throw new RuntimeException(
-//                        "The file name of the lexicon does not follow the required format: *GROUP.*");
-//            }
-            String dictionaryFileName = folder.getAbsolutePath() + File.separator + name;
-            // Get group from first ID
-            String group;
-            try (FileInputStream fis = new FileInputStream(dictionaryFileName);
-                 InputStreamReader isr = new InputStreamReader(fis);
-                 BufferedReader br = new BufferedReader(isr);) {
-
-                String line = br.readLine();
-                String[] parts = line.split("\t");
-                String[] fields = parts[0].split(":");
-                group = fields[3];
-            } catch (IOException ex) {
-                throw new RuntimeException("There was a problem obtaining the group from the dictionary: " + dictionaryFileName, ex);
+            if (!compact.contains(name)) {
+                continue;
+            }
+            File dictionary = new File(folder, name);
+            File index = getIndexFile(dictionary);
+            if (!CompactMatcher.isCompiled(dictionary, index, ignoreCase)) {
+                CompactMatcher.compile(dictionary, index, ignoreCase);
+                count++;
             }
+        }
+        return count;
+    }
 
-            Matcher matcher = getExactMatcher(dictionaryFileName, ignoreCase);
+    /**
+     * Gets the compact index file of a dictionary.
+     * @param dictionary the dictionary file
+     * @return the index file
+     */
+    public static File getIndexFile(File dictionary) {
+        return new File(dictionary.getPath() + COMPACT_EXTENSION);
+    }
+
+    /**
+     * Loads the dictionaries of the priority list from the specified folder.
+     * @param folder the folder of the dictionaries
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     * @param combined <code>true</code> to load every dictionary in a single {@link CombinedMatcher},
+     *                 <code>false</code> to load a matcher for each dictionary
+     */
+    public void load(File folder, boolean ignoreCase, boolean combined) {
+        load(folder, ignoreCase, combined, null);
+    }
 
-            Dictionary d = new Dictionary(matcher, group);
+    /**
+     * Loads the dictionaries of the priority list from the specified folder, each one in a task of the
+     * provided executor. Dictionaries of the {@link CombinedMatcher} share a single structure, so they are
+     * added to it in priority order after the other dictionaries are loaded.
+     * @param folder the folder of the dictionaries
+     * @param ignoreCase <code>true</code> to match terms ignoring their case, <code>false</code> otherwise
+     * @param combined <code>true</code> to load every dictionary in a single {@link CombinedMatcher},
+     *                 <code>false</code> to load a matcher for each dictionary
+     * @param executor the executor to load the dictionaries, or <code>null</code> to load them in the current
+     *                 thread
+     */
+    public void load(final File folder, final boolean ignoreCase, final boolean combined, ExecutorService executor) {
+        assert (folder != null);
+        List<Dictionary> loaded = new ArrayList<>();
+        if (executor == null) {
+            for (String name : priority) {
+                loaded.add(load(folder, name, ignoreCase, combined));
+            }
+        } else {
+            List<Future<Dictionary>> futures = new ArrayList<>();
+            for (final String name : priority) {
+                futures.add(executor.submit(new Callable<Dictionary>() {
+                    @Override
+                    public Dictionary call() {
+                        return load(folder, name, ignoreCase, combined);
+                    }
+                }));
+            }
+            for (Future<Dictionary> future : futures) {
+                try {
+                    loaded.add(future.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while loading the dictionaries.", ex);
+                } catch (ExecutionException ex) {
+                    Throwables.propagateIfPossible(ex.getCause());
+                    throw new RuntimeException("There was a problem loading the dictionaries.", ex.getCause());
+                }
+            }
+        }
+
+        CombinedMatcher combinedMatcher = combined ? new CombinedMatcher(ignoreCase) : null;
+        for (int i = 0; i < priority.size(); i++) {
+            String name = priority.get(i);
+            Dictionary d = loaded.get(i);
+            if (d.getMatcher() == null) {
+                long start = System.nanoTime();
+                d.setMatcher(getCombinedMatcher(combinedMatcher, folder.getAbsolutePath() + File.separator + name));
+                logLoaded(name, start);
+            }
             dictionaries.put(name, d);
         }
     }
 
+    /**
+     * Loads a dictionary, leaving its matcher empty if it must be added to the {@link CombinedMatcher}.
+     */
+    private Dictionary load(File folder, String name, boolean ignoreCase, boolean combined) {
+        long start = System.nanoTime();
+        Pattern groupPattern = Pattern.compile("([A-Za-z0-9]+?)\\.");
+//        String group = null;
+//        java.util.regex.Matcher m = groupPattern.matcher(name);
+//        while (m.find()) {
+//            group = m.group(1);
+//        }
+//        if (group == null) {
+//            throw new RuntimeException(
+//                    "The file name of the lexicon does not follow the required format: *GROUP.*");
+//        }
+        String dictionaryFileName = folder.getAbsolutePath() + File.separator + name;
+        // Get group from first ID
+        String group;
+        try (FileInputStream fis = new FileInputStream(dictionaryFileName);
+             InputStreamReader isr = new InputStreamReader(fis);
+             BufferedReader br = new BufferedReader(isr);) {
+
+            String line = br.readLine();
+            String[] parts = line.split("\t");
+            String[] fields = parts[0].split(":");
+            group = fields[3];
+        } catch (IOException ex) {
+            throw new RuntimeException("There was a problem obtaining the group from the dictionary: " + dictionaryFileName, ex);
+        }
+
+        Matcher matcher;
+        if (compact.contains(name)) {
+            matcher = getCompactMatcher(dictionaryFileName, ignoreCase);
+        } else if (combined) {
+            return new Dictionary(null, group);
+        } else {
+            matcher = getExactMatcher(dictionaryFileName, ignoreCase);
+        }
+
+        logLoaded(name, start);
+        return new Dictionary(matcher, group);
+    }
+
+    private static void logLoaded(String name, long start) {
+        Runtime runtime = Runtime.getRuntime();
+        logger.info("Loaded dictionary {} in {} ms ({} MB of heap in use)", new Object[]{name,
+                (System.nanoTime() - start) / 1000000, (runtime.totalMemory() - runtime.freeMemory()) >> 20});
+    }
+
+    private Matcher getCombinedMatcher(CombinedMatcher combinedMatcher, String fileName) {
+        int index = combinedMatcher.addDictionary();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(fileName)))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                combinedMatcher.load(index, line);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("There was a problem loading the dictionary: " + fileName, ex);
+        }
+        return combinedMatcher.getMatcher(index);
+    }
+
+    /**
+     * Opens the compiled index of a dictionary, or returns <code>null</code> if it is missing, outdated or
+     * corrupted, so that it is compiled again from the TSV file of the dictionary.
+     */
+    private Matcher getCompiledMatcher(String fileName, boolean ignoreCase) {
+        File dictionary = new File(fileName);
+        File index = getIndexFile(dictionary);
+        try {
+            if (!CompactMatcher.isCompiled(dictionary, index, ignoreCase)) {
+                return null;
+            }
+        } catch (NejiException ex) {
+            throw new RuntimeException("There was a problem loading the dictionary: " + fileName, ex);
+        }
+
+        try {
+            return CompactMatcher.open(index);
+        } catch (NejiException ex) {
+            logger.warn("Ignoring the corrupted index of the dictionary: " + fileName, ex);
+            return null;
+        }
+    }
+
+    private Matcher getCompactMatcher(String fileName, boolean ignoreCase) {
+        Matcher matcher = getCompiledMatcher(fileName, ignoreCase);
+        if (matcher != null) {
+            logger.info("Using compiled dictionary: {}", fileName);
+            return matcher;
+        }
+
+        File dictionary = new File(fileName);
+        File index = getIndexFile(dictionary);
+        try {
+            CompactMatcher.compile(dictionary, index, ignoreCase);
+            return CompactMatcher.open(index);
+        } catch (NejiException ex) {
+            throw new RuntimeException("There was a problem loading the dictionary: " + fileName, ex);
+        }
+    }
+
     private Matcher getExactMatcher(String fileName, boolean ignoreCase) {
         Boolean b = ignoreCase;
         ArgParser ap = new ArgParser(new String[]{"--variantMatcher", fileName, "--ignoreCase", b.toString()});
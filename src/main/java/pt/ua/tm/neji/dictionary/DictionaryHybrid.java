@@ -24,11 +24,21 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseHybrid;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import uk.ac.man.entitytagger.Mention;
+import uk.ac.man.entitytagger.matching.Matcher;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Hybrid module to perform dictionary matching and load the resulting concepts into the internal {@link Corpus}
@@ -41,26 +51,116 @@ import java.util.List;
  */
 @Requires({Resource.Tokens})
 @Provides({Resource.Annotations})
+@Resettable
 public class DictionaryHybrid extends BaseHybrid {
 
-    private Dictionary dictionary;
+    private List<Dictionary> dictionaries;
+    private CombinedMatcher combinedMatcher;
+    private int[] combinedIndexes;
     private int startSentence;
     private DictionaryMatching dictionaryMatching;
+    private ForkJoinPool pool;
+    private boolean documentMatching;
+    private int sentenceIndex;
+    private final List<Sentence> pendingSentences;
+    private final List<String> pendingTexts;
 
     public DictionaryHybrid(Dictionary dictionary, DictionaryMatching dictionaryMatching) throws NejiException {
+        this(Collections.singletonList(dictionary), dictionaryMatching);
+    }
+
+    /**
+     * Creates a module that matches several dictionaries in the same stage. Mentions are added to the sentences
+     * in the order of the dictionaries, which decides conflicts as if each dictionary had its own stage.
+     * Dictionaries loaded in the same {@link CombinedMatcher} are matched in a single pass over each sentence.
+     * @param dictionaries the dictionaries, by priority
+     * @param dictionaryMatching the filter of overlapped mentions and stopwords
+     * @throws NejiException if there was a problem creating the module
+     */
+    public DictionaryHybrid(List<Dictionary> dictionaries, DictionaryMatching dictionaryMatching) throws NejiException {
         super(DfaRun.UNMATCHED_COPY);
         super.addActionToXMLTag(start_action, "s");
         super.addActionToXMLTag(end_action, "s");
-        assert (dictionary != null);
-        this.dictionary = dictionary;
+        super.setEofAction(eof_action);
+        assert (dictionaries != null && !dictionaries.isEmpty());
+        this.dictionaries = new ArrayList<>(dictionaries);
+        setCombinedMatcher();
         this.dictionaryMatching = dictionaryMatching;
         this.startSentence = 0;
+        this.pool = null;
+        this.documentMatching = false;
+        this.sentenceIndex = 0;
+        this.pendingSentences = new ArrayList<>();
+        this.pendingTexts = new ArrayList<>();
+    }
+
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startSentence = 0;
+        this.sentenceIndex = 0;
+        this.pendingSentences.clear();
+        this.pendingTexts.clear();
     }
 
     public DictionaryHybrid(Dictionary dictionary) throws NejiException {
         this(dictionary, new DictionaryMatching());
     }
 
+    public DictionaryHybrid(List<Dictionary> dictionaries) throws NejiException {
+        this(dictionaries, new DictionaryMatching());
+    }
+
+    private void setCombinedMatcher() {
+        combinedIndexes = new int[dictionaries.size()];
+        for (int i = 0; i < dictionaries.size(); i++) {
+            Dictionary dictionary = dictionaries.get(i);
+            Matcher matcher = dictionary != null ? dictionary.getMatcher() : null;
+            if (!(matcher instanceof CombinedMatcher.View)) {
+                combinedMatcher = null;
+                return;
+            }
+
+            CombinedMatcher.View view = (CombinedMatcher.View) matcher;
+            if (i > 0 && view.getCombinedMatcher() != combinedMatcher) {
+                combinedMatcher = null;
+                return;
+            }
+            combinedMatcher = view.getCombinedMatcher();
+            combinedIndexes[i] = view.getDictionary();
+        }
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool used to match the sentences of each document in parallel. The text of the sentences
+     * already provided by the parser is collected until the last one is reached, and then every sentence
+     * is matched by the pool. Annotations are added to the sentences in order, by the calling thread.
+     * @param pool the pool, or <code>null</code> to match one sentence at a time
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean isDocumentMatching() {
+        return documentMatching;
+    }
+
+    /**
+     * Sets if the sentences of each document are matched at once, in the text of the corpus. Like when a pool
+     * is set, sentences are collected until the last one provided by the parser, and then the text of the corpus
+     * that covers them is matched in a single pass. Sentences whose text in the stream differs from the text of
+     * the corpus are matched one by one.
+     * @param documentMatching <code>true</code> to match the text of the corpus, <code>false</code> to match
+     *                         each sentence
+     */
+    public void setDocumentMatching(boolean documentMatching) {
+        this.documentMatching = documentMatching;
+    }
+
 //    public DictionaryHybrid(final Corpus corpus, Dictionary dictionary) throws NejiException {
 //        this(dictionary);
 //        getPipeline().setCorpus(corpus);
@@ -81,50 +181,196 @@ public class DictionaryHybrid extends BaseHybrid {
     private Action end_action = new SentenceIteratorEndAction() {
         @Override
         public void execute(StringBuffer yytext, int start, Sentence nextSentence) {
+            sentenceIndex++;
 
-            StringBuilder sb = new StringBuilder(yytext.substring(startSentence, start));
-            String sentenceText = sb.toString();
+            if (pool == null && !documentMatching) {
+                annotate(nextSentence, match(yytext.substring(startSentence, start)));
+                return;
+            }
 
-            List<Mention> mentions = dictionary.getMatcher().match(sentenceText);
+            // Sentences matched in the text of the corpus do not need their own copy of the text
+            pendingSentences.add(nextSentence);
+            pendingTexts.add(documentMatching && isCorpusText(yytext, startSentence, start, nextSentence)
+                    ? null : yytext.substring(startSentence, start));
 
-            List<Mention> toRemove = dictionaryMatching.removeList(mentions);
-            mentions.removeAll(toRemove);
+            // Wait for the remaining sentences already parsed
+            if (sentenceIndex < getPipeline().getCorpus().size()) {
+                keepCollecting();
+                return;
+            }
 
-//            dictionaryMatching.getStopwordsPattern();
+            matchPending();
+        }
+    };
 
-//            int endLastEntity = 0;
-//            int previousNumChars = 0;
-            // Add annotations
-            for (Mention m : mentions) {
-                
-                if(dictionaryMatching.discardStopwords(m))
-                    continue;
+    private EofAction eof_action = new EofAction() {
+        @Override
+        public void execute(StringBuffer yytext, int start) {
+            // Sentences of the corpus that never reached this module must not hold back the previous ones
+            if (!pendingSentences.isEmpty()) {
+                matchPending();
+            }
+        }
+    };
 
-//                String sentenceBeforeEntity = sentenceText.substring(endLastEntity, m.getStart());
+    private boolean isCorpusText(StringBuffer yytext, int start, int end, Sentence sentence) {
+        String text = getPipeline().getCorpus().getText();
+        int offset = sentence.getStart();
+        if (text == null || sentence.getEnd() - offset != end - start || sentence.getEnd() > text.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (yytext.charAt(i) != text.charAt(offset++)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-//                int numChars = Char.getNumNonWhiteSpaceChars(sentenceBeforeEntity);
+    private void matchPending() {
+        try {
+            annotatePending();
+        } finally {
+            pendingSentences.clear();
+            pendingTexts.clear();
+        }
+    }
+
+    private void annotatePending() {
+        List<Sentence> documentSentences = new ArrayList<>();
+        List<Future<List<Mention>>> futures = new ArrayList<>();
+        for (int i = 0; i < pendingSentences.size(); i++) {
+            final String text = pendingTexts.get(i);
+            if (text == null) {
+                documentSentences.add(pendingSentences.get(i));
+            } else if (pool != null) {
+                futures.add(pool.submit(new Callable<List<Mention>>() {
+                    @Override
+                    public List<Mention> call() {
+                        return match(text);
+                    }
+                }));
+            }
+        }
+
+        Iterator<List<Mention>> documentMentions = matchDocument(documentSentences).iterator();
+        Iterator<Future<List<Mention>>> sentenceMentions = futures.iterator();
+        try {
+            for (int i = 0; i < pendingSentences.size(); i++) {
+                String text = pendingTexts.get(i);
+                List<Mention> mentions;
+                if (text == null) {
+                    mentions = documentMentions.next();
+                } else if (pool != null) {
+                    mentions = sentenceMentions.next().get();
+                } else {
+                    mentions = match(text);
+                }
+                annotate(pendingSentences.get(i), mentions);
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException("There was a problem matching the sentences.", ex);
+        }
+    }
 
-//                int startEntityChars = previousNumChars + numChars;
-//                int endEntityChars = previousNumChars + numChars + Char.getNumNonWhiteSpaceChars(m.getText()) - 1;
-//
+    /**
+     * Matches the text of the corpus that covers the provided sentences at once, and assigns each mention to the
+     * sentence that contains it, finding the sentence by its start with a binary search. Mentions that cross the
+     * boundaries of the sentences are discarded.
+     * @param sentences the sentences, in the order of the corpus
+     * @return the mentions of each sentence, with positions relative to the sentence
+     */
+    private List<List<Mention>> matchDocument(List<Sentence> sentences) {
+        int n = sentences.size();
+        if (n == 0) {
+            return Collections.emptyList();
+        }
 
-                String id = m.getIdsToString();
+        String text = getPipeline().getCorpus().getText();
+        int from = sentences.get(0).getStart();
+        int to = sentences.get(n - 1).getEnd();
+        String span = from == 0 && to == text.length() ? text : text.substring(from, to);
 
-                int startEntityChars = m.getStart();
-                int endEntityChars = m.getEnd()-1;
-                Annotation a = AnnotationImpl.newAnnotationByCharPositions(nextSentence, startEntityChars, endEntityChars, 1.0);
+        int[] starts = new int[n];
+        List<List<List<Mention>>> bySentence = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            starts[i] = sentences.get(i).getStart() - from;
+            List<List<Mention>> byDictionary = new ArrayList<>(dictionaries.size());
+            for (int d = 0; d < dictionaries.size(); d++) {
+                byDictionary.add(new ArrayList<Mention>());
+            }
+            bySentence.add(byDictionary);
+        }
 
-                if (a != null) {
-                    List<Identifier> ids = Identifier.getIdentifiersFromText(id);
-                    a.setIDs(ids);
-                    nextSentence.addAnnotationToTree(a);
+        List<List<Mention>> matched = matchDictionaries(span);
+        for (int d = 0; d < matched.size(); d++) {
+            for (Mention m : matched.get(d)) {
+                int i = Arrays.binarySearch(starts, m.getStart());
+                if (i < 0) {
+                    i = -i - 2;
+                }
+                if (i < 0 || m.getEnd() > sentences.get(i).getEnd() - from) {
+                    continue;
                 }
+                int offset = starts[i];
+                bySentence.get(i).get(d).add(new Mention(m.getIds(), m.getStart() - offset, m.getEnd() - offset,
+                        m.getText()));
+            }
+        }
 
-                startSentence = m.getEnd() + 1;
-//                previousNumChars = endEntityChars + 1;
-//                endLastEntity = m.getEnd();
+        List<List<Mention>> result = new ArrayList<>(n);
+        for (List<List<Mention>> byDictionary : bySentence) {
+            result.add(resolve(byDictionary));
+        }
+        return result;
+    }
+
+    private List<Mention> match(String sentenceText) {
+        return resolve(matchDictionaries(sentenceText));
+    }
+
+    private List<List<Mention>> matchDictionaries(String text) {
+        List<List<Mention>> combined = combinedMatcher != null ? combinedMatcher.match(text) : null;
+
+        List<List<Mention>> result = new ArrayList<>(dictionaries.size());
+        for (int i = 0; i < dictionaries.size(); i++) {
+            result.add(combined != null
+                    ? combined.get(combinedIndexes[i])
+                    : dictionaries.get(i).getMatcher().match(text));
+        }
+        return result;
+    }
+
+    /**
+     * Removes the overlapped mentions of each dictionary, and joins them in the order of the dictionaries.
+     */
+    private List<Mention> resolve(List<List<Mention>> mentions) {
+        List<Mention> result = new ArrayList<>();
+        for (List<Mention> m : mentions) {
+            dictionaryMatching.removeOverlaps(m);
+            result.addAll(m);
+        }
+        return result;
+    }
+
+    private void annotate(Sentence sentence, List<Mention> mentions) {
+        // Add annotations
+        for (Mention m : mentions) {
+
+            if(dictionaryMatching.discardStopwords(m))
+                continue;
+
+            String id = m.getIdsToString();
+
+            int startEntityChars = m.getStart();
+            int endEntityChars = m.getEnd()-1;
+            Annotation a = AnnotationImpl.newAnnotationByCharPositions(sentence, startEntityChars, endEntityChars, 1.0);
+
+            if (a != null) {
+                List<Identifier> ids = Identifier.getIdentifiersFromText(id);
+                a.setIDs(ids);
+                sentence.addAnnotationToTree(a);
             }
         }
-    };
+    }
 }
-
@@ -19,11 +19,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.train.config.Resources;
 import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
 import uk.ac.man.entitytagger.Mention;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Pattern;
 
 
 /**
@@ -38,14 +40,79 @@ public class DictionaryMatching {
      * {@link org.slf4j.Logger} to be used in the class.
      */
     private Logger logger = LoggerFactory.getLogger(DictionaryMatching.class);
-    private Pattern stopwords;
+    private final StopwordSet stopwords;
 
     public DictionaryMatching() throws NejiException {
-        try{
-            stopwords = Resources.getStopwordsPattern();
-        } catch(Exception e) {
-            throw new NejiException(e);
+        this(Resources.getStopwords());
+    }
+
+    public DictionaryMatching(StopwordSet stopwords) {
+        this.stopwords = stopwords;
+    }
+
+    // Remove intersections from the mentions, keeping the longer ones, and get the removed mentions.
+    // Same result of removeList, but only compares the mentions that overlap, sweeping them sorted by start.
+    public List<Mention> removeOverlaps(final List<Mention> mentions) {
+        int n = mentions.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Integer.compare(mentions.get(i1).getStart(), mentions.get(i2).getStart());
+            }
+        });
+
+        boolean[] removed = new boolean[n];
+        int[] active = new int[n];
+        int numActive = 0;
+        for (int k = 0; k < n; k++) {
+            int j = order[k];
+            Mention m = mentions.get(j);
+
+            int size = 0;
+            for (int a = 0; a < numActive; a++) {
+                int i = active[a];
+                // Mentions that end before this one starts do not overlap the next ones either
+                if (mentions.get(i).getEnd() < m.getStart()) {
+                    continue;
+                }
+                active[size++] = i;
+
+                // Compare in the order of the list, as removeList does
+                int first = Math.min(i, j), second = Math.max(i, j);
+                int loser = getLoser(mentions.get(first), mentions.get(second));
+                if (loser == 1) {
+                    removed[first] = true;
+                } else if (loser == 2) {
+                    removed[second] = true;
+                }
+            }
+            numActive = size;
+            active[numActive++] = j;
+        }
+
+        List<Mention> kept = new ArrayList<>(n);
+        List<Mention> toRemove = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            (removed[i] ? toRemove : kept).add(mentions.get(i));
+        }
+        if (!toRemove.isEmpty()) {
+            mentions.clear();
+            mentions.addAll(kept);
         }
+        return toRemove;
+    }
+
+    // Get which mention of a pair is removed: 1 for the first, 2 for the second or 0 for none
+    private static int getLoser(Mention m1, Mention m2) {
+        if ((m1.getStart() >= m2.getStart() && m1.getStart() <= m2.getEnd())
+                || (m1.getEnd() >= m2.getStart() && m1.getEnd() <= m2.getEnd())) {
+            return m1.getText().length() > m2.getText().length() ? 2 : 1;
+        }
+        return 0;
     }
 
     // Filter mentions to remove intersections (does not happen frequently)
@@ -84,13 +151,13 @@ public class DictionaryMatching {
         return toRemove;
     }
 
-    // Get pattern for stopwords recognition
-//    Pattern getStopwordsPattern() {
-//        return stopwords;
-//    }
+    // Get stopwords
+    public StopwordSet getStopwords() {
+        return stopwords;
+    }
 
     // Discard stopwords recognition
     public boolean discardStopwords(Mention m) {
-        return stopwords.matcher(m.getText()).matches();
+        return stopwords.contains(m.getText());
     }
 }
@@ -22,12 +22,16 @@ import pt.ua.tm.neji.core.Constants;
 import pt.ua.tm.neji.core.module.BaseTagger;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import uk.ac.man.entitytagger.Mention;
 import uk.ac.man.entitytagger.matching.Matcher;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Tagger module to perform dictionary matching and provide the concepts to the stream.
@@ -39,12 +43,20 @@ import java.util.List;
  */
 @Requires({Resource.Sentences})
 @Provides({}) // only concept tags are provided
+@Resettable
 public class DictionaryTagger extends BaseTagger {
 
     /**
      * {@link Logger} to be used in the class.
      */
     private static Logger logger = LoggerFactory.getLogger(DictionaryTagger.class);
+    private static final Pattern SCORES = Pattern.compile("[\\\\?][\\d]+[\\\\.,][\\d]+");
+    private static final Comparator<Mention> START_ORDER = new Comparator<Mention>() {
+        @Override
+        public int compare(Mention m1, Mention m2) {
+            return Integer.compare(m1.getStart(), m2.getStart());
+        }
+    };
     private Matcher matcher;
     private int startSentence;
     private DictionaryMatching dictionaryMatching;
@@ -53,8 +65,6 @@ public class DictionaryTagger extends BaseTagger {
     private String end_e = "</e>";
     private String start_id = "id=\"";
     private String end_id = "\"";
-    private int offset = start_e.length() + end_start_e.length()
-            + end_e.length() + start_id.length() + end_id.length();
 
     public DictionaryTagger(Matcher matcher, DictionaryMatching dictionaryMatching) throws NejiException {
         super(DfaRun.UNMATCHED_COPY);
@@ -66,6 +76,12 @@ public class DictionaryTagger extends BaseTagger {
         this.startSentence = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startSentence = 0;
+    }
+
     public DictionaryTagger(Matcher matcher) throws NejiException {
         this(matcher, new DictionaryMatching());
     }
@@ -80,12 +96,11 @@ public class DictionaryTagger extends BaseTagger {
     private Action end_sentence = new EndAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
-            StringBuffer sb = new StringBuffer(yytext.substring(startSentence, start));
+            String sentenceText = yytext.substring(startSentence, start);
 
-            List<Mention> mentions = matcher.match(sb.toString());
-            int sum_offset = 0;
+            List<Mention> mentions = matcher.match(sentenceText);
 
-            List<Mention> toRemove = dictionaryMatching.removeList(mentions);
+            List<Mention> toRemove = dictionaryMatching.removeOverlaps(mentions);
 
             if (!toRemove.isEmpty() && Constants.verbose) {
                 for (Mention m : toRemove) {
@@ -96,36 +111,38 @@ public class DictionaryTagger extends BaseTagger {
                     });
                 }
             }
-            mentions.removeAll(toRemove);
 
 //            dictionaryMatching.getStopwordsPattern();
 
+            // Build the tagged sentence in a single pass over the mentions, sorted by their start
+            Collections.sort(mentions, START_ORDER);
+            StringBuilder sb = new StringBuilder(sentenceText.length() + mentions.size() * 64);
+            int last = 0;
+
             // Add annotations
             for (Mention m : mentions) {
 
                 if(dictionaryMatching.discardStopwords(m))
                     continue;
 
-                StringBuilder s = new StringBuilder();
-                s.append(start_e);
-                s.append(start_id);
+                // Mentions nested in the previous one cannot be tagged
+                if (m.getStart() < last)
+                    continue;
 
                 // Solve problem with IDs that contain scores
-                String ids = m.getIdsToString();
-                ids = ids.replaceAll("[\\\\?][\\d]+[\\\\.,][\\d]+", "");
-
-                s.append(ids);
-                //s.append(m.getIdsToString());
-                s.append(end_id);
-                s.append(end_start_e);
-                s.append(m.getText());
-                s.append(end_e);
-
-                sb = sb.replace(sum_offset + m.getStart(), sum_offset + m.getEnd(), s.toString());
-
-                //sum_offset += offset + m.getIdsToString().length();
-                sum_offset += offset + ids.length();
+                String ids = SCORES.matcher(m.getIdsToString()).replaceAll("");
+
+                sb.append(sentenceText, last, m.getStart());
+                sb.append(start_e);
+                sb.append(start_id);
+                sb.append(ids);
+                sb.append(end_id);
+                sb.append(end_start_e);
+                sb.append(m.getText());
+                sb.append(end_e);
+                last = m.getEnd();
             }
+            sb.append(sentenceText, last, sentenceText.length());
 
             // Replace sentence with species annotations
             yytext.replace(startSentence, start, sb.toString());
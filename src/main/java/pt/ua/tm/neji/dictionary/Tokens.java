@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.dictionary;
+
+import java.util.Arrays;
+
+/**
+ * Tokens of a dictionary term or of a text, with their positions. Tokens are sequences of letters and digits
+ * or single symbols, and each one records if it is preceded by white space.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+class Tokens {
+
+    private String[] words;
+    private int[] starts;
+    private int[] ends;
+    private boolean[] spaced;
+    private int size;
+
+    Tokens(String text, boolean ignoreCase) {
+        int capacity = Math.max(4, text.length() / 4);
+        this.words = new String[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.spaced = new boolean[capacity];
+        this.size = 0;
+
+        boolean space = false;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+
+            int start = i++;
+            if (Character.isLetterOrDigit(c)) {
+                while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+
+            String word = text.substring(start, i);
+            add(ignoreCase ? word.toLowerCase() : word, start, i, space && size > 0);
+            space = false;
+        }
+    }
+
+    private void add(String word, int start, int end, boolean space) {
+        if (size == words.length) {
+            int capacity = size * 2;
+            words = Arrays.copyOf(words, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            spaced = Arrays.copyOf(spaced, capacity);
+        }
+        words[size] = word;
+        starts[size] = start;
+        ends[size] = end;
+        spaced[size] = space;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String word(int i) {
+        return words[i];
+    }
+
+    boolean spaced(int i) {
+        return spaced[i];
+    }
+
+    /**
+     * Gets the normalized form of a sequence of tokens, in which tokens preceded by white space are separated
+     * by a single space.
+     * @param from the first token
+     * @param to the last token, exclusive
+     * @return the normalized text of the tokens
+     */
+    String key(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from && spaced[i]) {
+                sb.append(' ');
+            }
+            sb.append(words[i]);
+        }
+        return sb.toString();
+    }
+
+    int start(int i) {
+        return starts[i];
+    }
+
+    int end(int i) {
+        return ends[i];
+    }
+}
@@ -30,6 +30,9 @@ import java.util.regex.Pattern;
  */
 public class VariantMatcherLoader {
 
+    private static final Pattern TAB = Pattern.compile("\t");
+    private static final Pattern PIPE = Pattern.compile("\\|");
+
     private Map<String, Set<String>> map;
 
     private boolean ignoreCase;
@@ -55,15 +58,12 @@ public class VariantMatcherLoader {
      * @param line the line to be loaded
      */
     public VariantMatcherLoader load(String line) {
-        Pattern tabPattern = Pattern.compile("\t");
-        Pattern pipePattern = Pattern.compile("\\|");
-
-        String[] fields = tabPattern.split(line);
+        String[] fields = TAB.split(line);
 
         if (ignoreCase)
             fields[1] = fields[1].toLowerCase();
 
-        String[] names  = pipePattern.split(fields[1]);
+        String[] names  = PIPE.split(fields[1]);
         for (String n : names){
             if (!map.containsKey(n))
                 map.put(n, new HashSet<String>());
@@ -105,11 +105,7 @@ public class VariantMatcherLoader {
 
     public static Dictionary loadDictionaryFromLines(List<String> lines) throws NejiException {
         VariantMatcherLoader matcherLoader = new VariantMatcherLoader(true);
-
-        String line = lines.get(0);
-        String[] parts = line.split("\t");
-        String[] fields = parts[0].split(":");
-        String group = fields[3];
+        String group = getGroup(lines);
 
         for (String l : lines) {
             matcherLoader.load(l);
@@ -117,4 +113,40 @@ public class VariantMatcherLoader {
 
         return new Dictionary(matcherLoader.getMatcher(), group);
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks that every line of a dictionary is in the TSV format, with an identifier and its terms separated by
+     * a tab, and that its group can be obtained, without loading the dictionary.
+     * @param lines the lines of the dictionary
+     * @throws NejiException if the dictionary is empty or one of its lines is not in the TSV format
+     */
+    public static void validate(List<String> lines) throws NejiException {
+        getGroup(lines);
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = TAB.split(lines.get(i));
+            if (fields.length < 2 || fields[0].isEmpty() || fields[1].isEmpty()) {
+                throw new NejiException("Line " + (i + 1) + " of the dictionary is not in the TSV format: "
+                        + lines.get(i));
+            }
+        }
+    }
+
+    /**
+     * Gets the group of a dictionary from the identifier of its first entry, in the format
+     * <code>source:id:type:group</code>, without loading the dictionary.
+     * @param lines the lines of the dictionary
+     * @return the group of the dictionary
+     * @throws NejiException if the dictionary is empty or its first identifier does not have a group
+     */
+    public static String getGroup(List<String> lines) throws NejiException {
+        if (lines.isEmpty()) {
+            throw new NejiException("The dictionary is empty.");
+        }
+
+        String[] fields = TAB.split(lines.get(0), 2)[0].split(":");
+        if (fields.length < 4) {
+            throw new NejiException("The dictionary identifiers do not specify a group: " + lines.get(0));
+        }
+        return fields[3];
+    }
+}
@@ -20,6 +20,7 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseLoader;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -34,6 +35,7 @@ import pt.ua.tm.neji.exception.NejiException;
  */
 @Requires({Resource.Annotations})
 @Provides({Resource.Annotations})
+@Resettable
 public class Disambiguate extends BaseLoader {
 
     private boolean discardByDepth;
@@ -17,6 +17,7 @@ package pt.ua.tm.neji.entity;
 
 import monq.jfa.DfaRun;
 import pt.ua.tm.neji.core.module.BaseTagger;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 
 /**
@@ -27,6 +28,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @version 2.0
  * @since 1.0
  */
+@Resettable
 public class EntityCleaner extends BaseTagger {
 
     private boolean inSentence;
@@ -45,6 +47,14 @@ public class EntityCleaner extends BaseTagger {
         this.startEntity = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.inSentence = false;
+        this.inEntity = false;
+        this.startEntity = 0;
+    }
+
     private Action start_action = new StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
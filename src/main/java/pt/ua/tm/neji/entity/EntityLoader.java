@@ -24,6 +24,7 @@ import pt.ua.tm.neji.core.annotation.Identifier;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseLoader;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.util.Char;
 
@@ -37,6 +38,7 @@ import java.util.List;
  * @version 2.0
  * @since 1.0
  */
+@Resettable
 public class EntityLoader extends BaseLoader {
 
     /** {@link Logger} to be used in the class. */
@@ -63,6 +65,17 @@ public class EntityLoader extends BaseLoader {
         this.previousNumChars = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.sentence = 0;
+        this.inSentence = false;
+        this.inEntity = false;
+        this.startEntity = 0;
+        this.startSentence = 0;
+        this.previousNumChars = 0;
+    }
+
 //    public EntityLoader(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
@@ -112,7 +112,7 @@ public class XML2A1Module extends BaseModule {
     public void process(final InputStream in) throws NejiException {
         try {
             compile();
-            DfaRun run = new DfaRun(getDFA());
+            DfaRun run = getRun();
             run.setIn(new ByteCharSource(in));
             run.filter();
         } catch (IOException ex) {
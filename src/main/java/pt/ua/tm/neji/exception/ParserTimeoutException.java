@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.exception;
+
+/**
+ * Exception thrown when no parser becomes available within the take timeout of the parser pool, so that the
+ * document can be rejected or retried instead of waiting indefinitely.
+ * @version 1.0
+ * @since 2.0
+ */
+public class ParserTimeoutException extends NejiException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor with message.
+     * @param m Associated message.
+     */
+    public ParserTimeoutException(final String m) {
+        super(m);
+    }
+}
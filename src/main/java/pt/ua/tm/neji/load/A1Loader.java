@@ -23,7 +23,6 @@ import pt.ua.tm.neji.core.annotation.AnnotationImpl;
 import pt.ua.tm.neji.core.annotation.Identifier;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
-import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.module.BaseLoader;
 import pt.ua.tm.neji.evaluation.Concept;
 import pt.ua.tm.neji.exception.NejiException;
@@ -171,17 +170,13 @@ public class A1Loader extends BaseLoader {
         for (Sentence sentence : getPipeline().getCorpus()) {
             if (start >= sentence.getStart() && end <= sentence.getEnd()) {
 
-                int startToken = 0, endToken = 0;
-                for (int i = 0; i < sentence.size(); i++) {
-                    Token t = sentence.getToken(i);
-
-                    if (start >= (sentence.getStart() + t.getStart())) {
-                        startToken = i;
-                    }
-                    if (end <= (sentence.getStart() + t.getEnd())) {
-                        endToken = i;
-                        break;
-                    }
+                // First token ending at or after the annotation, and last token starting before it
+                int startToken = Math.max(sentence.getTokenIndexByStart(start - sentence.getStart()), 0);
+                int endToken = sentence.getTokenIndexByEnd(end - sentence.getStart() - 1) + 1;
+                if (endToken < sentence.size()) {
+                    startToken = Math.min(startToken, endToken);
+                } else {
+                    endToken = 0;
                 }
 
                 if (endToken < startToken) {
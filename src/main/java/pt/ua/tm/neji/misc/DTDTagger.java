@@ -18,6 +18,7 @@ package pt.ua.tm.neji.misc;
 import monq.jfa.DfaRun;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.module.BaseTagger;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 
 import java.util.logging.Logger;
@@ -30,6 +31,7 @@ import java.util.logging.Logger;
  * @version 2.0
  * @since 1.0
  */
+@Resettable
 public class DTDTagger extends BaseTagger {
 
     /**
@@ -69,6 +71,13 @@ public class DTDTagger extends BaseTagger {
 //        }
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        inDocType = false;
+        startDocType = 0;
+    }
+
     private Action start_action = new StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
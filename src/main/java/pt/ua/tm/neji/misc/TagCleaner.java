@@ -19,6 +19,7 @@ import monq.jfa.DfaRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.module.BaseTagger;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 
 /**
@@ -27,6 +28,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @version 1.0
  * @since 1.0
  */
+@Resettable
 public class TagCleaner extends BaseTagger {
 
     private static Logger logger = LoggerFactory.getLogger(TagCleaner.class);
@@ -48,6 +50,14 @@ public class TagCleaner extends BaseTagger {
         this.inTag = false;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startTag = 0;
+        this.startContent = 0;
+        this.inTag = false;
+    }
+
     private Action text_action = new DefaultAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.module.BaseTagger;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -33,6 +34,7 @@ import pt.ua.tm.neji.exception.NejiException;
  */
 @Requires({})
 @Provides({})
+@Resettable
 public class TextReplacer extends BaseTagger {
 
     private static Logger logger = LoggerFactory.getLogger(TextReplacer.class);
@@ -16,12 +16,14 @@
 package pt.ua.tm.neji.ml;
 
 import cc.mallet.fst.CRF;
+import cc.mallet.fst.MaxLatticeDefault;
 import cc.mallet.fst.NoopTransducerTrainer;
 import cc.mallet.fst.SumLatticeDefault;
 import cc.mallet.fst.Transducer;
 import cc.mallet.pipe.Pipe;
 import cc.mallet.types.Instance;
 import cc.mallet.types.Sequence;
+import cc.mallet.types.SequencePairAlignment;
 import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
@@ -56,6 +58,14 @@ public class MLAnnotator {
      * The {@link Sentence} to be annotated by this {@link MLAnnotator}.
      */
     public static List<Annotation> annotate(Sentence s, CRFBase modelCRF) throws NejiException {
+        return annotate(s, modelCRF, MLScoring.FULL);
+    }
+
+    /**
+     * The {@link Sentence} to be annotated by this {@link MLAnnotator}, computing the confidence
+     * score of the annotations with the specified {@link MLScoring} strategy.
+     */
+    public static List<Annotation> annotate(Sentence s, CRFBase modelCRF, MLScoring scoring) throws NejiException {
         CRF crf = modelCRF.getCRF();
 
         //The ML annotationsML associated with the Sentence s.
@@ -73,7 +83,7 @@ public class MLAnnotator {
         Pipe pipe = crf.getInputPipe();
 
         // Get instance
-        Instance i = new Instance(s.toExportFormat(), null, 0, null);
+        Instance i = new Instance(s, null, 0, null);
         i = pipe.instanceFrom(i);
 
         // Get predictions
@@ -81,12 +91,27 @@ public class MLAnnotator {
 
         Sequence input = (Sequence) i.getData();
         Transducer tran = crfTrainer.getTransducer();
-        Sequence pred = tran.transduce(input);
-
-        // Get score
-        double logScore = new SumLatticeDefault(crf, input, pred).getTotalWeight();
-        double logZ = new SumLatticeDefault(crf, input).getTotalWeight();
-        double prob = Math.exp(logScore - logZ);
+        Sequence pred;
+        double prob;
+
+        switch (scoring) {
+            case NONE:
+                pred = tran.transduce(input);
+                prob = 1.0;
+                break;
+            case VITERBI:
+                // Use the weight of the decoded path instead of a constrained lattice
+                SequencePairAlignment best = new MaxLatticeDefault(tran, input).bestOutputAlignment();
+                pred = best.output();
+                prob = Math.exp(best.getWeight() - new SumLatticeDefault(crf, input).getTotalWeight());
+                break;
+            default:
+                pred = tran.transduce(input);
+                double logScore = new SumLatticeDefault(crf, input, pred).getTotalWeight();
+                double logZ = new SumLatticeDefault(crf, input).getTotalWeight();
+                prob = Math.exp(logScore - logZ);
+                break;
+        }
 
         // Add tags
         LabelTag p;
@@ -233,8 +258,16 @@ public class MLAnnotator {
      * The {@link Corpus} whose {@link Sentence} is/are to be annotated by this {@link MLAnnotator}.
      */
     public static void annotate(Corpus c, CRFBase crf) throws NejiException {
+        annotate(c, crf, MLScoring.FULL);
+    }
+
+    /**
+     * The {@link Corpus} whose {@link Sentence} is/are to be annotated by this {@link MLAnnotator},
+     * using the specified {@link MLScoring} strategy.
+     */
+    public static void annotate(Corpus c, CRFBase crf, MLScoring scoring) throws NejiException {
         for (Sentence s : c.getSentences()) {
-            annotate(s, crf);
+            annotate(s, crf, scoring);
         }
     }
 }
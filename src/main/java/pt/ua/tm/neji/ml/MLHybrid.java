@@ -19,15 +19,21 @@
  */
 package pt.ua.tm.neji.ml;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import monq.jfa.DfaRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.annotation.Annotation;
 import pt.ua.tm.neji.core.annotation.AnnotationImpl;
 import pt.ua.tm.neji.core.annotation.Identifier;
+import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.*;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -49,16 +55,28 @@ import uk.ac.man.entitytagger.Mention;
  */
 @Requires({Resource.DynamicNLP})
 @Provides({Resource.Annotations})
+@Resettable
 public class MLHybrid extends BaseHybrid implements DynamicNLP {
 
     private static Logger logger = LoggerFactory.getLogger(MLHybrid.class);
 
     private CRFBase crf;
     private Collection<Dictionary> dictionaries;
+    private NormalizationCache cache;
     private boolean doNormalization;
     private int startSentence;
     private String group;
     private boolean addAnnotationsWithoutIDs;
+    private MLScoring scoring;
+    private boolean batch;
+    private ForkJoinPool pool;
+    private int sentenceIndex;
+    private final Map<Sentence, List<Annotation>> decoded;
+
+    /**
+     * Minimum number of sentences decoded by each task of a batch.
+     */
+    private static final int BATCH_TASK_SIZE = 8;
 
     public MLHybrid(CRFBase crf, String group) throws NejiException {
         this(crf, group, null, false);
@@ -66,6 +84,7 @@ public class MLHybrid extends BaseHybrid implements DynamicNLP {
 
     public MLHybrid(MLModel model, CRFBase crf, boolean addAnnotationsWithoutIDs) throws NejiException {
         this(crf, model.getSemanticGroup(), model.getNormalizationDictionaries(), addAnnotationsWithoutIDs);
+        this.cache = model.getNormalizationCache();
     }
 
     public MLHybrid(CRFBase crf, String group, Collection<Dictionary> dictionaries, boolean addAnnotationsWithoutIDs) throws NejiException {
@@ -75,16 +94,68 @@ public class MLHybrid extends BaseHybrid implements DynamicNLP {
         assert (crf != null);
         this.crf = crf;
         this.dictionaries = dictionaries;
+        this.cache = null;
         this.doNormalization = true;
         this.startSentence = 0;
         this.group = group.toUpperCase();
         this.addAnnotationsWithoutIDs = addAnnotationsWithoutIDs;
+        this.scoring = MLScoring.FULL;
+        this.batch = false;
+        this.pool = null;
+        this.sentenceIndex = 0;
+        this.decoded = new IdentityHashMap<>();
+    }
+
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startSentence = 0;
+        this.sentenceIndex = 0;
+        this.decoded.clear();
     }
 
     public MLHybrid(CRFBase crf, String group, boolean addAnnotationsWithoutIDs) throws NejiException {
         this(crf, group, null, addAnnotationsWithoutIDs);
     }
 
+    public MLScoring getScoring() {
+        return scoring;
+    }
+
+    /**
+     * Sets the strategy used to compute the confidence score of the annotations.
+     * @param scoring the scoring strategy
+     */
+    public void setScoring(MLScoring scoring) {
+        this.scoring = scoring;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * Sets if sentences are decoded in batch. In batch mode, when a sentence is reached, every sentence
+     * of the corpus already provided by the parser is decoded at once, instead of decoding one sentence
+     * at a time between the post-processing and normalization of the previous ones.
+     * @param batch <code>true</code> to decode sentences in batch, <code>false</code> otherwise
+     */
+    public void setBatch(boolean batch) {
+        this.batch = batch;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool used to decode the sentences of each batch in parallel.
+     * @param pool the pool, or <code>null</code> to decode each batch in the calling thread
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     private Action start_action = new StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -108,7 +179,17 @@ public class MLHybrid extends BaseHybrid implements DynamicNLP {
                 String sentenceText = yytext.substring(realStart, realEnd);
 
                 // Annotate sentence
-                List<Annotation> annotationsML = MLAnnotator.annotate(nextSentence, crf);
+                List<Annotation> annotationsML;
+                if (batch) {
+                    annotationsML = decoded.remove(nextSentence);
+                    if (annotationsML == null) {
+                        decodeBatch(getPipeline().getCorpus(), sentenceIndex);
+                        annotationsML = decoded.remove(nextSentence);
+                    }
+                } else {
+                    annotationsML = MLAnnotator.annotate(nextSentence, crf, scoring);
+                }
+                sentenceIndex++;
 
                 // Post-processing
                 annotationsML = Parentheses.processRemoving(annotationsML);
@@ -129,6 +210,82 @@ public class MLHybrid extends BaseHybrid implements DynamicNLP {
         }
     };
 
+    /**
+     * Decodes every sentence of the corpus from the specified index onwards, storing the annotations
+     * of each sentence until it is reached.
+     */
+    private void decodeBatch(Corpus corpus, int from) throws NejiException {
+        List<Sentence> sentences = new ArrayList<>();
+        for (int i = from; i < corpus.size(); i++) {
+            sentences.add(corpus.getSentence(i));
+        }
+
+        List<List<Annotation>> annotations = new ArrayList<>(sentences.size());
+        for (int i = 0; i < sentences.size(); i++) {
+            annotations.add(null);
+        }
+
+        if (pool == null || sentences.size() <= BATCH_TASK_SIZE) {
+            decode(sentences, annotations, 0, sentences.size());
+        } else {
+            try {
+                pool.invoke(new DecodeTask(sentences, annotations, 0, sentences.size()));
+            } catch (RuntimeException ex) {
+                // Exceptions thrown by other threads may be wrapped more than once
+                for (Throwable t = ex; t != null; t = t.getCause()) {
+                    if (t instanceof NejiException) {
+                        throw (NejiException) t;
+                    }
+                }
+                throw ex;
+            }
+        }
+
+        for (int i = 0; i < sentences.size(); i++) {
+            decoded.put(sentences.get(i), annotations.get(i));
+        }
+    }
+
+    private void decode(List<Sentence> sentences, List<List<Annotation>> annotations,
+                        int from, int to) throws NejiException {
+        for (int i = from; i < to; i++) {
+            annotations.set(i, MLAnnotator.annotate(sentences.get(i), crf, scoring));
+        }
+    }
+
+    /**
+     * Task that decodes a range of sentences of a batch, splitting it while it is larger than
+     * {@link #BATCH_TASK_SIZE}. Each sentence is only changed by the task that decodes it.
+     */
+    private class DecodeTask extends RecursiveAction {
+
+        private final List<Sentence> sentences;
+        private final List<List<Annotation>> annotations;
+        private final int from, to;
+
+        DecodeTask(List<Sentence> sentences, List<List<Annotation>> annotations, int from, int to) {
+            this.sentences = sentences;
+            this.annotations = annotations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_TASK_SIZE) {
+                try {
+                    decode(sentences, annotations, from, to);
+                } catch (NejiException ex) {
+                    throw new RuntimeException(ex);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DecodeTask(sentences, annotations, from, middle),
+                        new DecodeTask(sentences, annotations, middle, to));
+            }
+        }
+    }
+
     private void normalize(Sentence s, String sourceText, List<Annotation> annotationsML) {
         Annotation newAnnotation;
 
@@ -189,11 +346,15 @@ public class MLHybrid extends BaseHybrid implements DynamicNLP {
 
         String text = sourceText.substring(startChar, endChar);
 
-        List<Mention> mentions = dictionary.getMatcher().match(text);
+        if (cache != null) {
+            ids = cache.lookup(dictionary, text);
+        } else {
+            List<Mention> mentions = dictionary.getMatcher().match(text);
+            ids = mentions.isEmpty() ? null : mentions.get(0).getIds();
+        }
 
         // Alternate
-        if (mentions.size() >= 1) {
-            ids = mentions.get(0).getIds();
+        if (ids != null) {
             for (String textId : ids) {
                 Identifier id = Identifier.getIdentifierFromText(textId);
                 id.setGroup(group);
@@ -19,14 +19,16 @@
  */
 package pt.ua.tm.neji.ml;
 
-import cc.mallet.fst.CRF;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.Constants.Parsing;
 import pt.ua.tm.neji.train.config.ModelConfig;
+import pt.ua.tm.neji.train.features.mallet.FeaturePipe;
 import pt.ua.tm.neji.train.model.CRFBase;
 import pt.ua.tm.neji.train.model.CRFModel;
+import pt.ua.tm.neji.train.model.BinaryModelReader;
 import pt.ua.tm.neji.dictionary.DictionariesLoader;
 import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
@@ -34,7 +36,7 @@ import pt.ua.tm.neji.exception.NejiException;
 
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -51,14 +53,15 @@ public class MLModel {
      */
     private static Logger logger = LoggerFactory.getLogger(MLModel.class);
 
-    private LinkedBlockingQueue<CRFBase> models;
+    private CRFBase crf;
     private ModelConfig config;
     private Parsing parsing;
     private String semanticGroup;
+    private MLScoring scoring;
     private String dictionariesPath;
     private Map<String, Dictionary> normalization;
     private boolean hasNormalizationDictionaries;
-    private boolean readyForMultiThreading;
+    private final NormalizationCache normalizationCache;
     private boolean isInitialized;
     // To initialize
     private final String modelName, modelFile, configFile, normalizationDictionariesFolder;
@@ -79,14 +82,21 @@ public class MLModel {
         this.configFile = FilenameUtils.normalize(folderPath + prop.getProperty("config"));
         this.parsing = Parsing.valueOf(prop.getProperty("parsing"));
         this.semanticGroup = prop.getProperty("group");
+        String scoringName = prop.getProperty("scoring", MLScoring.FULL.name()).trim();
+        try {
+            this.scoring = MLScoring.valueOf(scoringName.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Invalid scoring \"" + scoringName + "\" in the properties file of the model "
+                    + modelName + ". Must be one of " + StringUtils.join(MLScoring.values(), ", "), ex);
+        }
         this.dictionariesPath = prop.getProperty("dictionaries");
         if (dictionariesPath == null) {
             this.normalizationDictionariesFolder = null;
         } else {
             this.normalizationDictionariesFolder = FilenameUtils.normalize(folderPath + dictionariesPath);
         }
-        this.models = new LinkedBlockingQueue<>();
-        this.readyForMultiThreading = false;
+        this.crf = null;
+        this.normalizationCache = new NormalizationCache(modelName, NormalizationCache.DEFAULT_CAPACITY);
         this.isInitialized = false;
     }
 
@@ -95,13 +105,31 @@ public class MLModel {
     }
 
     public void initialize() throws NejiException {
+        initialize(null);
+    }
+
+    /**
+     * Loads the model and its normalization dictionaries, which are loaded by the provided executor.
+     * @param executor the executor to load the dictionaries, or <code>null</code> to load them in the current
+     *                 thread
+     * @throws NejiException if there was a problem loading the model files
+     */
+    public void initialize(ExecutorService executor) throws NejiException {
         if (isInitialized) {
             return;
         }
-        try(GZIPInputStream in = new GZIPInputStream(new FileInputStream(modelFile))) {
+        long start = System.nanoTime();
+        try {
             this.config = new ModelConfig(configFile);
-            CRFModel model = new CRFModel(config, parsing, in);
-            this.models.put(model);
+            CRFModel model = loadModel();
+
+            // Extract character-class and shape features in a single pass
+            FeaturePipe.compile(model.getCRF().getInputPipe());
+
+            // Decoding only reads the weights, so a single model is shared by every thread
+            model.getCRF().getInputPipe().getDataAlphabet().stopGrowth();
+            model.getTransducer();
+            this.crf = model;
 
             // Load normalization dictionaries
             this.normalization = new LinkedHashMap<>();
@@ -111,37 +139,60 @@ public class MLModel {
                 try(FileInputStream dictsPriorityStream = new FileInputStream(priorityFileName)) {
 
                     DictionariesLoader dl = new DictionariesLoader(dictsPriorityStream);
-                    dl.load(new File(normalizationDictionariesFolder), false);
+                    dl.load(new File(normalizationDictionariesFolder), false, false, executor);
                     this.normalization = dl.getDictionaries();
                     this.hasNormalizationDictionaries = true;
                 }
             }
-        } catch (IOException | InterruptedException ex) {
+        } catch (IOException ex) {
             throw new NejiException("There was a problem loading the model files.", ex);
         }
         isInitialized = true;
+
+        Runtime runtime = Runtime.getRuntime();
+        logger.info("Loaded model {} in {} ms ({} MB of heap in use)", new Object[]{modelName,
+                (System.nanoTime() - start) / 1000000, (runtime.totalMemory() - runtime.freeMemory()) >> 20});
     }
 
-    public void addMultiThreadingSupport(final int numThreads) throws InterruptedException {
-        if (readyForMultiThreading) {
-            return;
+    /**
+     * Loads the CRF model, either from a binary model file, which is memory-mapped, or from a compressed
+     * serialized model file.
+     * @return the loaded model
+     */
+    private CRFModel loadModel() throws NejiException, IOException {
+        File file = new File(modelFile);
+        if (BinaryModelReader.isBinaryModel(file)) {
+            CRFModel model = new CRFModel(config, parsing);
+            model.setCRF(BinaryModelReader.read(file));
+            return model;
         }
 
-        CRF crf = models.peek().getCRF();
-        for (int j = 1; j < numThreads; j++) {
-            CRFModel m = new CRFModel(config, parsing);
-            m.setCRF(new CRF(crf));
-            models.put(m);
+        try (GZIPInputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            return new CRFModel(config, parsing, in);
         }
-        readyForMultiThreading = true;
     }
 
+    /**
+     * Prepares the model to be used by several threads. Since the CRF is shared by every thread and the
+     * lattices used for decoding are allocated for each sentence, no copies of the model are created.
+     * @param numThreads the number of threads
+     */
+    public void addMultiThreadingSupport(final int numThreads) throws InterruptedException {
+    }
+
+    /**
+     * Takes the CRF model to annotate a document. The same thread-safe model is returned to every caller.
+     * @return the shared CRF model
+     */
     public CRFBase take() throws InterruptedException {
-        return models.take();
+        return crf;
     }
 
+    /**
+     * Returns the CRF model taken with {@link #take()}. Kept for symmetry, since the model is shared.
+     * @param model the CRF model
+     */
     public void put(final CRFBase model) throws InterruptedException {
-        models.put(model);
     }
 
     public boolean hasNormalizationDictionaries() {
@@ -150,7 +201,7 @@ public class MLModel {
 
 
     public CRFBase getCrf() {
-        return models.peek();
+        return crf;
     }
 
     public ModelConfig getConfig() {
@@ -165,10 +216,31 @@ public class MLModel {
         return semanticGroup;
     }
 
+    /**
+     * Gets the strategy used to compute the confidence score of the annotations of this model.
+     * @return the scoring strategy
+     */
+    public MLScoring getScoring() {
+        return scoring;
+    }
+
+    public void setScoring(MLScoring scoring) {
+        this.scoring = scoring;
+    }
+
     public Collection<Dictionary> getNormalizationDictionaries() {
         return normalization.values();
     }
 
+    /**
+     * Gets the cache of the identifiers found by the normalization dictionaries, which is shared by every
+     * document annotated with this model.
+     * @return the normalization cache
+     */
+    public NormalizationCache getNormalizationCache() {
+        return normalizationCache;
+    }
+
     public Set<String> getNormalizationDictionaryNames() {
         return normalization.keySet();
     }
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.ml;
+
+/**
+ * Strategy used by {@link MLAnnotator} to compute the confidence score of the annotations.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public enum MLScoring {
+    /**
+     * Annotations are not scored, skipping the computation of lattices after decoding.
+     */
+    NONE,
+    /**
+     * The score is the weight of the Viterbi path found while decoding, normalized by a single
+     * forward-backward pass over the unconstrained lattice.
+     */
+    VITERBI,
+    /**
+     * The score is computed from a lattice constrained to the predicted labels and an unconstrained lattice.
+     */
+    FULL
+}
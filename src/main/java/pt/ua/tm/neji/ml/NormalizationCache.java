@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.ml;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.dictionary.Dictionary;
+import uk.ac.man.entitytagger.Mention;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of the identifiers found by normalization dictionaries for the text of the annotations,
+ * shared by every document annotated with the same {@link MLModel}. Texts without identifiers are cached
+ * as well, since most annotations are checked against several dictionaries before one of them matches.
+ * <p>
+ * The cache is bounded by keeping two generations of entries: when the current generation is full, it
+ * replaces the previous one, which is discarded. Entries found in the previous generation are copied to the
+ * current one, so frequent texts are kept while the rare ones are eventually evicted.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class NormalizationCache {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(NormalizationCache.class);
+
+    /**
+     * Default maximum number of cached texts.
+     */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    /**
+     * Number of lookups between the statistics written to the log.
+     */
+    private static final long LOG_INTERVAL = 100000;
+
+    private static final String[] NONE = new String[0];
+
+    private final String name;
+    private final int generationSize;
+    private volatile ConcurrentMap<Key, String[]> current;
+    private volatile ConcurrentMap<Key, String[]> previous;
+    private final AtomicLong lookups;
+    private final AtomicLong misses;
+
+    /**
+     * Constructor.
+     * @param name the name used to identify the cache in the log
+     * @param capacity the maximum number of cached texts
+     */
+    public NormalizationCache(final String name, final int capacity) {
+        this.name = name;
+        this.generationSize = Math.max(capacity / 2, 1);
+        this.current = new ConcurrentHashMap<>();
+        this.previous = new ConcurrentHashMap<>();
+        this.lookups = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Gets the identifiers of the first mention found by the dictionary in the specified text, matching the
+     * text only if it is not cached.
+     * @param dictionary the normalization dictionary
+     * @param text the text of the annotation
+     * @return the identifiers of the first mention, or <code>null</code> if the dictionary has no mentions in
+     * the text
+     */
+    public String[] lookup(final Dictionary dictionary, final String text) {
+        if (lookups.incrementAndGet() % LOG_INTERVAL == 0) {
+            logger.info("Normalization cache of {}: {}", name, this);
+        }
+
+        Key key = new Key(dictionary, text);
+        String[] ids = current.get(key);
+        if (ids == null) {
+            ids = previous.get(key);
+            if (ids != null) {
+                store(key, ids);
+            }
+        }
+
+        if (ids != null) {
+            return ids == NONE ? null : ids;
+        }
+        misses.incrementAndGet();
+
+        List<Mention> mentions = dictionary.getMatcher().match(text);
+        if (mentions.isEmpty()) {
+            store(key, NONE);
+            return null;
+        }
+        ids = mentions.get(0).getIds();
+        store(key, ids);
+        return ids;
+    }
+
+    private void store(final Key key, final String[] ids) {
+        ConcurrentMap<Key, String[]> map = current;
+        map.put(key, ids);
+        if (map.size() >= generationSize) {
+            synchronized (this) {
+                if (current == map) {
+                    previous = map;
+                    current = new ConcurrentHashMap<>();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lookups answered by the cache.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return lookups.get() - misses.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to match the text with the dictionary.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the fraction of lookups answered by the cache.
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0 : (double) (total - misses.get()) / total;
+    }
+
+    /**
+     * Gets the number of cached texts, which may include texts of both generations.
+     * @return the number of cached texts
+     */
+    public int size() {
+        return current.size() + previous.size();
+    }
+
+    /**
+     * Removes every cached text, keeping the statistics.
+     */
+    public synchronized void clear() {
+        current = new ConcurrentHashMap<>();
+        previous = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d cached texts",
+                getHits(), getMisses(), getHitRate() * 100, size());
+    }
+
+    /**
+     * Text matched with a dictionary, which is compared by identity.
+     */
+    private static final class Key {
+        private final Dictionary dictionary;
+        private final String text;
+        private final int hash;
+
+        Key(final Dictionary dictionary, final String text) {
+            this.dictionary = dictionary;
+            this.text = text;
+            this.hash = 31 * System.identityHashCode(dictionary) + text.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return dictionary == other.dictionary && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
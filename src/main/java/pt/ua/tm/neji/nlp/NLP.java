@@ -44,6 +44,7 @@ import pt.ua.tm.neji.exception.NejiException;
  */
 @Requires({Resource.Passages})
 @Provides({Resource.Sentences, Resource.DynamicNLP})
+@Resettable
 public class NLP extends BaseLoader implements DynamicNLP {
 
     /**
@@ -75,6 +76,16 @@ public class NLP extends BaseLoader implements DynamicNLP {
         startIndex = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        sentenceCounter = 0;
+        startText = 0;
+        startTag = 0;
+        inText = false;
+        startIndex = 0;
+    }
+
 //    public NLP(final Corpus corpus, Parser parser) throws NejiException {
 //        this(parser);
 //        getPipeline().setCorpus(corpus);
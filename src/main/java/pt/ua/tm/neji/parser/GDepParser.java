@@ -26,18 +26,24 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.corpus.dependency.DependencyTag;
 import pt.ua.tm.neji.core.corpus.dependency.LabeledEdge;
+import pt.ua.tm.neji.core.parser.ParseCache;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLanguage;
 import pt.ua.tm.neji.core.parser.ParserLevel;
 import pt.ua.tm.neji.core.parser.ParserTool;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.logger.LoggingOutputStream;
+import pt.ua.tm.neji.parser.gdep.GDepPipeline;
 import pt.ua.tm.neji.parser.gdep.ProcessConnector;
 import pt.ua.tm.neji.sentencesplitter.SentenceSplitter;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * GDep Parser wrapper implementation.
@@ -55,6 +61,7 @@ public class GDepParser extends Parser implements AutoCloseable {
     private static Logger logger = LoggerFactory.getLogger(GDepParser.class);
 
     private String[] parserCommand;
+    private String cacheOptions;
     private File dir;
     private PipedInputStream pis;
     private PipedOutputStream sink;
@@ -63,7 +70,9 @@ public class GDepParser extends Parser implements AutoCloseable {
     private BufferedReader br;
     private BufferedWriter bw;
     private ProcessConnector pc;
+    private GDepPipeline pipeline;
     private SentenceSplitter splitter;
+    private boolean pipelined;
 
 
     public GDepParser(final ParserLanguage language,
@@ -94,6 +103,8 @@ public class GDepParser extends Parser implements AutoCloseable {
 
         dir = f;
         parserCommand = command.toArray(new String[command.size()]);
+        cacheOptions = doWhiteSpaceTokenization ? "-wst" : "";
+        pipelined = true;
     }
 
 
@@ -157,15 +168,62 @@ public class GDepParser extends Parser implements AutoCloseable {
         } else {
             pc.create(dir, parserCommand);
         }
+
+        if (pipelined) {
+            pipeline = new GDepPipeline("gdep", bw, br);
+        }
         return this;
     }
 
+    /**
+     * Checks if the sentences of a text are sent to the parser at once, without waiting for the replies
+     * to the previous ones.
+     * @return <code>true</code> if the sentences are pipelined, <code>false</code> otherwise
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Sets if the sentences of a text are sent to the parser at once, without waiting for the replies to
+     * the previous ones. Must be set before launching the parser. Enabled by default.
+     * @param pipelined <code>true</code> to pipeline the sentences, <code>false</code> to send a sentence
+     *                  only after receiving the reply to the previous one
+     */
+    public void setPipelined(final boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Gets the statistics of the communication with the parser process.
+     * @return the pipeline of the parser, or <code>null</code> if the parser is not launched or its
+     * sentences are not pipelined
+     */
+    public GDepPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Checks if the GDep process is still running and answering.
+     * @return <code>true</code> if the parser is launched and working, <code>false</code> otherwise
+     */
+    @Override
+    public boolean isHealthy() {
+        GDepPipeline p = pipeline;
+        return isLaunched() && pc != null && pc.isAlive() && (p == null || p.isHealthy());
+    }
+
     /**
      * Terminates the execution of the parser.
      */
     @Override
     public void close() {
         super.close();
+        if (pipeline != null) {
+            pipeline.close();
+            logger.info("GDep parser closed: {}", pipeline);
+            pipeline = null;
+        }
         try {
             pis.close();
             pis = null;
@@ -214,32 +272,7 @@ public class GDepParser extends Parser implements AutoCloseable {
             splitPairList.add(new Pair<>(start, end));
         }
 
-        List<List<Object>> parserOutputList = new ArrayList<>();
-        try {
-            for(Pair<Integer, Integer> pair : splitPairList) {
-                String s = text.substring(pair.a(), pair.b());
-
-                List<Object> results = new ArrayList<Object>();
-                parserOutputList.add(results);
-
-                //String parserLevelArg = levelToArg(parserLevel);
-                //bw.write(parserLevelArg + "|" + s.trim() + "\n");
-                bw.write(s.trim() + "\n");
-                bw.flush();
-
-                while (!br.ready()) {
-                    // wait for results
-                    Thread.yield();
-                }
-                String line;
-
-                while (!(line = br.readLine()).equalsIgnoreCase("")) {
-                    results.add(line);
-                }
-            }
-        } catch (IOException ex) {
-            throw new NejiException("An error occurred while parsing the sentence.", ex);
-        }
+        List<List<String>> parserOutputList = process(text, splitPairList);
 
         int k = 0;
         int startIndex = 0;
@@ -298,6 +331,91 @@ public class GDepParser extends Parser implements AutoCloseable {
         return _LIST;
     }
 
+    private List<List<String>> process(String text, List<Pair<Integer, Integer>> splitPairList) throws NejiException {
+        List<String> sentences = new ArrayList<>(splitPairList.size());
+        for (Pair<Integer, Integer> pair : splitPairList) {
+            //String parserLevelArg = levelToArg(parserLevel);
+            //sentences.add(parserLevelArg + "|" + text.substring(pair.a(), pair.b()).trim());
+            sentences.add(text.substring(pair.a(), pair.b()).trim());
+        }
+
+        try {
+            return process(sentences);
+        } catch (IOException ex) {
+            throw new NejiException("An error occurred while parsing the sentence.", ex);
+        }
+    }
+
+    /**
+     * Gets the reply to each sentence from the parse cache, sending only the missing sentences to the parser.
+     */
+    private List<List<String>> process(List<String> sentences) throws IOException {
+        ParseCache cache = getParseCache();
+        if (cache == null) {
+            return parse(sentences);
+        }
+
+        List<String> keys = new ArrayList<>(sentences.size());
+        List<List<String>> parserOutputList = new ArrayList<>(sentences.size());
+        List<String> missing = new ArrayList<>();
+        for (String s : sentences) {
+            String key = ParseCache.key(getTool(), language, level, cacheOptions, s);
+            List<String> reply = cache.get(key);
+            keys.add(key);
+            parserOutputList.add(reply);
+            if (reply == null) {
+                missing.add(s);
+            }
+        }
+        if (missing.isEmpty()) {
+            return parserOutputList;
+        }
+
+        Iterator<List<String>> replies = parse(missing).iterator();
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        for (int i = 0; i < parserOutputList.size(); i++) {
+            if (parserOutputList.get(i) == null) {
+                List<String> reply = replies.next();
+                parserOutputList.set(i, reply);
+                entries.put(keys.get(i), reply);
+            }
+        }
+        cache.putAll(entries);
+        return parserOutputList;
+    }
+
+    /**
+     * Sends the sentences to the parser and reads the reply to each one, which ends with a blank line.
+     */
+    private List<List<String>> parse(List<String> sentences) throws IOException {
+        if (pipeline != null) {
+            return pipeline.parse(sentences);
+        }
+
+        List<List<String>> parserOutputList = new ArrayList<>(sentences.size());
+        for (String s : sentences) {
+            bw.write(s + "\n");
+            bw.flush();
+
+            // Block until the reply is available
+            List<String> results = new ArrayList<>();
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                results.add(line);
+            }
+            parserOutputList.add(results);
+        }
+        return parserOutputList;
+    }
+
+    private String readLine() throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("The output of the GDep process has ended.");
+        }
+        return line;
+    }
+
     private String levelToArg(final ParserLevel parserLevel){
         switch (parserLevel){
             case TOKENIZATION: return "tok";
@@ -309,7 +427,7 @@ public class GDepParser extends Parser implements AutoCloseable {
         }
     }
 
-    private void translate(Sentence sentence, String sentenceText, final List<Object> parserOutput) {
+    private void translate(Sentence sentence, String sentenceText, final List<String> parserOutput) {
         int start = 0, end = 0, tokenCounter = 0, offset = 0;
 
         UndirectedGraph<Token, LabeledEdge> dependencyGraph = new SimpleGraph<>(LabeledEdge.class);
@@ -439,26 +557,11 @@ public class GDepParser extends Parser implements AutoCloseable {
             return null;
         }
 
-        List<Object> results = new ArrayList<Object>();
         try {
-
-            bw.write(sentence.trim() + "\n");
-            bw.flush();
-
-            while (!br.ready()) {
-                // wait for results
-                Thread.yield();
-            }
-            String line;
-
-            while (!(line = br.readLine()).equalsIgnoreCase("")) {
-                results.add(line);
-            }
+            return new ArrayList<Object>(process(Collections.singletonList(sentence.trim())).get(0));
         } catch (IOException ex) {
             throw new NejiException("An error occured while parsing the sentence.", ex);
         }
-
-        return results;
     }   
     
     public List<Sentence> parseWithLevel(ParserLevel parserLevel, Corpus corpus, String text, List<Pair<Integer, Integer>> splitPairList) throws NejiException {
@@ -480,37 +583,7 @@ public class GDepParser extends Parser implements AutoCloseable {
             }
         }
  
-        List<List<Object>> parserOutputList = new ArrayList<>();
-        //int counter = 0;
-        //System.out.printf("\r\t%d/%d", counter, splitPairList.size());
-        try {
-            for(Pair<Integer, Integer> pair : splitPairList) {
-                String s = text.substring(pair.a(), pair.b());
-
-                List<Object> results = new ArrayList<Object>();
-                parserOutputList.add(results);
-
-                //String parserLevelArg = levelToArg(parserLevel);
-                //bw.write(parserLevelArg + "|" + s.trim() + "\n");
-                bw.write(s.trim() + "\n");
-                bw.flush();
-
-                while (!br.ready()) {
-                    // wait for results
-                    Thread.yield();
-                }
-                String line;
-
-                while (!(line = br.readLine()).equalsIgnoreCase("")) {
-                    results.add(line);
-                }
-                
-                // Feedback
-                //System.out.printf("\r\t%d/%d", ++counter, splitPairList.size());
-            }
-        } catch (IOException ex) {
-            throw new NejiException("An error occurred while parsing the sentence.", ex);
-        }
+        List<List<String>> parserOutputList = process(text, splitPairList);
 
         int k = 0;
         int startIndex = 0;
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parser;
+
+import opennlp.tools.chunker.ChunkerModel;
+import opennlp.tools.cmdline.postag.POSModelLoader;
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.sentdetect.SentenceModel;
+import opennlp.tools.tokenize.TokenizerModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Registry of the OpenNLP models shared by every {@link OpenNLPParser}.
+ * <p>
+ * OpenNLP models are immutable after being loaded, so each model file is read only once, by the first parser
+ * that needs it, while parsers launched concurrently wait for it. Each parser only creates its own
+ * lightweight tools, which keep the state of the sentence being processed. Launched parsers retain the
+ * registry until they are closed, and contexts retain it while they are initialized, so that parsers closed
+ * and launched again by a context do not reload the models. Models are released when the last user releases
+ * the registry.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class OpenNLPModels {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(OpenNLPModels.class);
+
+    private static final ConcurrentMap<String, Future<Object>> models = new ConcurrentHashMap<>();
+    private static int users = 0;
+
+    private OpenNLPModels() {
+    }
+
+    static SentenceModel getSentenceModel(final String path) throws IOException {
+        return (SentenceModel) get(path, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                try (InputStream is = new FileInputStream(path)) {
+                    return new SentenceModel(is);
+                }
+            }
+        });
+    }
+
+    static TokenizerModel getTokenizerModel(final String path) throws IOException {
+        return (TokenizerModel) get(path, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                try (InputStream is = new FileInputStream(path)) {
+                    return new TokenizerModel(is);
+                }
+            }
+        });
+    }
+
+    static POSModel getPOSModel(final String path) throws IOException {
+        return (POSModel) get(path, new Callable<Object>() {
+            @Override
+            public Object call() {
+                return new POSModelLoader().load(new File(path));
+            }
+        });
+    }
+
+    static ChunkerModel getChunkerModel(final String path) throws IOException {
+        return (ChunkerModel) get(path, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                try (InputStream is = new FileInputStream(path)) {
+                    return new ChunkerModel(is);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the model stored in the specified file, loading it if no other parser did.
+     */
+    private static Object get(final String path, final Callable<Object> loader) throws IOException {
+        Future<Object> future = models.get(path);
+        if (future == null) {
+            FutureTask<Object> task = new FutureTask<>(loader);
+            future = models.putIfAbsent(path, task);
+            if (future == null) {
+                future = task;
+                long start = System.nanoTime();
+                task.run();
+                logger.info("Loaded OpenNLP model {} in {} ms", new File(path).getName(),
+                        (System.nanoTime() - start) / 1000000);
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the OpenNLP model " + path, ex);
+        } catch (ExecutionException ex) {
+            // Allow other parsers to try again
+            models.remove(path, future);
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException("There was a problem loading the OpenNLP model " + path, ex.getCause());
+        }
+    }
+
+    /**
+     * Gets the number of models currently loaded.
+     */
+    static int size() {
+        return models.size();
+    }
+
+    /**
+     * Registers a new user of the loaded models, which are kept until every user releases them.
+     */
+    static synchronized void retain() {
+        users++;
+    }
+
+    /**
+     * Unregisters a user of the loaded models, releasing every model if it was the last one.
+     */
+    static synchronized void release() {
+        if (users > 0 && --users == 0) {
+            models.clear();
+        }
+    }
+}
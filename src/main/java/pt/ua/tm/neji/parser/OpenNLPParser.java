@@ -16,16 +16,12 @@ package pt.ua.tm.neji.parser;
 
 import opennlp.tools.chunker.Chunker;
 import opennlp.tools.chunker.ChunkerME;
-import opennlp.tools.chunker.ChunkerModel;
-import opennlp.tools.cmdline.postag.POSModelLoader;
 import opennlp.tools.postag.POSTagger;
 import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetector;
 import opennlp.tools.sentdetect.SentenceDetectorME;
-import opennlp.tools.sentdetect.SentenceModel;
 import opennlp.tools.tokenize.Tokenizer;
 import opennlp.tools.tokenize.TokenizerME;
-import opennlp.tools.tokenize.TokenizerModel;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
 import org.slf4j.Logger;
@@ -65,6 +61,7 @@ public class OpenNLPParser extends Parser implements AutoCloseable {
     private Tokenizer tokenizer;
     private POSTagger tagger;
     private Chunker chunker;
+    private boolean retainsModels;
 
 
     public OpenNLPParser(final ParserLanguage language,
@@ -109,29 +106,60 @@ public class OpenNLPParser extends Parser implements AutoCloseable {
         if(super.launch() == null)
             return this;
 
-        try(InputStream sentIs = new FileInputStream(languageModelsPath +"sent.bin")) {
-            sdetector = new SentenceDetectorME(new SentenceModel(sentIs));
+        // Models are shared by every parser, and only the tools are created for each one
+        OpenNLPModels.retain();
+        retainsModels = true;
+        try {
+            loadTools();
+        } catch (IOException | RuntimeException ex) {
+            close();
+            throw ex;
+        }
+        return this;
+    }
 
-            if (level.equals(ParserLevel.TOKENIZATION) ||
-                    level.equals(ParserLevel.POS) ||
-                    level.equals(ParserLevel.CHUNKING)) {
-                try (InputStream is = new FileInputStream(languageModelsPath + "token.bin")) {
-                    tokenizer = new TokenizerME(new TokenizerModel(is));
-                }
-            }
+    private void loadTools() throws IOException {
+        sdetector = new SentenceDetectorME(OpenNLPModels.getSentenceModel(languageModelsPath + "sent.bin"));
 
-            if (level.equals(ParserLevel.POS) ||
-                    level.equals(ParserLevel.CHUNKING)) {
-                tagger = new POSTaggerME(new POSModelLoader().load(new File(languageModelsPath + "pos.bin")));
-            }
+        if (level.equals(ParserLevel.TOKENIZATION) ||
+                level.equals(ParserLevel.POS) ||
+                level.equals(ParserLevel.CHUNKING)) {
+            tokenizer = new TokenizerME(OpenNLPModels.getTokenizerModel(languageModelsPath + "token.bin"));
+        }
 
-            if (level.equals(ParserLevel.CHUNKING)) {
-                try (InputStream is = new FileInputStream(languageModelsPath +"chunk.bin")) {
-                    chunker = new ChunkerME(new ChunkerModel(is));
-                }
-            }
-            return this;
+        if (level.equals(ParserLevel.POS) ||
+                level.equals(ParserLevel.CHUNKING)) {
+            tagger = new POSTaggerME(OpenNLPModels.getPOSModel(languageModelsPath + "pos.bin"));
         }
+
+        if (level.equals(ParserLevel.CHUNKING)) {
+            chunker = new ChunkerME(OpenNLPModels.getChunkerModel(languageModelsPath + "chunk.bin"));
+        }
+    }
+
+    /**
+     * Retains the OpenNLP models shared by the parsers, which are kept loaded until every call is matched by a
+     * call to {@link #releaseModels()}, even if no parser is launched. Otherwise, models are released when the
+     * last launched parser is closed.
+     */
+    public static void retainModels() {
+        OpenNLPModels.retain();
+    }
+
+    /**
+     * Releases the OpenNLP models shared by the parsers. When no one else retains them, including launched
+     * parsers, they are loaded again by the next parser to be launched.
+     */
+    public static void releaseModels() {
+        OpenNLPModels.release();
+    }
+
+    /**
+     * Gets the number of OpenNLP models currently loaded and shared by the parsers.
+     * @return the number of loaded models
+     */
+    public static int getNumLoadedModels() {
+        return OpenNLPModels.size();
     }
 
 
@@ -145,6 +173,10 @@ public class OpenNLPParser extends Parser implements AutoCloseable {
         tokenizer = null;
         tagger = null;
         chunker = null;
+        if (retainsModels) {
+            retainsModels = false;
+            OpenNLPModels.release();
+        }
         System.gc();
     }
 
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parser;
+
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.core.corpus.Token;
+import pt.ua.tm.neji.core.parser.Parser;
+import pt.ua.tm.neji.core.parser.ParserLanguage;
+import pt.ua.tm.neji.core.parser.ParserLevel;
+import pt.ua.tm.neji.core.parser.ParserTool;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.sentencesplitter.SentenceSplitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser that only performs tokenization, in the calling thread, following the tokenization rules of GDep.
+ * <p>
+ * Texts are split into sentences by the same sentence splitter used with GDep, and tokens have the same
+ * boundaries as the ones of GDep with the <code>-tok</code> option: ASCII punctuation, including hyphens,
+ * slashes and periods, is separated from words, while letters, digits and any other characters are kept
+ * together. Unlike GDep, quotes keep their original text and text after line breaks is also tokenized.
+ * Since no external process is used, dictionary-only pipelines do not pay for launching GDep or for sending
+ * each sentence to it.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class TokenizerParser extends Parser {
+
+    /**
+     * Clitics separated from the previous word, as in "it 's".
+     */
+    private static final String[] CLITICS = {"'s", "'m", "'d", "'ll", "'re", "'ve"};
+
+    private final SentenceSplitter splitter;
+    private final boolean doWhiteSpaceTokenization;
+
+    public TokenizerParser(final ParserLanguage language,
+                           final ParserLevel level,
+                           final SentenceSplitter splitter,
+                           final boolean doWhiteSpaceTokenization) throws NejiException {
+        super(ParserTool.TOKENIZER, language, level); // validates specified options
+        this.splitter = splitter;
+        this.doWhiteSpaceTokenization = doWhiteSpaceTokenization;
+    }
+
+    @Override
+    public List<Sentence> parse(Corpus corpus, String text) throws NejiException {
+        return parseWithLevel_(level, corpus, text);
+    }
+
+    @Override
+    protected List<Sentence> parseWithLevel_(ParserLevel parserLevel, Corpus corpus, String text) throws NejiException {
+        List<Sentence> _LIST = new ArrayList<>();
+        if (!isLaunched()) {
+            return null;
+        }
+
+        int startIndex = 0;
+        for (int[] split : splitter.split(text)) {
+            int start = split[0];
+            int end = split[1];
+            Sentence sentence = new Sentence(corpus);
+
+            // Set sentence indexes
+            sentence.setStart(start);
+            sentence.setEnd(end);
+
+            // Set sentence original start index, including spaces or tabs before it
+            int index = start;
+            while (index > startIndex && (text.charAt(index - 1) == ' ' || text.charAt(index - 1) == '\t')) {
+                index--;
+            }
+            sentence.setOriginalStart(index);
+
+            // Set sentence original end index, including spaces or tabs finishing with 1 or more \n after it
+            int originalEnd = -1;
+            for (index = end; index < text.length(); index++) {
+                if (text.charAt(index) == '\n') {
+                    originalEnd = index;
+                } else if (text.charAt(index) != ' ' && text.charAt(index) != '\t') {
+                    break;
+                }
+            }
+            startIndex = originalEnd != -1 ? originalEnd + 1 : end;
+            sentence.setOriginalEnd(startIndex);
+
+            tokenize(sentence, text, start, end);
+            corpus.addSentence(sentence);
+            _LIST.add(sentence);
+        }
+
+        return _LIST;
+    }
+
+    /**
+     * Adds the tokens of the sentence in the specified region of the text, with indexes relative to its start.
+     */
+    private void tokenize(final Sentence sentence, final String text, final int start, final int end) {
+        int counter = 0;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            int tokenEnd;
+            if (doWhiteSpaceTokenization) {
+                tokenEnd = i + 1;
+                while (tokenEnd < end && !Character.isWhitespace(text.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+            } else if (isPunctuation(c)) {
+                tokenEnd = punctuationEnd(text, i, end);
+            } else if (i > start && Character.isLetter(text.charAt(i - 1)) && isContraction(text, i, end, "n't")) {
+                tokenEnd = i + 3;
+            } else {
+                tokenEnd = i + 1;
+                while (tokenEnd < end && !Character.isWhitespace(text.charAt(tokenEnd))
+                        && !isPunctuation(text.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+                // Negative contractions are separated from the word, as in "do n't"
+                if (tokenEnd - i > 1 && isContraction(text, tokenEnd - 1, end, "n't")) {
+                    tokenEnd--;
+                }
+            }
+
+            sentence.addToken(new Token(sentence, i - start, tokenEnd - start - 1, counter++));
+            i = tokenEnd;
+        }
+    }
+
+    /**
+     * Gets the end of the punctuation token that starts at the specified position.
+     */
+    private static int punctuationEnd(final String text, final int i, final int end) {
+        char c = text.charAt(i);
+        switch (c) {
+            case '.':
+                // Ellipsis
+                if (i + 2 < end && text.charAt(i + 1) == '.' && text.charAt(i + 2) == '.') {
+                    return i + 3;
+                }
+                return i + 1;
+            case '-':
+                // Dashes, such as "--"
+                int j = i + 1;
+                while (j < end && text.charAt(j) == '-') {
+                    j++;
+                }
+                return j;
+            case '\'':
+                // Clitics, such as "'s" or "'ll"
+                if (i > 0 && Character.isLetter(text.charAt(i - 1))) {
+                    for (String clitic : CLITICS) {
+                        if (isContraction(text, i, end, clitic)) {
+                            return i + clitic.length();
+                        }
+                    }
+                }
+                return i + 1;
+            default:
+                return i + 1;
+        }
+    }
+
+    /**
+     * Checks if the specified contraction, ignoring case, starts at the specified position and ends a word.
+     */
+    private static boolean isContraction(final String text, final int i, final int end, final String contraction) {
+        int e = i + contraction.length();
+        if (e > end || !text.regionMatches(true, i, contraction, 0, contraction.length())) {
+            return false;
+        }
+        return e == end || !Character.isLetterOrDigit(text.charAt(e));
+    }
+
+    /**
+     * Checks if the specified character is punctuation separated from words by GDep. Other characters, such as
+     * "=", "+" or non-ASCII symbols, are kept in the words.
+     */
+    private static boolean isPunctuation(final char c) {
+        switch (c) {
+            case '.': case ',': case ';': case ':': case '?': case '!':
+            case '(': case ')': case '[': case ']': case '{': case '}': case '<': case '>':
+            case '-': case '/': case '@': case '#': case '$': case '%': case '&':
+            case '"': case '\'': case '`':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parser.gdep;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelined connection to the GDep process, which sends every sentence of a text without waiting for the
+ * replies to the previous ones.
+ * <p>
+ * Sentences are written to the process by a writer thread, which flushes the output once no more sentences
+ * are pending. A reader thread splits the output of the process into replies, delimited by blank lines,
+ * and stores them in a bounded queue. Both threads block on their streams or queues, so no core is spent
+ * while waiting for the process. The threads live as long as the connection, since piped streams consider
+ * the pipe broken once the last thread that used one of its ends terminates.
+ * <p>
+ * A connection must only be used by one thread at a time.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class GDepPipeline implements AutoCloseable {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(GDepPipeline.class);
+
+    /**
+     * Maximum number of replies read from the process and not yet consumed.
+     */
+    private static final int MAX_PENDING_REPLIES = 64;
+
+    /**
+     * Reply stored by the reader thread when the process output ends or fails.
+     */
+    private static final List<String> CLOSED = new ArrayList<>(0);
+
+    private final Writer writer;
+    private final BufferedReader reader;
+    private final BlockingQueue<String> requests;
+    private final BlockingQueue<List<String>> replies;
+    private final Thread writerThread;
+    private final Thread readerThread;
+    private volatile IOException failure;
+    private int pending;
+
+    // Statistics
+    private volatile long numSentences;
+    private volatile long numTexts;
+    private volatile long latency;
+    private volatile long elapsed;
+
+    /**
+     * Constructor, which starts the writer and reader threads.
+     * @param name the name of the connection, used to name the threads
+     * @param writer the input of the process
+     * @param reader the output of the process
+     */
+    public GDepPipeline(final String name, final Writer writer, final BufferedReader reader) {
+        this.writer = writer;
+        this.reader = reader;
+        this.requests = new LinkedBlockingQueue<>();
+        this.replies = new ArrayBlockingQueue<>(MAX_PENDING_REPLIES);
+        this.pending = 0;
+
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, name + "-writer");
+        this.readerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                read();
+            }
+        }, name + "-reader");
+        writerThread.setDaemon(true);
+        readerThread.setDaemon(true);
+        writerThread.start();
+        readerThread.start();
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                String sentence = requests.take();
+                writer.write(sentence);
+                writer.write('\n');
+                if (requests.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Connection closed
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    private void read() {
+        try {
+            List<String> reply = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    replies.put(reply);
+                    reply = new ArrayList<>();
+                } else {
+                    reply.add(line);
+                }
+            }
+            fail(new IOException("The output of the GDep process has ended."));
+        } catch (InterruptedException | InterruptedIOException ex) {
+            // Connection closed
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    private void fail(final IOException ex) {
+        if (failure == null) {
+            failure = ex;
+        }
+        replies.offer(CLOSED);
+    }
+
+    /**
+     * Sends the specified sentences to the process and waits for the replies to all of them.
+     * @param sentences the sentences, one per line
+     * @return the lines of the reply to each sentence
+     * @throws IOException if there was a problem communicating with the process, or if interrupted
+     */
+    public List<List<String>> parse(final List<String> sentences) throws IOException {
+        long start = System.nanoTime();
+        try {
+            // Discard the replies to sentences of an interrupted call
+            for (; pending > 0; pending--) {
+                take();
+            }
+
+            long[] sent = new long[sentences.size()];
+            for (int i = 0; i < sentences.size(); i++) {
+                sent[i] = System.nanoTime();
+                requests.add(sentences.get(i));
+                pending++;
+            }
+
+            List<List<String>> result = new ArrayList<>(sentences.size());
+            long wait = 0;
+            for (int i = 0; i < sentences.size(); i++) {
+                result.add(take());
+                pending--;
+                wait += System.nanoTime() - sent[i];
+            }
+
+            numSentences += sentences.size();
+            latency += wait;
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the GDep process.");
+        } finally {
+            numTexts++;
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    private List<String> take() throws InterruptedException, IOException {
+        List<String> reply;
+        do {
+            // The failure is checked periodically, in case the queue was full when it happened
+            reply = replies.poll(1, TimeUnit.SECONDS);
+            if (reply == CLOSED || (reply == null && failure != null)) {
+                replies.offer(CLOSED);
+                throw failure;
+            }
+        } while (reply == null);
+        return reply;
+    }
+
+    /**
+     * Checks if the communication with the process is still working.
+     * @return <code>true</code> if no problem reading or writing the process streams occurred,
+     * <code>false</code> otherwise
+     */
+    public boolean isHealthy() {
+        return failure == null;
+    }
+
+    /**
+     * Gets the number of sentences parsed.
+     * @return the number of sentences
+     */
+    public long getNumSentences() {
+        return numSentences;
+    }
+
+    /**
+     * Gets the number of texts parsed, each one with several sentences sent at once.
+     * @return the number of texts
+     */
+    public long getNumTexts() {
+        return numTexts;
+    }
+
+    /**
+     * Gets the average time between sending a sentence and receiving its reply.
+     * @return the average latency in milliseconds
+     */
+    public double getAverageLatency() {
+        long n = numSentences;
+        return n == 0 ? 0 : latency / 1e6 / n;
+    }
+
+    /**
+     * Gets the number of sentences parsed per second spent parsing.
+     * @return the throughput in sentences per second
+     */
+    public double getThroughput() {
+        long time = elapsed;
+        return time == 0 ? 0 : numSentences * 1e9 / time;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sentences in %d texts, %.2f ms average latency, %.1f sentences/s",
+                getNumSentences(), getNumTexts(), getAverageLatency(), getThroughput());
+    }
+
+    /**
+     * Stops the writer and reader threads. The streams are not closed.
+     */
+    @Override
+    public void close() {
+        writerThread.interrupt();
+        readerThread.interrupt();
+        try {
+            writerThread.join(1000);
+            readerThread.join(1000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        logger.debug("Closed GDep pipeline: {}", this);
+    }
+}
@@ -116,6 +116,14 @@ public class ProcessConnector {
 //        });
     }
 
+    /**
+     * Checks if the external program is still running.
+     * @return <code>true</code> if the process was created and did not terminate, <code>false</code> otherwise
+     */
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
     /**
      * Kill.
      */
@@ -76,6 +76,12 @@ public class DefaultPipeline extends BasePipeline {
 
     private static Logger logger = LoggerFactory.getLogger(DefaultPipeline.class);
 
+    /**
+     * Automaton that copies its input to the output, used to feed the first module and to
+     * clone the processed output for multiple writers.
+     */
+    private static Dfa copyDfa = null;
+
     public DefaultPipeline() {
         super();
         setValidator(new DefaultPipelineValidator(this));
@@ -155,8 +161,7 @@ public class DefaultPipeline extends BasePipeline {
             return;
         }
         try {
-            final Nfa nfa = new Nfa(Nfa.NOTHING);
-            DfaRun previous = nfa.compile(DfaRun.UNMATCHED_COPY).createRun();
+            DfaRun previous = getCopyDfa().createRun();
             DfaRun inside;
 
             // sets in the specified InputStream
@@ -207,7 +212,7 @@ public class DefaultPipeline extends BasePipeline {
                     if (i < outputList.size()) {
 
                         // converts the last module's output into a new DfaRun
-                        DfaRun newDfa = nfa.compile(DfaRun.UNMATCHED_COPY).createRun();
+                        DfaRun newDfa = getCopyDfa().createRun();
                         newDfa.setIn(new CharSequenceCharSource(sb.toString()));
 
                         // processes the Writer "w" from writerList in the new DfaRun
@@ -235,6 +240,13 @@ public class DefaultPipeline extends BasePipeline {
         }
     }
 
+    private static synchronized Dfa getCopyDfa() throws CompileDfaException {
+        if (copyDfa == null) {
+            copyDfa = new Nfa(Nfa.NOTHING).compile(DfaRun.UNMATCHED_COPY);
+        }
+        return copyDfa;
+    }
+
     private void filterOutput(OutputStream out, DfaRun previous) throws IOException {
         PrintStream ps = new PrintStream(out, false, "UTF-8");
         previous.filter(ps);
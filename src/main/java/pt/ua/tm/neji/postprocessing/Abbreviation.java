@@ -27,6 +27,7 @@ import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.module.BaseLoader;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
@@ -48,6 +49,7 @@ import java.util.regex.Pattern;
  */
 @Requires({Resource.Tokens})
 @Provides({Resource.Annotations})
+@Resettable
 public class Abbreviation extends BaseLoader {
     private static Logger logger = LoggerFactory.getLogger(Abbreviation.class);
     private ExtractAbbreviations extractor;
@@ -148,6 +150,13 @@ public class Abbreviation extends BaseLoader {
         this.added = new HashMap<>();
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.abbreviationPairs = new HashMap<>();
+        this.added = new HashMap<>();
+    }
+
 //    public Abbreviation(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
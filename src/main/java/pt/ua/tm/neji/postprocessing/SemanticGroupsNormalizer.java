@@ -23,6 +23,7 @@ import pt.ua.tm.neji.core.module.BaseLoader;
 import pt.ua.tm.neji.core.module.BaseModule;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
@@ -33,6 +34,7 @@ import pt.ua.tm.neji.tree.Tree;
  */
 @Requires({})
 @Provides({Resource.Annotations})
+@Resettable
 public class SemanticGroupsNormalizer extends BaseLoader {
     
     /**
@@ -19,10 +19,13 @@ import org.apache.commons.lang.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.context.Context;
-import pt.ua.tm.neji.context.ContextProcessors;
+import pt.ua.tm.neji.context.PipelinePool;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.core.processor.BaseProcessor;
+import pt.ua.tm.neji.dictionary.Dictionary;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.exception.ParserTimeoutException;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
 import pt.ua.tm.neji.processor.filewrappers.InputFile;
 import pt.ua.tm.neji.processor.filewrappers.OutputFile;
@@ -73,12 +76,22 @@ public class FileProcessor extends BaseProcessor {
     @Override
     public void run() {
 
-        // Get context and processors
+        // Get context and pipeline, or processors to assemble a new one
         Context context = getContext();
-        ContextProcessors cp;
+        PipelinePool pool = context.getPipelinePool();
+        // Use the same dictionaries for the key and the modules, even if they are swapped meanwhile
+        List<Dictionary> dictionaries = context.getDictionaries();
+        Object key = getPipelineKey(dictionaries, context.getModels(),
+                null, null, xmlTags, addAnnotationsWithoutIDs);
+        PipelinePool.Entry entry;
         try {
-            cp = context.take();
-        } catch (InterruptedException ex) {
+            entry = pool.take(key);
+        } catch (ParserTimeoutException ex) {
+            // The file is reported as failed, and the remaining files are still processed
+            String m = "No parser was available to process the stream with the identifier "
+                    + getInputFile().getCorpus().getIdentifier() + ": " + ex.getMessage();
+            throw new RuntimeException(m, ex);
+        } catch (InterruptedException | NejiException ex) {
             String m = "There was a problem getting the context processors. Stream with the identifier "
                     + getInputFile().getCorpus().getIdentifier();
             throw new RuntimeException(m, ex);
@@ -89,10 +102,16 @@ public class FileProcessor extends BaseProcessor {
             // Get corpus
             Corpus corpus = getInputFile().getCorpus();
 
-            // Create Pipeline
-            Pipeline p = new DefaultPipeline(corpus);
-            instantiateModules(context.getDictionaries(), context.getModels(), 
-                    cp, context, p, xmlTags, addAnnotationsWithoutIDs);
+            // Reuse pipeline or create a new one
+            Pipeline p = entry.getPipeline();
+            if (p != null) {
+                p.reset(corpus);
+            } else {
+                p = new DefaultPipeline(corpus);
+                instantiateModules(dictionaries, context.getModels(),
+                        entry.getProcessors(), context, p, xmlTags, addAnnotationsWithoutIDs);
+                entry.setPipeline(p);
+            }
 
             if (!context.getConfiguration().getOutputFormats().isEmpty()) {
 //                p.add(new TextReplacer("&lt;§", "&lt;s"));
@@ -108,15 +127,14 @@ public class FileProcessor extends BaseProcessor {
                 logger.warn("Discarding processed output for file.");
             }
 
-            // Return processors
-            context.put(cp);
-            p.clear();
+            // Return pipeline and processors
+            pool.put(entry);
 
         } catch (Exception ex) {
 
             // Return context processors to context
             try {
-                context.put(cp);
+                pool.discard(entry);
             } catch (InterruptedException e) {
                 String m = "There was a problem returning the context processors. Stream with the identifier "
                         + getInputFile().getCorpus().getIdentifier();
@@ -38,6 +38,7 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.DynamicNLP;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -51,6 +52,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @version 1.0
  */
 @Provides({Resource.Passages, Resource.Sentences, Resource.DynamicNLP, Resource.Annotations, Resource.Relations})
+@Resettable
 public class BioCReader extends BaseReader implements DynamicNLP {
 
     private static Logger logger = LoggerFactory.getLogger(BioCReader.class);
@@ -71,6 +73,12 @@ public class BioCReader extends BaseReader implements DynamicNLP {
         this.customLevel = customLevel;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        processedSentences.clear();
+    }
+
     private DefaultAction text_action = new DefaultAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
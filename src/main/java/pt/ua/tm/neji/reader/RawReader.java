@@ -22,6 +22,7 @@ import pt.ua.tm.neji.context.InputFormat;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -34,6 +35,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @since 1.0
  */
 @Provides({Resource.Passages})
+@Resettable
 public class RawReader extends BaseReader {
 
     private static Logger logger = LoggerFactory.getLogger(RawReader.class);
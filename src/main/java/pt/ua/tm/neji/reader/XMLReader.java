@@ -23,6 +23,7 @@ import pt.ua.tm.neji.context.InputFormat;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -35,6 +36,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @since 1.0
  */
 @Provides({Resource.Passages, Resource.Tags})
+@Resettable
 public class XMLReader extends BaseReader {
 
     private static Logger logger = LoggerFactory.getLogger(XMLReader.class);
@@ -49,6 +51,13 @@ public class XMLReader extends BaseReader {
         originalTextSb = new StringBuilder();
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        startText = 0;
+        originalTextSb = new StringBuilder();
+    }
+
     private StartAction start_action = new StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.module.BaseTagger;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.exception.NejiException;
@@ -40,6 +41,7 @@ import java.util.List;
  */
 @Requires({Resource.Passages})
 @Provides({Resource.Sentences})
+@Resettable
 public class SentenceTagger extends BaseTagger {
 
     /**
@@ -89,6 +91,18 @@ public class SentenceTagger extends BaseTagger {
         pipeline.storeModuleData("sentencesPositionsList", sentencesPositions);
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        startText = 0;
+        startTag = 0;
+        inText = false;
+        sentenceCounter = 0;
+        sentencesOffset = 0;
+        sentencesPositions.clear();
+        getPipeline().storeModuleData("sentencesPositionsList", sentencesPositions);
+    }
+
     private Action start_text = new StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -23,6 +23,7 @@ import pt.ua.tm.neji.core.annotation.Identifier;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseLoader;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
 import pt.ua.tm.neji.tree.TreeNode;
@@ -35,6 +36,7 @@ import java.util.List;
  * @version 1.0
  * @since 1.0
  */
+@Resettable
 public class StatisticsCollector extends BaseLoader {
 
     private int sentenceCounter;
@@ -45,6 +47,12 @@ public class StatisticsCollector extends BaseLoader {
         this.sentenceCounter = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.sentenceCounter = 0;
+    }
+
 //    public StatisticsCollector(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
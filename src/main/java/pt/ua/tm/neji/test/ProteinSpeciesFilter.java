@@ -24,12 +24,14 @@ import pt.ua.tm.neji.core.annotation.Identifier;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseLoader;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
 import pt.ua.tm.neji.tree.TreeNode;
 
 import java.util.*;
 
+@Resettable
 public class ProteinSpeciesFilter extends BaseLoader {
 
     private String proteinGroup, speciesGroup;
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.train.cli;
+
+import cc.mallet.fst.CRF;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.GnuParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.train.model.BinaryModelReader;
+import pt.ua.tm.neji.train.model.BinaryModelWriter;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts serialized CRF models, compressed or not, into the memory-mapped binary format.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ConvertModelMain {
+
+    /**
+     * Help Messages.
+     */
+    private static final String HEADER = "\nNeji: modular biomedical concept recognition made easy, fast and accessible.";
+    private static final String USAGE
+            = "-i <file> "
+            + "-o <file>";
+    private static final String EXAMPLES = "\nUsage example:\n"
+            + "1: "
+            + "./nejiConvertModel.sh -i resources/models/prge/prge.gz -o resources/models/prge/prge.bin\n";
+    private static final String FOOTER = "For more instructions, please visit http://bioinformatics.ua.pt/neji.";
+
+    /**
+     * {@link org.slf4j.Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(ConvertModelMain.class);
+
+    /**
+     * Print help message of the program.
+     *
+     * @param options Command line arguments.
+     * @param msg Message to be displayed.
+     */
+    private static void printHelp(final Options options, final String msg) {
+        if (msg.length() != 0) {
+            logger.error(msg);
+        }
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp(150, "./nejiConvertModel.sh " + USAGE, HEADER, options, EXAMPLES + FOOTER);
+    }
+
+    public static void main(String[] args) {
+
+        CommandLineParser parser = new GnuParser();
+        Options options = new Options();
+        options.addOption("h", "help", false, "Print this usage information.");
+
+        options.addOption("i", "input", true, "Serialized model file, compressed with GZip or not.");
+        options.addOption("o", "output", true, "File to save the binary model.");
+
+        CommandLine commandLine = null;
+        try {
+            // Parse the program arguments
+            commandLine = parser.parse(options, args);
+        } catch (ParseException ex) {
+            logger.error("There was a problem processing the input arguments.", ex);
+            return;
+        }
+
+        // Show help text
+        if (commandLine.hasOption('h') || commandLine.getOptions().length == 0) {
+            printHelp(options, "");
+            return;
+        }
+
+        // Get input model
+        File input;
+        if (commandLine.hasOption('i')) {
+            input = new File(commandLine.getOptionValue('i'));
+            if (!input.isFile() || !input.canRead()) {
+                logger.error("The specified input model is not a file or is not readable.");
+                return;
+            }
+        } else {
+            printHelp(options, "Please specify the input model.");
+            return;
+        }
+
+        // Get output file
+        File output;
+        if (commandLine.hasOption('o')) {
+            output = new File(commandLine.getOptionValue('o'));
+            if (output.isDirectory()) {
+                logger.error("The specified output path is a folder.");
+                return;
+            }
+        } else {
+            printHelp(options, "Please specify the output file.");
+            return;
+        }
+
+        try {
+            if (BinaryModelReader.isBinaryModel(input)) {
+                logger.error("The specified input model is already in the binary format.");
+                return;
+            }
+
+            logger.info("Loading model...");
+            CRF crf = read(input);
+            BinaryModelWriter.write(crf, output);
+            logger.info("Done. Set \"file={}\" in the model properties to use the binary model.", output.getName());
+        } catch (IOException | ClassNotFoundException | NejiException ex) {
+            logger.error("There was a problem converting the model.", ex);
+        }
+    }
+
+    /**
+     * Reads a serialized model, detecting if the file is compressed with GZip.
+     */
+    private static CRF read(final File file) throws IOException, ClassNotFoundException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            in = new GZIPInputStream(in);
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(in)) {
+            return (CRF) ois.readObject();
+        }
+    }
+}
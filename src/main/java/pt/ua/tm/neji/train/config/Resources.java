@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.train.external.snowball.EnglishStemmer;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.train.dictionary.DictionaryAux;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
 
 /**
  * Access external resources, such as dictionaries, tokeniser and stemming
@@ -53,6 +54,20 @@ public class Resources {
      */
     private static Properties properties = null;
     private static Pattern stopwords = null;
+    private static StopwordSet stopwordSet = null;
+
+    /**
+     * Gets the stopwords, which are loaded once and shared by every dictionary module.
+     *
+     * @return the stopwords
+     * @throws NejiException if there was a problem reading the stopwords
+     */
+    public static synchronized StopwordSet getStopwords() throws NejiException {
+        if (stopwordSet == null) {
+            stopwordSet = StopwordSet.load(Resources.getResource("stopwords"));
+        }
+        return stopwordSet;
+    }
 
     public static Pattern getStopwordsPattern() throws FileNotFoundException, NejiException {
         if (stopwords == null) {
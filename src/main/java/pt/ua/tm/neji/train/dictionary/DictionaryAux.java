@@ -22,7 +22,6 @@ package pt.ua.tm.neji.train.dictionary;
 import java.io.*;
 import java.util.Hashtable;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +33,7 @@ import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.train.config.Resources;
 import pt.ua.tm.neji.train.tokenise.Tokenizer;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
 
 /**
  *
@@ -158,12 +158,12 @@ public class DictionaryAux {
         assert ( fileIn != null );
         assert ( fileOut != null );
 
-        Pattern stopwords;
+        StopwordSet stopwords;
         try {
-            stopwords = Resources.getStopwordsPattern();
+            stopwords = Resources.getStopwords();
         }
         catch (Exception ex) {
-            logger.error("There was a problem loading the stopwords pattern.", ex);
+            logger.error("There was a problem loading the stopwords.", ex);
             return;
         }
 
@@ -180,7 +180,6 @@ public class DictionaryAux {
             BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(fileIn)));
             String line;
             String[] tokens;
-            Matcher m;
             while (( line = br.readLine() ) != null) {
                 tokens = tokenizer.tokenize(line);
 
@@ -188,8 +187,7 @@ public class DictionaryAux {
                     out.write(printEntry(tokens).getBytes());
                     out.write("\n".getBytes());
                 } else {
-                    m = stopwords.matcher(tokens[0].trim());
-                    if (!m.matches() && tokens[0].length() > 2) {
+                    if (!stopwords.contains(tokens[0].trim()) && tokens[0].length() > 2) {
                         out.write(printEntry(tokens).getBytes());
                         out.write("\n".getBytes());
                     } else {
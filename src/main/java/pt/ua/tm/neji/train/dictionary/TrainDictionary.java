@@ -79,8 +79,7 @@ public class TrainDictionary extends BaseHybrid {
             
             List<Mention> mentions = dictionary.getMatcher().match(sentenceText);
 
-            List<Mention> toRemove = dictionaryMatching.removeList(mentions);
-            mentions.removeAll(toRemove);
+            dictionaryMatching.removeOverlaps(mentions);
             
             // Add annotations
             for (Mention m : mentions) {
@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package pt.ua.tm.neji.train.features.mallet;
+
+import cc.mallet.pipe.Pipe;
+import cc.mallet.pipe.SerialPipes;
+import cc.mallet.pipe.tsf.RegexMatches;
+import cc.mallet.types.Instance;
+import cc.mallet.types.Token;
+import cc.mallet.types.TokenSequence;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Replace a sequence of character-class and shape feature pipes ({@link RegexMatches}, {@link MixCase},
+ * {@link NumberOfCap}, {@link NumberOfDigit}, {@link WordLength} and {@link WordShape}) by a single pipe, which
+ * scans the characters of each token once and adds exactly the same features, in the same order.
+ * <p>
+ * Regular expressions with a known shape, such as <code>.*[-].*</code> or <code>[A-Z]+</code>, are evaluated from
+ * the characters collected in that scan, while any other regular expression is still matched against the token.
+ *
+ * (<a href="mailto:david.campos@ua.pt">david.campos@ua.pt</a>)
+ * @version 1.0
+ * @since 2.0
+ */
+public class FeaturePipe extends Pipe implements Serializable {
+
+    /**
+     * The pipes replaced by this one.
+     */
+    private ArrayList<Pipe> pipes;
+    private transient List<Feature> features;
+    private transient boolean shapes;
+
+    /**
+     * Constructor.
+     * @param pipes The pipes to be replaced, which must be supported according to {@link #isSupported(Pipe)}.
+     */
+    public FeaturePipe(final List<Pipe> pipes) {
+        this.pipes = new ArrayList<>(pipes);
+        compileFeatures();
+    }
+
+    /**
+     * Check if a pipe can be replaced by a {@link FeaturePipe}.
+     * @param pipe The pipe to check.
+     * @return <code>true</code> if the pipe can be replaced, <code>false</code> otherwise.
+     */
+    public static boolean isSupported(final Pipe pipe) {
+        Class<?> cls = pipe.getClass();
+        if (cls == RegexMatches.class) {
+            return getField(pipe, "regex") != null && getField(pipe, "feature") != null;
+        }
+        return cls == MixCase.class || cls == NumberOfCap.class || cls == NumberOfDigit.class
+                || cls == WordLength.class || cls == WordShape.class;
+    }
+
+    /**
+     * Replace, in place, every sequence of supported pipes of a {@link SerialPipes} by a {@link FeaturePipe}.
+     * Used to speed up the feature extraction of models loaded from file, keeping the features expected by them.
+     * @param pipe The pipe of the model.
+     */
+    public static void compile(final Pipe pipe) {
+        if (!(pipe instanceof SerialPipes)) {
+            return;
+        }
+
+        List<Pipe> current = ((SerialPipes) pipe).pipes();
+        List<Pipe> compiled = new ArrayList<>();
+        List<Pipe> sequence = new ArrayList<>();
+        for (Pipe p : current) {
+            if (isSupported(p)) {
+                sequence.add(p);
+            } else {
+                addSequence(compiled, sequence);
+                compiled.add(p);
+            }
+        }
+        addSequence(compiled, sequence);
+
+        current.clear();
+        current.addAll(compiled);
+    }
+
+    private static void addSequence(final List<Pipe> compiled, final List<Pipe> sequence) {
+        if (sequence.size() > 1) {
+            compiled.add(new FeaturePipe(sequence));
+        } else {
+            compiled.addAll(sequence);
+        }
+        sequence.clear();
+    }
+
+    /**
+     * Process each sentence to add the features if necessary.
+     * @param carrier Instance to be processed.
+     * @return Instance with new features.
+     */
+    @Override
+    public Instance pipe(Instance carrier) {
+        TokenSequence ts = (TokenSequence) carrier.getData();
+
+        for (int i = 0; i < ts.size(); i++) {
+            Token t = ts.get(i);
+            String s = t.getText();
+
+            // Same text variation used by RegexMatches: ([a-z]+), ([a-z]+, [a-z]+), [a-z]+.
+            String conS = s;
+            if (conS.startsWith("("))
+                conS = conS.substring(1);
+            if (conS.endsWith(")") || conS.endsWith("."))
+                conS = conS.substring(0, conS.length() - 1);
+
+            Profile text = new Profile(s, shapes);
+            Profile conText = conS.equals(s) ? null : new Profile(conS, false);
+
+            for (Feature f : features) {
+                f.apply(t, text, conText);
+            }
+        }
+        return carrier;
+    }
+
+    private void compileFeatures() {
+        this.features = new ArrayList<>();
+        this.shapes = false;
+
+        for (Pipe p : pipes) {
+            if (p instanceof RegexMatches) {
+                features.add(new RegexFeature((String) getField(p, "feature"), (Pattern) getField(p, "regex")));
+            } else if (p instanceof MixCase) {
+                features.add(new MixCaseFeature());
+            } else if (p instanceof NumberOfCap) {
+                features.add(new NumberOfCapFeature());
+            } else if (p instanceof NumberOfDigit) {
+                features.add(new NumberOfDigitFeature());
+            } else if (p instanceof WordLength) {
+                features.add(new WordLengthFeature());
+            } else if (p instanceof WordShape) {
+                features.add(new WordShapeFeature());
+                shapes = true;
+            } else {
+                throw new IllegalArgumentException("Unsupported feature pipe: " + p.getClass().getName());
+            }
+        }
+    }
+
+    private static Object getField(final Pipe pipe, final String name) {
+        try {
+            Field field = pipe.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(pipe);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Characters information of a token text, collected in a single scan.
+     */
+    private static final class Profile {
+        private final String text;
+        private final int length;
+        private long ascii, extendedAscii;
+        private boolean lineTerminator, upperAZ, lowerAZ, hasLow;
+        private int numCap, numDigit;
+        private String shapeI, shapeII, shapeIII;
+
+        private Profile(final String text, final boolean shapes) {
+            this.text = text;
+            this.length = text.length();
+            this.upperAZ = true;
+            this.lowerAZ = true;
+
+            StringBuilder typeI = shapes ? new StringBuilder(length) : null;
+            StringBuilder typeII = shapes ? new StringBuilder() : null;
+            StringBuilder typeIII = shapes ? new StringBuilder(length) : null;
+            boolean isDigitI = false;
+            int prev = -1;
+            int current;
+
+            for (int k = 0; k < length; k++) {
+                char c = text.charAt(k);
+
+                if (c < 64) {
+                    ascii |= 1L << c;
+                } else if (c < 128) {
+                    extendedAscii |= 1L << (c - 64);
+                }
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    lineTerminator = true;
+                }
+                if (c < 'A' || c > 'Z') {
+                    upperAZ = false;
+                }
+                if (c < 'a' || c > 'z') {
+                    lowerAZ = false;
+                }
+
+                boolean isUpper = Character.isUpperCase(c);
+                boolean isLower = Character.isLowerCase(c);
+                boolean isDigit = Character.isDigit(c);
+                if (isUpper) {
+                    numCap++;
+                }
+                if (isLower) {
+                    hasLow = true;
+                }
+                if (isDigit) {
+                    numDigit++;
+                }
+
+                if (!shapes) {
+                    continue;
+                }
+
+                // Word Shape Type I
+                if (isDigit) {
+                    if (k == length - 1) {
+                        typeI.append('*');
+                    } else {
+                        isDigitI = true;
+                    }
+                } else {
+                    if (isDigitI) {
+                        typeI.append('*');
+                        isDigitI = false;
+                    }
+                    typeI.append(c);
+                }
+
+                // Word Shape Type II
+                boolean isLetter = Character.isLetter(c);
+                if (isDigit) {
+                    current = 0;
+                } else if (isLetter) {
+                    current = 1;
+                } else {
+                    current = 2;
+                }
+                if ((k == length - 1) && (prev == current)) {
+                    typeII.append(shapeChar(current));
+                }
+                if ((prev != current) && (prev != -1)) {
+                    typeII.append(shapeChar(prev));
+                    if (k == length - 1) {
+                        typeII.append(shapeChar(current));
+                    }
+                }
+                prev = current;
+
+                // Word Shape Type III
+                if (isLetter) {
+                    if (isUpper) {
+                        typeIII.append('A');
+                    } else if (isLower) {
+                        typeIII.append('a');
+                    }
+                } else if (isDigit) {
+                    typeIII.append('1');
+                } else {
+                    typeIII.append('#');
+                }
+            }
+
+            if (shapes) {
+                this.shapeI = typeI.toString();
+                this.shapeII = typeII.toString();
+                this.shapeIII = typeIII.toString();
+            }
+        }
+
+        private boolean contains(final char c) {
+            return c < 64 ? (ascii & (1L << c)) != 0 : (extendedAscii & (1L << (c - 64))) != 0;
+        }
+
+        private static char shapeChar(final int n) {
+            if (n == 0) {
+                return '*';
+            }
+            if (n == 1) {
+                return 'a';
+            }
+            return '#';
+        }
+    }
+
+    private abstract static class Feature {
+        abstract void apply(Token t, Profile text, Profile conText);
+    }
+
+    /**
+     * Same behaviour of {@link RegexMatches}, avoiding the regular expression for known shapes.
+     */
+    private static final class RegexFeature extends Feature {
+        private static final int REGEX = 0, CONTAINS = 1, INIT_CAP = 2, END_CAP = 3, ALL_CAPS = 4, LOWERCASE = 5;
+
+        private final String feature;
+        private final Pattern regex;
+        private final int kind;
+        private final char character;
+
+        private RegexFeature(final String feature, final Pattern regex) {
+            this.feature = feature;
+            this.regex = regex;
+
+            String p = regex.pattern();
+            int k = REGEX;
+            char c = 0;
+            if (regex.flags() == 0) {
+                if (p.equals("[A-Z].*")) {
+                    k = INIT_CAP;
+                } else if (p.equals(".*[A-Z]")) {
+                    k = END_CAP;
+                } else if (p.equals("[A-Z]+")) {
+                    k = ALL_CAPS;
+                } else if (p.equals("[a-z]+")) {
+                    k = LOWERCASE;
+                } else if (p.startsWith(".*[") && p.endsWith("].*")) {
+                    String inner = p.substring(3, p.length() - 3);
+                    if (inner.length() == 1 && "\\^[]&".indexOf(inner.charAt(0)) == -1) {
+                        c = inner.charAt(0);
+                    } else if (inner.length() == 2 && inner.charAt(0) == '\\'
+                            && !Character.isLetterOrDigit(inner.charAt(1))) {
+                        c = inner.charAt(1);
+                    }
+                    if (c > 0 && c < 128) {
+                        k = CONTAINS;
+                    }
+                }
+            }
+            this.kind = k;
+            this.character = c;
+        }
+
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            if (matches(text)) {
+                t.setFeatureValue(feature, 1.0);
+            }
+            if (conText != null && matches(conText)) {
+                t.setFeatureValue(feature, 1.0);
+            }
+        }
+
+        private boolean matches(Profile p) {
+            switch (kind) {
+                case CONTAINS:
+                    return !p.lineTerminator && p.contains(character);
+                case INIT_CAP:
+                    return !p.lineTerminator && p.length > 0 && p.text.charAt(0) >= 'A' && p.text.charAt(0) <= 'Z';
+                case END_CAP:
+                    return !p.lineTerminator && p.length > 0
+                            && p.text.charAt(p.length - 1) >= 'A' && p.text.charAt(p.length - 1) <= 'Z';
+                case ALL_CAPS:
+                    return p.length > 0 && p.upperAZ;
+                case LOWERCASE:
+                    return p.length > 0 && p.lowerAZ;
+                default:
+                    return regex.matcher(p.text).matches();
+            }
+        }
+    }
+
+    /**
+     * Same behaviour of {@link MixCase}.
+     */
+    private static final class MixCaseFeature extends Feature {
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            if (text.hasLow && text.numCap > 0) {
+                t.setFeatureValue("MixCase", 1.0);
+            }
+        }
+    }
+
+    /**
+     * Same behaviour of {@link NumberOfCap}.
+     */
+    private static final class NumberOfCapFeature extends Feature {
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            if (text.numCap == 1) {
+                t.setFeatureValue("SingleCap", 1.0);
+            } else if (text.numCap == 2) {
+                t.setFeatureValue("TwoCap", 1.0);
+            } else if (text.numCap == 3) {
+                t.setFeatureValue("ThreeCap", 1.0);
+            } else if (text.numCap >= 4) {
+                t.setFeatureValue("MoreCap", 1.0);
+            }
+        }
+    }
+
+    /**
+     * Same behaviour of {@link NumberOfDigit}.
+     */
+    private static final class NumberOfDigitFeature extends Feature {
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            if (text.numDigit == 1) {
+                t.setFeatureValue("SingleDigit", 1.0);
+            } else if (text.numDigit == 2) {
+                t.setFeatureValue("TwoDigit", 1.0);
+            } else if (text.numDigit == 3) {
+                t.setFeatureValue("ThreeDigit", 1.0);
+            } else if (text.numDigit >= 4) {
+                t.setFeatureValue("MoreDigit", 1.0);
+            }
+        }
+    }
+
+    /**
+     * Same behaviour of {@link WordLength}.
+     */
+    private static final class WordLengthFeature extends Feature {
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            if (text.length == 1) {
+                t.setFeatureValue("LENGTH=1", 1.0);
+            } else if (text.length == 2) {
+                t.setFeatureValue("LENGTH=2", 1.0);
+            } else if ((text.length >= 3) && (text.length <= 5)) {
+                t.setFeatureValue("LENGTH=3-5", 1.0);
+            } else if (text.length >= 6) {
+                t.setFeatureValue("LENGTH=6+", 1.0);
+            }
+        }
+    }
+
+    /**
+     * Same behaviour of {@link WordShape}.
+     */
+    private static final class WordShapeFeature extends Feature {
+        @Override
+        void apply(Token t, Profile text, Profile conText) {
+            t.setFeatureValue("WordShapeI=" + text.shapeI, 1.0);
+            t.setFeatureValue("WordShapeII=" + text.shapeII, 1.0);
+            t.setFeatureValue("WordShapeIII=" + text.shapeIII, 1.0);
+        }
+    }
+
+    // Serialization
+    private static final long serialVersionUID = 1;
+    private static final int CURRENT_SERIAL_VERSION = 0;
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(CURRENT_SERIAL_VERSION);
+        out.writeObject(pipes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        int version = in.readInt();
+        pipes = (ArrayList<Pipe>) in.readObject();
+        compileFeatures();
+    }
+}
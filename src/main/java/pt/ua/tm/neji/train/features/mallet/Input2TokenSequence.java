@@ -20,8 +20,11 @@ import cc.mallet.types.LabelAlphabet;
 import cc.mallet.types.LabelSequence;
 import cc.mallet.types.Token;
 import cc.mallet.types.TokenSequence;
+import com.google.common.collect.Multimap;
 import java.util.ArrayList;
+import java.util.List;
 import pt.ua.tm.neji.core.Constants.DictionaryType;
+import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.train.config.ModelConfig;
 
 /**
@@ -49,16 +52,22 @@ public class Input2TokenSequence extends Pipe {
     }
 
     /**
-     * Extract the data and features from input data.
+     * Extract the data and features from input data. The input data can be either the text representation of a
+     * sentence, as provided by {@link Sentence#toExportFormat()}, or the {@link Sentence} itself, in which case the
+     * features are read directly from its tokens.
      * @param carrier Raw input data.
      * @return Processed instance with correct data and features.
      */
     @Override
     public Instance pipe(Instance carrier) {
-        
-        String sentenceLines = (String) carrier.getData();
-        
-        String[] tokens = sentenceLines.split("\n");
+
+        String[][] tokens;
+        if (carrier.getData() instanceof Sentence) {
+            tokens = split((Sentence) carrier.getData());
+        } else {
+            tokens = split((String) carrier.getData());
+        }
+
         TokenSequence data = new TokenSequence(tokens.length);
         LabelSequence target = new LabelSequence((LabelAlphabet) getTargetAlphabet(), tokens.length);
         StringBuffer source = new StringBuffer();        
@@ -68,8 +77,7 @@ public class Input2TokenSequence extends Pipe {
         ArrayList<Token> newTokens = new ArrayList<Token>();
         ArrayList<String> newLabels = new ArrayList<String>();
 
-        for (String t : tokens) {
-            String[] features = t.split("\t");
+        for (String[] features : tokens) {
 
             /*if (features.length != 6) {
                 throw new IllegalStateException("Line \"" + t + "\" doesn't have 6 elements: Token, Lemma, POS, Chunk, Dict and Label.");
@@ -157,4 +165,42 @@ public class Input2TokenSequence extends Pipe {
 
         return carrier;
     }
+
+    /**
+     * Split the text representation of a sentence into the columns of each token: text, features and label.
+     */
+    private static String[][] split(String sentenceLines) {
+        String[] lines = sentenceLines.split("\n");
+        String[][] tokens = new String[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            tokens[i] = lines[i].split("\t");
+        }
+        return tokens;
+    }
+
+    /**
+     * Get the columns of each token of a sentence, in the same layout of {@link Sentence#toExportFormat()},
+     * without building and parsing its text representation.
+     */
+    private static String[][] split(Sentence s) {
+        String[][] tokens = new String[s.size()][];
+        for (int i = 0; i < s.size(); i++) {
+            pt.ua.tm.neji.core.corpus.Token t = s.getToken(i);
+            Multimap<String, String> featuresMap = t.getFeaturesMap();
+
+            List<String> columns = new ArrayList<>(featuresMap.keySet().size() + 2);
+            columns.add(t.getText());
+            for (String f : featuresMap.keySet()) {
+                if (f.equals("DEP_TOK") || f.equals("DEP_TAG")) continue; // ignore DEP_TOK and DEP_TAG
+                columns.add(f + "=" + featuresMap.get(f).iterator().next());
+            }
+            if (columns.size() == 1) {
+                columns.add(""); // empty features column
+            }
+            columns.add(t.getLabel().toString());
+
+            tokens[i] = columns.toArray(new String[columns.size()]);
+        }
+        return tokens;
+    }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.train.model;
+
+import cc.mallet.fst.CRF;
+import cc.mallet.pipe.Pipe;
+import cc.mallet.types.Alphabet;
+import cc.mallet.types.SparseVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.rmi.dgc.VMID;
+
+/**
+ * Loads {@link CRF} models written by {@link BinaryModelWriter}, mapping the model file into memory.
+ * <p>
+ * The feature alphabet, which is usually the largest part of a model, is not copied to the heap: its entries
+ * are read from the mapped file when requested. The states and the weights of the model are read into the
+ * structures used by Mallet for decoding, copying the packed arrays of weights in bulk.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class BinaryModelReader {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(BinaryModelReader.class);
+
+    /**
+     * Checks if the specified file contains a model in the binary format.
+     * @param file the model file
+     * @return <code>true</code> if the file starts with the magic number of binary models, <code>false</code>
+     * otherwise
+     * @throws IOException if there was a problem reading the file
+     */
+    public static boolean isBinaryModel(final File file) throws IOException {
+        if (file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == BinaryModelWriter.MAGIC;
+        }
+    }
+
+    /**
+     * Loads the model stored in the specified file.
+     * @param file the model file
+     * @return the model
+     * @throws NejiException if there was a problem reading the model
+     */
+    public static CRF read(final File file) throws NejiException {
+        logger.info("Loading binary model...");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem loading the model.", ex);
+        }
+
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new NejiException("The model file is truncated or corrupted.", ex);
+        }
+    }
+
+    private static CRF read(final ByteBuffer buffer) throws NejiException {
+        if (buffer.getInt() != BinaryModelWriter.MAGIC) {
+            throw new NejiException("Provided model is not in the binary format.");
+        }
+        int version = buffer.getInt();
+        if (version != BinaryModelWriter.VERSION) {
+            throw new NejiException("Unsupported version of the binary model format: " + version);
+        }
+
+        // Feature alphabet
+        int size = buffer.getInt();
+        IntBuffer offsets = slice(buffer, (size + 1) * 4).asIntBuffer();
+        ByteBuffer data = slice(buffer, offsets.get(size));
+        int numSlots = buffer.getInt();
+        IntBuffer slots = slice(buffer, numSlots * 4).asIntBuffer();
+        MappedAlphabet mapped = new MappedAlphabet(offsets, data, slots);
+
+        // Input pipe
+        Pipe pipe;
+        try {
+            ByteBuffer bytes = slice(buffer, buffer.getInt());
+            ObjectInputStream ois = new PipeInputStream(new ByteBufferInputStream(bytes), mapped);
+            pipe = (Pipe) ois.readObject();
+            ois.close();
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new NejiException("There was a problem loading the pipe of the model.", ex);
+        }
+
+        CRF crf = new CRF(pipe, null);
+
+        // States
+        int numStates = buffer.getInt();
+        for (int i = 0; i < numStates; i++) {
+            String name = readString(buffer);
+            double initialWeight = buffer.getDouble();
+            double finalWeight = buffer.getDouble();
+            int numDestinations = buffer.getInt();
+            String[] destinations = new String[numDestinations];
+            String[] labels = new String[numDestinations];
+            String[][] weightNames = new String[numDestinations][];
+            for (int j = 0; j < numDestinations; j++) {
+                destinations[j] = readString(buffer);
+                labels[j] = readString(buffer);
+                weightNames[j] = new String[buffer.getInt()];
+                for (int k = 0; k < weightNames[j].length; k++) {
+                    weightNames[j][k] = readString(buffer);
+                }
+            }
+            crf.addState(name, initialWeight, finalWeight, destinations, labels, weightNames);
+        }
+
+        // Weights
+        int numWeights = buffer.getInt();
+        for (int i = 0; i < numWeights; i++) {
+            int index = crf.getWeightsIndex(readString(buffer));
+            crf.setDefaultWeight(index, buffer.getDouble());
+            boolean frozen = buffer.get() != 0;
+            boolean dense = buffer.get() != 0;
+
+            int n = buffer.getInt();
+            int[] indices = new int[n];
+            slice(buffer, n * 4).asIntBuffer().get(indices);
+            double[] values = new double[n];
+            slice(buffer, n * 8).asDoubleBuffer().get(values);
+
+            if (dense) {
+                double[] dv = new double[mapped.size()];
+                for (int j = 0; j < indices.length; j++) {
+                    dv[indices[j]] = values[j];
+                }
+                crf.setWeights(index, new SparseVector(dv, false));
+            } else {
+                crf.setWeights(index, new SparseVector(indices, values, false, false, false));
+            }
+
+            if (frozen) {
+                crf.freezeWeights(index);
+            }
+        }
+
+        return crf;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Object stream that resolves an {@link BinaryModelWriter.AlphabetReference} into the mapped feature alphabet.
+     * <p>
+     * Mallet returns the pipes and alphabets previously deserialized with the same instance identifier, so
+     * identifiers are replaced by new ones. Otherwise, loading the same model from both formats would share
+     * pipes that index features differently.
+     */
+    private static class PipeInputStream extends ObjectInputStream {
+
+        private final Alphabet alphabet;
+
+        PipeInputStream(final InputStream in, final Alphabet alphabet) throws IOException {
+            super(in);
+            this.alphabet = alphabet;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) throws IOException {
+            if (obj instanceof BinaryModelWriter.AlphabetReference) {
+                return alphabet;
+            }
+            if (obj instanceof VMID) {
+                return new VMID();
+            }
+            return obj;
+        }
+    }
+
+    /**
+     * Input stream that reads the bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.train.model;
+
+import cc.mallet.fst.CRF;
+import cc.mallet.types.Alphabet;
+import cc.mallet.types.SparseVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Writes trained {@link CRF} models in a compact binary format, which is loaded by {@link BinaryModelReader} by
+ * mapping the file into memory instead of deserializing the whole object graph of the model.
+ * <p>
+ * The file contains, in this order:
+ * <ul>
+ * <li>the header, with a magic number and the format version;</li>
+ * <li>the feature alphabet, as a table of UTF-8 strings sorted by their bytes, followed by a hash index;</li>
+ * <li>the input pipe of the model, serialized without its feature alphabet;</li>
+ * <li>the states of the model, with their transitions;</li>
+ * <li>the weights of the model, as packed arrays of feature indices and values.</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class BinaryModelWriter {
+
+    /**
+     * {@link Logger} to be used in the class.
+     */
+    private static Logger logger = LoggerFactory.getLogger(BinaryModelWriter.class);
+
+    /**
+     * Magic number that identifies the binary model files.
+     */
+    static final int MAGIC = 0x4E4A4352;
+
+    /**
+     * Version of the binary model format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Writes the specified model to a file.
+     * @param crf the model
+     * @param file the output file
+     * @throws NejiException if there was a problem writing the model
+     */
+    public static void write(final CRF crf, final File file) throws NejiException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(crf, out);
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem writing the model.", ex);
+        }
+    }
+
+    /**
+     * Writes the specified model to an output stream.
+     * @param crf the model
+     * @param output the output stream
+     * @throws NejiException if there was a problem writing the model
+     */
+    public static void write(final CRF crf, final OutputStream output) throws NejiException {
+        logger.info("Writing binary model...");
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            // Feature alphabet, sorted by the UTF-8 bytes of each entry
+            final Alphabet alphabet = crf.getInputAlphabet();
+            final byte[][] entries = new byte[alphabet.size()][];
+            Integer[] order = new Integer[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                Object entry = alphabet.lookupObject(i);
+                if (!(entry instanceof String)) {
+                    throw new NejiException("Only models with string features can be written in the binary format.");
+                }
+                entries[i] = ((String) entry).getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i1, Integer i2) {
+                    return compareBytes(entries[i1], entries[i2]);
+                }
+            });
+
+            int[] positions = new int[entries.length];
+            for (int i = 0; i < order.length; i++) {
+                positions[order[i]] = i;
+            }
+            writeAlphabet(out, alphabet, entries, order);
+
+            // Input pipe, referencing the feature alphabet
+            ByteArrayOutputStream pipe = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new PipeOutputStream(pipe, alphabet);
+            oos.writeObject(crf.getInputPipe());
+            oos.close();
+            out.writeInt(pipe.size());
+            pipe.writeTo(out);
+
+            // States
+            out.writeInt(crf.numStates());
+            for (int i = 0; i < crf.numStates(); i++) {
+                CRF.State state = (CRF.State) crf.getState(i);
+                writeString(out, state.getName());
+                out.writeDouble(state.getInitialWeight());
+                out.writeDouble(state.getFinalWeight());
+                out.writeInt(state.numDestinations());
+                for (int j = 0; j < state.numDestinations(); j++) {
+                    writeString(out, state.getDestinationState(j).getName());
+                    writeString(out, state.getLabelName(j));
+                    String[] weightNames = state.getWeightNames(j);
+                    out.writeInt(weightNames.length);
+                    for (String name : weightNames) {
+                        writeString(out, name);
+                    }
+                }
+            }
+
+            // Weights
+            SparseVector[] weights = crf.getWeights();
+            out.writeInt(weights.length);
+            for (int i = 0; i < weights.length; i++) {
+                writeString(out, crf.getWeightsName(i));
+                out.writeDouble(crf.getDefaultWeights()[i]);
+                out.writeBoolean(crf.isWeightsFrozen(i));
+                writeWeights(out, weights[i], positions);
+            }
+
+            out.flush();
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem writing the model.", ex);
+        }
+    }
+
+    private static void writeAlphabet(final DataOutputStream out, final Alphabet alphabet,
+                                      final byte[][] entries, final Integer[] order) throws IOException {
+        out.writeInt(entries.length);
+        int offset = 0;
+        for (Integer i : order) {
+            out.writeInt(offset);
+            offset += entries[i].length;
+        }
+        out.writeInt(offset);
+        for (Integer i : order) {
+            out.write(entries[i]);
+        }
+
+        // Open addressing index, storing the position of each entry plus one
+        int[] slots = new int[entries.length * 2];
+        for (int i = 0; i < order.length; i++) {
+            int slot = MappedAlphabet.slot(alphabet.lookupObject(order[i]).hashCode(), slots.length);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) % slots.length;
+            }
+            slots[slot] = i + 1;
+        }
+        out.writeInt(slots.length);
+        for (int slot : slots) {
+            out.writeInt(slot);
+        }
+    }
+
+    private static void writeWeights(final DataOutputStream out, final SparseVector weights,
+                                     final int[] positions) throws IOException {
+        boolean dense = weights.getIndices() == null;
+        int n = weights.numLocations();
+        long[] locations = new long[n];
+        for (int l = 0; l < n; l++) {
+            // Sort the locations by the position of their feature in the sorted alphabet
+            locations[l] = ((long) positions[weights.indexAtLocation(l)] << 32) | l;
+        }
+        Arrays.sort(locations);
+
+        out.writeBoolean(dense);
+        out.writeInt(n);
+        for (long location : locations) {
+            out.writeInt((int) (location >>> 32));
+        }
+        for (long location : locations) {
+            out.writeDouble(weights.valueAtLocation((int) location));
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static int compareBytes(final byte[] b1, final byte[] b2) {
+        int n = Math.min(b1.length, b2.length);
+        for (int i = 0; i < n; i++) {
+            int c = (b1[i] & 0xff) - (b2[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return b1.length - b2.length;
+    }
+
+    /**
+     * Placeholder written instead of the feature alphabet when serializing the input pipe.
+     */
+    static final class AlphabetReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Object stream that replaces the feature alphabet by an {@link AlphabetReference}.
+     */
+    private static class PipeOutputStream extends ObjectOutputStream {
+
+        private final Alphabet alphabet;
+        private final Alphabet replacement;
+
+        PipeOutputStream(final OutputStream out, final Alphabet alphabet) throws IOException {
+            super(out);
+            this.alphabet = alphabet;
+            // Mapped alphabets are replaced by a regular alphabet before reaching replaceObject
+            this.replacement = alphabet instanceof MappedAlphabet ? ((MappedAlphabet) alphabet).getReplacement() : alphabet;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) throws IOException {
+            return obj == alphabet || obj == replacement ? new AlphabetReference() : obj;
+        }
+    }
+}
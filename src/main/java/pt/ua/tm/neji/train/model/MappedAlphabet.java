@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.train.model;
+
+import cc.mallet.types.Alphabet;
+
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only {@link Alphabet} of feature names, backed by a table of strings stored in a memory-mapped model
+ * file written by {@link BinaryModelWriter}.
+ * <p>
+ * Entries are sorted by their UTF-8 bytes and located through a hash index stored in the same file, so no
+ * entry is decoded until it is requested and no map of entries is kept in the heap. Lookups only read the
+ * mapped buffers, so an instance can be shared by several threads.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+class MappedAlphabet extends Alphabet {
+
+    private final int size;
+    private final IntBuffer offsets;
+    private final ByteBuffer data;
+    private final IntBuffer slots;
+    private transient Alphabet replacement;
+
+    /**
+     * Constructor.
+     * @param offsets the offsets of the entries in the data buffer, with one extra offset marking its end
+     * @param data the UTF-8 bytes of the entries
+     * @param slots the hash index, with the position of each entry plus one in the slot of its hash code
+     */
+    MappedAlphabet(final IntBuffer offsets, final ByteBuffer data, final IntBuffer slots) {
+        super(String.class);
+        this.size = offsets.limit() - 1;
+        this.offsets = offsets;
+        this.data = data;
+        this.slots = slots;
+        stopGrowth();
+    }
+
+    @Override
+    public int lookupIndex(final Object entry, final boolean addIfNotPresent) {
+        if (entry == null) {
+            throw new IllegalArgumentException("Can't lookup \"null\" in an Alphabet.");
+        }
+        // Growth is always stopped, so missing entries are never added
+        if (!(entry instanceof String) || slots.limit() == 0) {
+            return -1;
+        }
+
+        byte[] bytes = ((String) entry).getBytes(StandardCharsets.UTF_8);
+        int slot = slot(entry.hashCode(), slots.limit());
+        int index;
+        while ((index = slots.get(slot) - 1) >= 0) {
+            if (equals(index, bytes)) {
+                return index;
+            }
+            slot = (slot + 1) % slots.limit();
+        }
+        return -1;
+    }
+
+    @Override
+    public int lookupIndex(final Object entry) {
+        return lookupIndex(entry, false);
+    }
+
+    @Override
+    public Object lookupObject(final int index) {
+        int start = offsets.get(index);
+        byte[] bytes = new byte[offsets.get(index + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = data.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object[] lookupObjects(final int[] indices) {
+        return lookupObjects(indices, new Object[indices.length]);
+    }
+
+    @Override
+    public Object[] lookupObjects(final int[] indices, final Object[] buf) {
+        for (int i = 0; i < indices.length; i++) {
+            buf[i] = lookupObject(indices[i]);
+        }
+        return buf;
+    }
+
+    @Override
+    public int[] lookupIndices(final Object[] objects, final boolean addIfNotPresent) {
+        int[] indices = new int[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            indices[i] = lookupIndex(objects[i], addIfNotPresent);
+        }
+        return indices;
+    }
+
+    @Override
+    public boolean contains(final Object entry) {
+        return lookupIndex(entry, false) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void startGrowth() {
+        throw new IllegalStateException("Can't add entries to an alphabet loaded from a mapped model.");
+    }
+
+    @Override
+    public Object[] toArray() {
+        return lookupObjects(indices());
+    }
+
+    @Override
+    public Object[] toArray(final Object[] in) {
+        Object[] out = in.length >= size ? in : Arrays.copyOf(in, size);
+        lookupObjects(indices(), out);
+        return out;
+    }
+
+    @Override
+    public Iterator iterator() {
+        return new Iterator() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Object next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return lookupObject(next++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public Object clone() {
+        return toAlphabet();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(lookupObject(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Serializes this alphabet as a regular {@link Alphabet}, since the mapped buffers are not serializable.
+     * @return the alphabet with the same entries
+     * @throws ObjectStreamException never thrown
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return getReplacement();
+    }
+
+    /**
+     * Gets the regular {@link Alphabet} written instead of this one, which is created once so that every
+     * reference to this alphabet is written as a reference to the same object.
+     * @return the alphabet with the same entries
+     */
+    synchronized Alphabet getReplacement() {
+        if (replacement == null) {
+            replacement = toAlphabet();
+        }
+        return replacement;
+    }
+
+    /**
+     * Gets the slot of the hash index where the search for an entry starts.
+     * @param hashCode the hash code of the entry
+     * @param numSlots the number of slots of the index
+     * @return the slot
+     */
+    static int slot(final int hashCode, final int numSlots) {
+        return (hashCode & 0x7fffffff) % numSlots;
+    }
+
+    private boolean equals(final int index, final byte[] bytes) {
+        int start = offsets.get(index);
+        if (offsets.get(index + 1) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] indices() {
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private Alphabet toAlphabet() {
+        Alphabet alphabet = new Alphabet(size, String.class);
+        for (int i = 0; i < size; i++) {
+            alphabet.lookupIndex(lookupObject(i), true);
+        }
+        alphabet.stopGrowth();
+        return alphabet;
+    }
+}
@@ -37,6 +37,7 @@ import pt.ua.tm.neji.core.module.DynamicNLP;
 import pt.ua.tm.neji.core.module.Module;
 import pt.ua.tm.neji.core.module.Provides;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -50,6 +51,7 @@ import pt.ua.tm.neji.parser.GDepParser;
  */
 @Requires({Resource.Passages})
 @Provides({Resource.Sentences, Resource.DynamicNLP})
+@Resettable
 public class TrainNLP extends BaseLoader implements DynamicNLP {
 
     /**
@@ -59,6 +61,7 @@ public class TrainNLP extends BaseLoader implements DynamicNLP {
     
     // Attributes
     private GDepParser parser;
+    private final GDepParser contextParser;
     private final ParserLevel customLevel;
     private int startText;
     private int startTag;
@@ -79,6 +82,7 @@ public class TrainNLP extends BaseLoader implements DynamicNLP {
         super.addActionToXMLTag(start_text, "roi");
         super.addActionToXMLTag(end_text, "roi");
         this.parser = (GDepParser) parser;
+        this.contextParser = this.parser;
         this.customLevel = customLevel;
         sentenceCounter = 0;
         startText = 0;
@@ -89,6 +93,26 @@ public class TrainNLP extends BaseLoader implements DynamicNLP {
         newCorpusFlag = true;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+
+        // Close the parser provided by the reader for the previous document
+        if (parser != contextParser) {
+            parser.close();
+            parser = contextParser;
+        }
+
+        sentenceCounter = 0;
+        startText = 0;
+        startTag = 0;
+        inText = false;
+        startIndex = 0;
+        sentenceIndex = 0;
+        labelledCorpus = null;
+        newCorpusFlag = true;
+    }
+
     private Module.Action start_text = new BaseModule.StartAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -100,7 +100,7 @@ public class TrainProcessor extends BaseProcessor {
         
         try {
             cp = context.take();
-        } catch (InterruptedException ex) {
+        } catch (InterruptedException | NejiException ex) {
             String m = "There was a problem getting the context processors. Stream with the identifier "
                         + getSentencesInputFile().getCorpus().getIdentifier();
             throw new RuntimeException(m, ex);
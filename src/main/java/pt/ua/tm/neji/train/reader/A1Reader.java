@@ -41,6 +41,7 @@ import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.DynamicNLP;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -54,6 +55,7 @@ import pt.ua.tm.neji.sentencesplitter.LingpipeSentenceSplitter;
  * @author jeronimo
  */
 @Provides({Resource.Passages, Resource.Annotations})
+@Resettable
 public class A1Reader extends BaseReader implements DynamicNLP {
     
     /**
@@ -85,6 +87,16 @@ public class A1Reader extends BaseReader implements DynamicNLP {
         this.inputAnnotations = inputAnnotations;
     }
     
+    /**
+     * {@inheritDoc}
+     *
+     * Readers with annotations can not be reset, since the annotations belong to a single document.
+     */
+    @Override
+    public boolean isResettable() {
+        return super.isResettable() && inputAnnotations == null;
+    }
+
     private DefaultAction text_action = new DefaultAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {    
@@ -46,6 +46,7 @@ import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.DynamicNLP;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -58,6 +59,7 @@ import pt.ua.tm.neji.parser.GDepParser;
  * @author jeronimo
  */
 @Provides({Resource.Passages, Resource.Annotations})
+@Resettable
 public class BC2Reader extends BaseReader implements DynamicNLP {
     
     /**
@@ -114,6 +116,16 @@ public class BC2Reader extends BaseReader implements DynamicNLP {
         this(parser, parser.getLevel(), inputAnnotations);
     }
     
+    /**
+     * {@inheritDoc}
+     *
+     * Readers with annotations can not be reset, since the annotations belong to a single document.
+     */
+    @Override
+    public boolean isResettable() {
+        return super.isResettable() && inputAnnotations == null;
+    }
+
     private DefaultAction text_action = new DefaultAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {    
@@ -44,6 +44,7 @@ import pt.ua.tm.neji.core.module.BaseModule;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.DynamicNLP;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -56,6 +57,7 @@ import pt.ua.tm.neji.parser.GDepParser;
  * @author jeronimo
  */
 @Provides({Resource.Passages, Resource.Annotations})
+@Resettable
 public class JNLPBAReader extends BaseReader implements DynamicNLP {
     
     /**
@@ -35,6 +35,7 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseModule;
 import pt.ua.tm.neji.core.module.BaseReader;
 import pt.ua.tm.neji.core.module.Provides;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 
@@ -43,6 +44,7 @@ import pt.ua.tm.neji.exception.NejiException;
  * @author jeronimo
  */
 @Provides({Resource.Passages, Resource.Sentences, Resource.Annotations, Resource.Relations, Resource.Tokens})
+@Resettable
 public class SerializedReader extends BaseReader {
     
     /**
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.util.stopwords;
+
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable set of stopwords, which are compared ignoring their case.
+ * <p>
+ * Stopwords are stored lower-cased in an open addressing hash table, and lookups fold the case of the provided
+ * characters while hashing and comparing them, so no objects are allocated. An instance can be shared by
+ * several threads.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class StopwordSet {
+
+    private final char[][] table;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Constructor.
+     * @param words the stopwords
+     */
+    public StopwordSet(final Iterable<String> words) {
+        List<char[]> folded = new ArrayList<>();
+        for (String word : words) {
+            String w = word.trim();
+            if (!w.isEmpty()) {
+                char[] chars = w.toCharArray();
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = Character.toLowerCase(chars[i]);
+                }
+                folded.add(chars);
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(folded.size(), 1) * 4);
+        this.table = new char[capacity][];
+        this.mask = capacity - 1;
+
+        int n = 0;
+        for (char[] word : folded) {
+            int slot = hash(word, 0, word.length) & mask;
+            while (table[slot] != null && !equals(table[slot], word, 0, word.length)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == null) {
+                table[slot] = word;
+                n++;
+            }
+        }
+        this.size = n;
+    }
+
+    /**
+     * Loads the stopwords of the provided input, one per line.
+     * @param input the input stream
+     * @return the stopwords
+     * @throws NejiException if there was a problem reading the input
+     */
+    public static StopwordSet load(final InputStream input) throws NejiException {
+        assert (input != null);
+        List<String> words = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(input))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                words.add(line);
+            }
+        } catch (IOException ex) {
+            throw new NejiException("There was a problem reading the stopwords file.", ex);
+        }
+        return new StopwordSet(words);
+    }
+
+    /**
+     * Checks if the provided text is a stopword.
+     * @param text the text
+     * @return <code>true</code> if the text is a stopword, <code>false</code> otherwise
+     */
+    public boolean contains(final CharSequence text) {
+        return contains(text, 0, text.length());
+    }
+
+    /**
+     * Checks if the provided characters of a text are a stopword.
+     * @param text the text
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return <code>true</code> if the characters are a stopword, <code>false</code> otherwise
+     */
+    public boolean contains(final CharSequence text, final int start, final int end) {
+        int slot = hash(text, start, end) & mask;
+        char[] word;
+        while ((word = table[slot]) != null) {
+            if (equals(word, text, start, end)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of stopwords.
+     * @return the number of stopwords
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(final char[] word, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + word[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(final CharSequence text, final int start, final int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(final char[] word, final char[] other, final int start, final int end) {
+        if (word.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (word[i] != other[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(final char[] word, final CharSequence text, final int start, final int end) {
+        if (word.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (word[i] != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
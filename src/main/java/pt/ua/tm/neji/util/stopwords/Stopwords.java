@@ -17,21 +17,18 @@ package pt.ua.tm.neji.util.stopwords;
 
 import pt.ua.tm.neji.train.config.Resources;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Created by david on 07/07/15.
  */
 public class Stopwords {
 
-    private static Pattern stopwords;
+    private static StopwordSet stopwords;
     private static boolean isInit = false;
 
     public static void init() {
         // Stopwords
         try {
-            stopwords = Resources.getStopwordsPattern();
+            stopwords = Resources.getStopwords();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -44,8 +41,7 @@ public class Stopwords {
         }
 
         String w = word.trim();
-        Matcher m = stopwords.matcher(w);
-        if (!m.matches()) {
+        if (!stopwords.contains(w)) {
             return false;
         }
         System.out.println("Stopword: " + w);
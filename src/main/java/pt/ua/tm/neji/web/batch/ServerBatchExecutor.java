@@ -27,6 +27,7 @@ import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.core.processor.Processor;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
+import pt.ua.tm.neji.web.processor.ServerProcessor;
 import pt.ua.tm.neji.web.services.Service;
 
 import java.io.OutputStream;
@@ -132,9 +133,7 @@ public class ServerBatchExecutor extends BatchExecutor {
         executor.execute(processor);
 
         try {
-            synchronized (processor) {
-                processor.wait();
-            }
+            ((ServerProcessor) processor).await();
         } catch (InterruptedException ex) {
             throw new RuntimeException("There was a problem running the annotation service.", ex);
         }
@@ -17,6 +17,7 @@ package pt.ua.tm.neji.web.cli;
 
 import cc.mallet.util.MalletLogger;
 import org.apache.commons.cli.*;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
@@ -24,9 +25,11 @@ import pt.ua.tm.neji.context.Context;
 import pt.ua.tm.neji.context.ContextConfiguration;
 import pt.ua.tm.neji.context.InputFormat;
 import pt.ua.tm.neji.context.OutputFormat;
+import pt.ua.tm.neji.context.ParserPool;
 import pt.ua.tm.neji.core.Constants;
 import pt.ua.tm.neji.core.parser.ParserLanguage;
 import pt.ua.tm.neji.core.parser.ParserLevel;
+import pt.ua.tm.neji.core.parser.ParserSupport;
 import pt.ua.tm.neji.core.parser.ParserTool;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.logger.LoggingOutputStream;
@@ -41,6 +44,7 @@ import java.net.PasswordAuthentication;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import static pt.ua.tm.neji.web.WebConstants.DICTIONARIES_PATH;
@@ -81,6 +85,14 @@ public class WebMain {
         options.addOption("c", "configuration", true, "Configuration properties file.");
 
         options.addOption("t", "threads", true, "Number of threads. By default, if more than one core is available, it is the number of cores minus 1.");
+        options.addOption("dcomb", "combine-dictionaries", false, "Match all dictionaries in a single pass over each sentence.");
+        options.addOption("ddoc", "document-matching", false, "Match dictionaries in the text of each document at once, instead of in each sentence.");
+        options.addOption("pcache", "parse-cache", true, "File where the parsing results of each sentence are cached across runs, so that sentences parsed before are not parsed again.");
+        options.addOption("st", "sentence-threads", true, "Number of threads used to annotate the sentences of each document in parallel. By default, sentences are annotated by the thread processing the document.");
+        options.addOption("ppmin", "parser-pool-min", true, "Number of parsers kept launched even when idle (1 by default). Further parsers are launched when needed, up to the number of threads.");
+        options.addOption("ppidle", "parser-idle-timeout", true, "Seconds after which idle parsers above the minimum number are closed (300 by default).");
+        options.addOption("pptimeout", "parser-take-timeout", true, "Seconds to wait for a parser when every one is in use, after which the request fails. By default, requests wait indefinitely.");
+        options.addOption("ptool", "parsing-tool", true, "GDEP, OPENNLP or TOKENIZER (GDEP is set by default). TOKENIZER only provides tokenization, so services are limited to dictionary matching.");
 
         CommandLine commandLine;
         try {
@@ -110,6 +122,62 @@ public class WebMain {
             }
         }
 
+        // Get sentence threads
+        int sentenceThreads = 0;
+        if (commandLine.hasOption("st")) {
+            String sentenceThreadsText = commandLine.getOptionValue("st");
+            sentenceThreads = Integer.parseInt(sentenceThreadsText);
+            if (sentenceThreads <= 0 || sentenceThreads > 32) {
+                logger.error("Illegal number of sentence threads. Must be between 1 and 32.");
+                return;
+            }
+        }
+
+        // Get parser pool settings
+        int parserPoolMinSize = 1;
+        if (commandLine.hasOption("ppmin")) {
+            parserPoolMinSize = Integer.parseInt(commandLine.getOptionValue("ppmin"));
+            if (parserPoolMinSize < 0) {
+                logger.error("Illegal minimum number of parsers. Must be 0 or more.");
+                return;
+            }
+        }
+
+        long parserIdleTimeout = ParserPool.DEFAULT_IDLE_TIMEOUT;
+        if (commandLine.hasOption("ppidle")) {
+            parserIdleTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(commandLine.getOptionValue("ppidle")));
+            if (parserIdleTimeout <= 0) {
+                logger.error("Illegal parser idle timeout. Must be 1 second or more.");
+                return;
+            }
+        }
+
+        long parserTakeTimeout = 0;
+        if (commandLine.hasOption("pptimeout")) {
+            parserTakeTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(commandLine.getOptionValue("pptimeout")));
+            if (parserTakeTimeout <= 0) {
+                logger.error("Illegal parser take timeout. Must be 1 second or more.");
+                return;
+            }
+        }
+
+        ParserTool parsingTool = ParserTool.GDEP;
+        if (commandLine.hasOption("ptool")) {
+            String parsingToolName = commandLine.getOptionValue("ptool");
+            try {
+                parsingTool = ParserTool.valueOf(parsingToolName);
+            } catch (IllegalArgumentException ex) {
+                logger.error("Invalid parsing tool \"" + parsingToolName + "\". Must be one of " + StringUtils.join(ParserTool.values(), ", "));
+                return;
+            }
+        }
+
+        // Chunking is used whenever the tool supports it for English, otherwise only tokenization is performed
+        ParserLevel parsingLevel = ParserLevel.TOKENIZATION;
+        if (ParserSupport.levelsSupportedByLanguage(parsingTool, ParserLanguage.ENGLISH).contains(ParserLevel.CHUNKING)) {
+            parsingLevel = ParserLevel.CHUNKING;
+        }
+
         // Get port
         int port = 8010;
         if (commandLine.hasOption("port")) {
@@ -228,10 +296,17 @@ public class WebMain {
             descriptor = new ContextConfiguration.Builder()
                     .withInputFormat(InputFormat.RAW) // HARDCODED
                     .withOutputFormats(outputFormats)
-                    .withParserTool(ParserTool.GDEP)
+                    .withParserTool(parsingTool)
                     .withParserLanguage(ParserLanguage.ENGLISH)
-                    .withParserLevel(ParserLevel.CHUNKING)
+                    .withParserLevel(parsingLevel)
                     .build();
+            descriptor.setSentenceThreads(sentenceThreads);
+            descriptor.setCombinedDictionaries(commandLine.hasOption("dcomb"));
+            descriptor.setDocumentMatching(commandLine.hasOption("ddoc"));
+            descriptor.setParseCacheFile(commandLine.getOptionValue("pcache"));
+            descriptor.setParserPoolMinSize(parserPoolMinSize);
+            descriptor.setParserIdleTimeout(parserIdleTimeout);
+            descriptor.setParserTakeTimeout(parserTakeTimeout);
 
         } catch (NejiException ex) {
             ex.printStackTrace();
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.web.manage;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Cache statistics class.
+ *
+ */
+@XmlRootElement
+public class CacheStatistics {
+
+    // Attributes
+    private String name;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private int size;
+
+    public CacheStatistics() {
+    }
+
+    public CacheStatistics(String name, long hits, long misses, double hitRate, int size) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hitRate;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
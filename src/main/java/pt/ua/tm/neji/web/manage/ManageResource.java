@@ -184,6 +184,36 @@ public class ManageResource {
         return models;
     }
     
+    /**
+     * Get the statistics of the normalization caches of the models.
+     * @return normalization cache statistics list
+     */
+    @GET
+    @Path("/getNormalizationStatistics")
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    public List<CacheStatistics> getNormalizationStatistics() {
+                
+        Server server = Server.getInstance();
+
+        // Get statistics
+        return server.getNormalizationStatistics();
+    }
+
+    /**
+     * Get the statistics of the pool of parsers.
+     * @return parser pool statistics
+     */
+    @GET
+    @Path("/getParserPoolStatistics")
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    public ParserPoolStatistics getParserPoolStatistics() {
+
+        Server server = Server.getInstance();
+
+        // Get statistics
+        return server.getParserPoolStatistics();
+    }
+    
     /**
      * Remove model.
      * @param id model id
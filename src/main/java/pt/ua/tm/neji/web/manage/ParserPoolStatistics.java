@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.web.manage;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Parser pool statistics class. Wait times are in milliseconds, and utilisation is the fraction of time that
+ * launched parsers spent in use.
+ *
+ */
+@XmlRootElement
+public class ParserPoolStatistics {
+
+    // Attributes
+    private int size;
+    private int busy;
+    private int idle;
+    private int minSize;
+    private int maxSize;
+    private long takes;
+    private long timeouts;
+    private double averageWaitTime;
+    private double maxWaitTime;
+    private long launched;
+    private long restarted;
+    private long evicted;
+    private double utilisation;
+
+    public ParserPoolStatistics() {
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getBusy() {
+        return busy;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTakes() {
+        return takes;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public double getAverageWaitTime() {
+        return averageWaitTime;
+    }
+
+    public double getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public long getLaunched() {
+        return launched;
+    }
+
+    public long getRestarted() {
+        return restarted;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public double getUtilisation() {
+        return utilisation;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public void setBusy(int busy) {
+        this.busy = busy;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setTakes(long takes) {
+        this.takes = takes;
+    }
+
+    public void setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public void setAverageWaitTime(double averageWaitTime) {
+        this.averageWaitTime = averageWaitTime;
+    }
+
+    public void setMaxWaitTime(double maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public void setLaunched(long launched) {
+        this.launched = launched;
+    }
+
+    public void setRestarted(long restarted) {
+        this.restarted = restarted;
+    }
+
+    public void setEvicted(long evicted) {
+        this.evicted = evicted;
+    }
+
+    public void setUtilisation(double utilisation) {
+        this.utilisation = utilisation;
+    }
+}
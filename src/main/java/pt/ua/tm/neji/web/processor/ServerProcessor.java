@@ -18,7 +18,7 @@ package pt.ua.tm.neji.web.processor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.context.Context;
-import pt.ua.tm.neji.context.ContextProcessors;
+import pt.ua.tm.neji.context.PipelinePool;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.core.processor.BaseProcessor;
 import pt.ua.tm.neji.dictionary.Dictionary;
@@ -30,6 +30,7 @@ import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.exception.ParserTimeoutException;
 
 /**
  * Processor for a pre-defined pipeline, used by the deployable server.
@@ -53,6 +54,8 @@ public class ServerProcessor extends BaseProcessor {
     private Map<String, Boolean> groups;
     private boolean filterGroups;
     private String[] xmlTags;
+    private boolean done;
+    private Exception error;
 
     public ServerProcessor(Context context, InputStream inputStream, List<OutputStream> outputStreamList,
                            Service service, Pipeline pipeline, Map<String, Boolean> groups, 
@@ -79,12 +82,8 @@ public class ServerProcessor extends BaseProcessor {
 
         // Get context and processors
         Context context = getContext();
-        ContextProcessors cp;        
-        try {
-            cp = context.take();
-        } catch (InterruptedException ex) {
-            throw new RuntimeException("There was a problem getting the context processors.", ex);
-        }
+        PipelinePool pool = context.getPipelinePool();
+        PipelinePool.Entry entry = null;
 
         try {
 
@@ -92,37 +91,76 @@ public class ServerProcessor extends BaseProcessor {
             List<Dictionary> dictionaries = service.takeDictionaries(context);
             List<MLModel> models = service.takeModels(context);
 
-            // Create Pipeline
-            if(filterGroups) {
-                instantiateModulesFromGroups(dictionaries, models, 
-                        service.getParserLevel(), cp, context, pipeline, 
-                        groups, xmlTags, service.isNoIds());
+            // Get pipeline, or processors to assemble a new one
+            Object key = getPipelineKey(dictionaries, models, service.getParserLevel(),
+                    filterGroups ? groups : null, xmlTags, service.isNoIds());
+            entry = pool.take(key);
+
+            // Reuse pipeline or create a new one
+            Pipeline p = entry.getPipeline();
+            if (p != null) {
+                p.reset(pipeline.getCorpus());
             } else {
-                instantiateModules(dictionaries, models, service.getParserLevel(), 
-                        cp, context, pipeline, xmlTags, service.isNoIds());
+                p = pipeline;
+                if (filterGroups) {
+                    instantiateModulesFromGroups(dictionaries, models,
+                            service.getParserLevel(), entry.getProcessors(), context, p,
+                            groups, xmlTags, service.isNoIds());
+                } else {
+                    instantiateModules(dictionaries, models, service.getParserLevel(),
+                            entry.getProcessors(), context, p, xmlTags, service.isNoIds());
+                }
+                entry.setPipeline(p);
             }
 
             // Execute the pipeline
-            pipeline.run(inputStream, outputStreamList);
-
-            // Return processors
-            context.put(cp);
-            pipeline.clear();
+            p.run(inputStream, outputStreamList);
 
-            synchronized (this) {
-                notify();
-            }
+            // Return pipeline and processors
+            pool.put(entry);
+            finish(null);
 
-        } catch (InterruptedException | NejiException ex) {
+        } catch (InterruptedException | NejiException | RuntimeException ex) {
 
             // Return context processors to context
-            try {
-                context.put(cp);
-            } catch (InterruptedException e) {
-                throw new RuntimeException("There was a problem returning the context processors.", ex);
+            if (entry != null) {
+                try {
+                    pool.discard(entry);
+                } catch (InterruptedException e) {
+                    logger.error("There was a problem returning the context processors.", e);
+                }
             }
 
-            throw new RuntimeException("There was a problem annotating the stream.", ex);
+            // Let the request fail, instead of waiting for the stream forever
+            finish(ex);
+            if (ex instanceof ParserTimeoutException) {
+                logger.warn("Rejected a stream: {}", ex.getMessage());
+            } else {
+                logger.error("There was a problem annotating the stream.", ex);
+            }
+        }
+    }
+
+    private synchronized void finish(Exception error) {
+        this.done = true;
+        this.error = error;
+        notifyAll();
+    }
+
+    /**
+     * Waits for the stream to be annotated.
+     * @throws ParserTimeoutException if no parser became available within the take timeout of the parser pool
+     * @throws NejiException if there was a problem annotating the stream
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void await() throws NejiException, InterruptedException {
+        while (!done) {
+            wait();
+        }
+        if (error instanceof NejiException) {
+            throw (NejiException) error;
+        } else if (error != null) {
+            throw new NejiException("There was a problem annotating the stream.", error);
         }
     }
 }
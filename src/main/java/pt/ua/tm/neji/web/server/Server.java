@@ -29,14 +29,20 @@ import org.eclipse.jetty.webapp.WebAppContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.context.Context;
+import pt.ua.tm.neji.context.ParserPool;
+import pt.ua.tm.neji.dictionary.DictionariesLoader;
+import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.ml.MLModel;
+import pt.ua.tm.neji.ml.NormalizationCache;
 import pt.ua.tm.neji.web.cli.ServerConfiguration;
 import pt.ua.tm.neji.web.cli.WebMain;
 import pt.ua.tm.neji.web.database.DatabaseHandler;
 import pt.ua.tm.neji.web.database.DefaultDatabaseHandler;
+import pt.ua.tm.neji.web.manage.CacheStatistics;
 import pt.ua.tm.neji.web.manage.Dictionary;
 import pt.ua.tm.neji.web.manage.Model;
+import pt.ua.tm.neji.web.manage.ParserPoolStatistics;
 import pt.ua.tm.neji.web.services.Service;
 
 import java.io.*;
@@ -249,7 +255,8 @@ public class Server extends org.eclipse.jetty.server.Server implements LifeCycle
 
     /**
      * Add new dictionary. The dictionary file is saved at dictionaries directory
-     * and is added to the server context.
+     * and is loaded into the server context in background, without stopping the
+     * requests being processed.
      *
      * @param dictionary dictionary
      * @param file       dictionary file
@@ -269,36 +276,31 @@ public class Server extends org.eclipse.jetty.server.Server implements LifeCycle
                     + "Please try again later.", ex);
         }
 
-        // Add dictionary to current server context
+        // Validate every line and extract group from dictionary, before committing it, since it is loaded
+        // in background
+        List<String> dictionaryLines;
         try {
-            List<String> dictionaryLines = IOUtils.readLines(
+            dictionaryLines = IOUtils.readLines(
                     new FileInputStream(DICTIONARIES_PATH + dictionary.getFile()), "UTF-8");
-            context.addNewDictionary(dictionary.getFile(), dictionaryLines);
+            VariantMatcherLoader.validate(dictionaryLines);
+            dictionary.setGroup(VariantMatcherLoader.getGroup(dictionaryLines));
         } catch (Exception ex) {
 
             // Delete dictionary file
             dictionaryFile.delete();
 
             throw new NejiException("The dictionary file '" + dictionary.getFile() +
-                    "' is not in the correct format.\nIt needs to be in TSV format.");
+                    "' is not in the correct format.\nIt needs to be in TSV format.", ex);
         }
 
         // Save dictionary details in database 
         try {
-            // Extract group from dictionary
-            int dictionaryIndex = context.getDictionaries().size() - 1; // is the last one added
-            String group = context.getDictionaries().get(dictionaryIndex).getGroup();
-            dictionary.setGroup(group);
-
             db.addDictionary(dictionary);
         } catch (NejiException ex) {
 
             // Delete dictionary file
             dictionaryFile.delete();
 
-            // Remove dicitionary from context
-            context.removeDictionary(dictionary.getFile());
-
             throw new NejiException("There was a problem adding the dictionary.\n"
                     + "Please try again later.", ex);
         }
@@ -313,15 +315,15 @@ public class Server extends org.eclipse.jetty.server.Server implements LifeCycle
             // Delete dictionary file
             dictionaryFile.delete();
 
-            // Remove dicitionary from context
-            context.removeDictionary(dictionary.getFile());
-
             // Delete dictionary data from database
             // ....
 
             throw new NejiException("There was a problem adding the dictionary.\n"
                     + "Please try again later.", ex);
         }
+
+        // Load dictionary in background and swap it into the server context when ready
+        context.loadDictionary(dictionary.getFile(), dictionaryLines);
     }
 
     /**
@@ -373,7 +375,12 @@ public class Server extends org.eclipse.jetty.server.Server implements LifeCycle
             // Delete dicitionary from _priority file.
             File priorityFile = new File(DICTIONARIES_PRIORITY_PATH);
             List<String> lines = FileUtils.readLines(priorityFile);
-            lines.remove(dictionary.getFile());
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                if (DictionariesLoader.getDictionaryName(it.next().trim()).equals(dictionary.getFile())) {
+                    it.remove();
+                }
+            }
             FileUtils.writeLines(priorityFile, lines, false);
 
             // Remove dictionary from server context
@@ -585,6 +592,50 @@ public class Server extends org.eclipse.jetty.server.Server implements LifeCycle
         }
     }
 
+    /**
+     * Get the statistics of the normalization caches of the models
+     * loaded in the server context.
+     *
+     * @return normalization cache statistics, one for each model with
+     * normalization dictionaries
+     */
+    public List<CacheStatistics> getNormalizationStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<String, MLModel> e : getContext().getModelPairs()) {
+            if (e.getValue().hasNormalizationDictionaries()) {
+                NormalizationCache cache = e.getValue().getNormalizationCache();
+                statistics.add(new CacheStatistics(e.getKey(), cache.getHits(), cache.getMisses(),
+                        cache.getHitRate(), cache.size()));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Get the statistics of the pool of parsers used to annotate the requests.
+     * @return parser pool statistics
+     */
+    public ParserPoolStatistics getParserPoolStatistics() {
+        ParserPool pool = getContext().getParserPool();
+        ParserPoolStatistics statistics = new ParserPoolStatistics();
+        synchronized (pool) {
+            statistics.setSize(pool.getSize());
+            statistics.setBusy(pool.getBusy());
+            statistics.setIdle(pool.getIdle());
+            statistics.setMinSize(pool.getMinSize());
+            statistics.setMaxSize(pool.getMaxSize());
+            statistics.setTakes(pool.getTakes());
+            statistics.setTimeouts(pool.getTimeouts());
+            statistics.setAverageWaitTime(pool.getAverageWaitTime());
+            statistics.setMaxWaitTime(pool.getMaxWaitTime());
+            statistics.setLaunched(pool.getLaunched());
+            statistics.setRestarted(pool.getRestarted());
+            statistics.setEvicted(pool.getEvicted());
+            statistics.setUtilisation(pool.getUtilisation());
+        }
+        return statistics;
+    }
+
     /**
      * Remove a model. The model files are deleted at models directory
      * and it is removed from the server context.
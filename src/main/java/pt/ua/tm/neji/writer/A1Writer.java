@@ -29,6 +29,7 @@ import pt.ua.tm.neji.core.annotation.Identifier;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree.TreeTraversalOrderEnum;
@@ -49,6 +50,7 @@ import java.util.Map.Entry;
  * @since 1.0
  */
 @Requires({Resource.Tokens, Resource.Annotations})
+@Resettable
 public class A1Writer extends BaseWriter {
 
     /**
@@ -70,6 +72,15 @@ public class A1Writer extends BaseWriter {
         this.normalizationCounter = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.content = new StringBuilder();
+        this.offset = 0;
+        this.processedAnnotations = 0;
+        this.normalizationCounter = 0;
+    }
+
 //    public A1Writer(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
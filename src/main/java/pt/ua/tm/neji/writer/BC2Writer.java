@@ -33,6 +33,7 @@ import pt.ua.tm.neji.core.module.BaseModule;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Module;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
@@ -43,6 +44,7 @@ import pt.ua.tm.neji.tree.TreeNode;
  * @author jeronimo
  */
 @Requires({Resource.Tokens, Resource.Annotations})
+@Resettable
 public class BC2Writer extends BaseWriter {
 
     /**
@@ -65,6 +67,12 @@ public class BC2Writer extends BaseWriter {
         getPipeline().setCorpus(corpus);
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.content = new StringBuilder();
+    }
+
     private Module.Action text_action = new BaseModule.SentenceIteratorDefaultAction() {
         @Override
         public void execute(StringBuffer yytext, int start, Sentence nextSentence) {
@@ -23,6 +23,7 @@ import pt.ua.tm.neji.context.OutputFormat;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.exception.NejiException;
@@ -40,6 +41,7 @@ import java.io.ObjectOutputStream;
  * @since 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class Base64Writer extends BaseWriter {
 
     /**
@@ -75,6 +77,12 @@ public class Base64Writer extends BaseWriter {
         this.dumper = new CorpusDumper(corpus);
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        setDumper(getPipeline().getCorpus());
+    }
+
     private EofAction eof_action = new EofAction() {
         @Override
         public void execute(StringBuffer yytext, int start) {
@@ -28,6 +28,7 @@ import pt.ua.tm.neji.core.corpus.Relation;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
@@ -46,6 +47,7 @@ import java.util.Map;
  * @version 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class BioCWriter extends BaseWriter {
 
     /** {@link org.slf4j.Logger} to be used in the class. */
@@ -67,7 +69,16 @@ public class BioCWriter extends BaseWriter {
         super(DfaRun.UNMATCHED_COPY);
         super.addActionToGoofedElement(text_action, "s");
         super.setEofAction(eof_action);
+        startCollection();
+    }
+
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        startCollection();
+    }
 
+    private void startCollection() throws NejiException {
         this.content = new StringBuilder();
         this.offset = 0;
         this.annotationToRefId = new HashMap<>();
@@ -29,6 +29,7 @@ import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.corpus.dependency.LabeledEdge;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree;
@@ -47,6 +48,7 @@ import java.util.Set;
  * @since 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class CoNLLWriter extends BaseWriter {
 
     /**
@@ -63,6 +65,12 @@ public class CoNLLWriter extends BaseWriter {
         this.startSentence = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startSentence = 0;
+    }
+
 //    public CoNLLWriter(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
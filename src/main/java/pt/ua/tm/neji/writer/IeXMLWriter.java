@@ -28,6 +28,7 @@ import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.corpus.Token;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.disambiguator.Disambiguator;
 import pt.ua.tm.neji.exception.NejiException;
@@ -48,6 +49,7 @@ import java.util.regex.Pattern;
  * @since 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class IeXMLWriter extends BaseWriter {
 
     private static Logger logger = LoggerFactory.getLogger(IeXMLWriter.class);
@@ -81,6 +83,13 @@ public class IeXMLWriter extends BaseWriter {
         this.nProcessedSentences = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.startSentence = 0;
+        this.nProcessedSentences = 0;
+    }
+
 //    public IeXMLWriter(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
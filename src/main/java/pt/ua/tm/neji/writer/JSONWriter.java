@@ -29,6 +29,7 @@ import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.TreeNode;
@@ -48,6 +49,7 @@ import java.util.List;
  * @since 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class JSONWriter extends BaseWriter {
 
     /** {@link Logger} to be used in the class. */
@@ -65,6 +67,14 @@ public class JSONWriter extends BaseWriter {
         this.json = new ArrayList<JSONSentence>();
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.offset = 0;
+        this.jsonSentenceID = 0;
+        this.json = new ArrayList<JSONSentence>();
+    }
+
 //    public JSONWriter(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
@@ -23,6 +23,7 @@ import pt.ua.tm.neji.core.annotation.Annotation;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.TreeNode;
@@ -36,6 +37,7 @@ import pt.ua.tm.neji.tree.TreeNode;
  * @since 1.0
  */
 @Requires({Resource.Tokens})
+@Resettable
 public class NejiWriter extends BaseWriter {
 
     private static Logger logger = LoggerFactory.getLogger(NejiWriter.class);
@@ -53,6 +55,14 @@ public class NejiWriter extends BaseWriter {
         this.offset = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.content = new StringBuilder();
+        this.counter = 1;
+        this.offset = 0;
+    }
+
 //    public NejiWriter(final Corpus corpus) throws NejiException {
 //        this();
 //        getPipeline().setCorpus(corpus);
@@ -30,6 +30,7 @@ import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
 import pt.ua.tm.neji.core.module.BaseWriter;
 import pt.ua.tm.neji.core.module.Requires;
+import pt.ua.tm.neji.core.module.Resettable;
 import pt.ua.tm.neji.core.module.Resource;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.tree.Tree.TreeTraversalOrderEnum;
@@ -45,6 +46,7 @@ import pt.ua.tm.neji.context.OutputFormat;
  * @author Tiago Nunes (<a href="mailto:tiago.nunes@ua.pt">tiago.nunes@ua.pt</a>))
  */
 @Requires({Resource.Tokens, Resource.Annotations})
+@Resettable
 public class PipeWriter extends BaseWriter {
 
     /**
@@ -65,6 +67,14 @@ public class PipeWriter extends BaseWriter {
         this.processedAnnotations = 0;
     }
 
+    @Override
+    public void reset() throws NejiException {
+        super.reset();
+        this.content = new StringBuilder();
+        this.offset = 0;
+        this.processedAnnotations = 0;
+    }
+
     public PipeWriter(final Corpus corpus) throws NejiException {
         this();
         getPipeline().setCorpus(corpus);
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import cc.mallet.pipe.Pipe;
+import cc.mallet.pipe.SerialPipes;
+import cc.mallet.types.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.Constants.Parsing;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.train.config.ModelConfig;
+import pt.ua.tm.neji.train.features.mallet.FeaturePipe;
+import pt.ua.tm.neji.train.model.CRFModel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Measures the time per sentence of the feature extraction pipes of the example model, before and after
+ * replacing them by {@link FeaturePipe}s. Not run with the unit tests.
+ *
+ * @version 1.0
+ */
+public class FeaturePipeBenchmark {
+
+    private static Logger logger = LoggerFactory.getLogger(FeaturePipeBenchmark.class);
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws NejiException, IOException {
+        Constants.verbose = true;
+        Corpus corpus = Variables.getAbstractsCorpus();
+
+        ModelConfig config = new ModelConfig("example/train/model.config");
+        CRFModel model = new CRFModel(config, Parsing.BW, new FileInputStream("example/train/model.gz"));
+        model.getCRF().getInputPipe().getDataAlphabet().stopGrowth();
+
+        // Keep the original sequence of pipes, since compilation replaces them in place
+        SerialPipes compiled = (SerialPipes) model.getCRF().getInputPipe();
+        SerialPipes original = new SerialPipes(new ArrayList<>(compiled.pipes()));
+        FeaturePipe.compile(compiled);
+
+        // Warm up and measure both pipes
+        benchmark(original, corpus);
+        benchmark(compiled, corpus);
+        long originalTime = benchmark(original, corpus);
+        long compiledTime = benchmark(compiled, corpus);
+
+        int n = corpus.size() * ROUNDS;
+        logger.info("Original pipes: {} ns per sentence", originalTime / n);
+        logger.info("Compiled pipes: {} ns per sentence", compiledTime / n);
+    }
+
+    private static long benchmark(Pipe pipe, Corpus corpus) {
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Sentence s : corpus) {
+                pipe.instanceFrom(new Instance(s, null, 0, null));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
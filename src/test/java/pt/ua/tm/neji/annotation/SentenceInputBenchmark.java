@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import cc.mallet.pipe.Pipe;
+import cc.mallet.types.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.ml.MLModel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the time and memory allocated per sentence when converting sentences into Mallet instances from
+ * their text representation and directly from their tokens. Not run with the unit tests.
+ *
+ * @version 1.0
+ */
+public class SentenceInputBenchmark {
+
+    private static Logger logger = LoggerFactory.getLogger(SentenceInputBenchmark.class);
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws NejiException {
+        Constants.verbose = true;
+        Corpus corpus = Variables.getAbstractsCorpus();
+        MLModel model = Variables.getModel();
+
+        model.getCrf().getCRF().getInputPipe().getDataAlphabet().stopGrowth();
+        Pipe pipe = model.getCrf().getCRF().getInputPipe();
+
+        // Warm up and measure both inputs
+        benchmark(pipe, corpus, true);
+        benchmark(pipe, corpus, false);
+        long[] text = benchmark(pipe, corpus, true);
+        long[] sentence = benchmark(pipe, corpus, false);
+
+        int n = corpus.size() * ROUNDS;
+        logger.info("Text input: {} ns and {} bytes per sentence", text[0] / n, text[1] / n);
+        logger.info("Sentence input: {} ns and {} bytes per sentence", sentence[0] / n, sentence[1] / n);
+    }
+
+    private static long[] benchmark(Pipe pipe, Corpus corpus, boolean fromText) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        long startBytes = allocatedBytes(bean);
+        long startTime = System.nanoTime();
+
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Sentence s : corpus) {
+                Object data = fromText ? s.toExportFormat() : s;
+                pipe.instanceFrom(new Instance(data, null, 0, null));
+            }
+        }
+
+        return new long[]{System.nanoTime() - startTime, allocatedBytes(bean) - startBytes};
+    }
+
+    private static long allocatedBytes(ThreadMXBean bean) {
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -22,6 +22,7 @@ import pt.ua.tm.neji.core.annotation.Annotation;
 import pt.ua.tm.neji.core.annotation.AnnotationImpl;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.core.corpus.Token;
 
 /**
  * Testing class for nested, intersected or exact annotation detection.
@@ -119,4 +120,41 @@ public class TestAnnotation extends TestCase {
         assertFalse(a1.contains(a2));
         assertFalse(a2.contains(a1));
     }
+
+    public void testCharPositions() {
+        Corpus c = new Corpus();
+        c.setText("Human BRCA1 gene-expression");
+
+        // Human, BRCA1, gene, -, expression
+        Sentence s = new Sentence(c);
+        s.setStart(0);
+        s.setEnd(27);
+        s.addToken(new Token(s, 0, 4, 0));
+        s.addToken(new Token(s, 6, 10, 1));
+        s.addToken(new Token(s, 12, 15, 2));
+        s.addToken(new Token(s, 16, 16, 3));
+        s.addToken(new Token(s, 17, 26, 4));
+
+        Annotation a = AnnotationImpl.newAnnotationByCharPositions(s, 6, 10, 1.0);
+        assertEquals(1, a.getStartIndex());
+        assertEquals(1, a.getEndIndex());
+
+        a = AnnotationImpl.newAnnotationByCharPositions(s, 12, 26, 1.0);
+        assertEquals(2, a.getStartIndex());
+        assertEquals(4, a.getEndIndex());
+
+        // Mentions that do not fit the tokenization
+        assertNull(AnnotationImpl.newAnnotationByCharPositions(s, 7, 9, 1.0));
+        assertNull(AnnotationImpl.newAnnotationByCharPositions(s, 13, 14, 1.0));
+
+        assertEquals(-1, s.getTokenIndexByStart(-1));
+        assertEquals(4, s.getTokenIndexByStart(30));
+        assertEquals(-1, s.getTokenIndexByEnd(3));
+        assertEquals(3, s.getTokenIndexByEnd(16));
+
+        // Tokens in reverse order are searched sequentially
+        s.reverseTokens();
+        assertEquals(4, s.getTokenIndexByStart(0));
+        assertEquals(-1, s.getTokenIndexByEnd(3));
+    }
 }
@@ -25,8 +25,14 @@ import pt.ua.tm.neji.core.annotation.Annotation;
 import pt.ua.tm.neji.core.corpus.*;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.ml.MLModel;
+import pt.ua.tm.neji.ml.MLScoring;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Testing class for Annotator class, which loads a ML model and annotates the specified sentence.
@@ -85,4 +91,79 @@ public class TestAnnotator extends TestCase {
             logger.error(e.toString());
         }
     }
-}
\ No newline at end of file
+
+    public void testSharedModel() throws Exception {
+        Constants.verbose = true;
+        final Corpus corpus = Variables.getAbstractsCorpus();
+        final MLModel model = Variables.getModel();
+        final int numThreads = 4;
+
+        // Every thread must use the same model
+        model.addMultiThreadingSupport(numThreads);
+        assertSame(model.take(), model.take());
+
+        List<String> expected = new ArrayList<>();
+        for (Sentence s : corpus) {
+            expected.add(MLAnnotator.annotate(s, model.getCrf()).toString());
+        }
+
+        // Annotate disjoint sets of sentences concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int first = t;
+            futures.add(executor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    List<String> annotations = new ArrayList<>();
+                    for (int i = first; i < corpus.size(); i += numThreads) {
+                        annotations.add(MLAnnotator.annotate(corpus.getSentence(i), model.take()).toString());
+                    }
+                    return annotations;
+                }
+            }));
+        }
+
+        for (int t = 0; t < numThreads; t++) {
+            List<String> annotations = futures.get(t).get();
+            for (int i = t, j = 0; i < corpus.size(); i += numThreads, j++) {
+                assertEquals(expected.get(i), annotations.get(j));
+            }
+        }
+        executor.shutdown();
+    }
+
+    public void testScoring() throws NejiException {
+        Corpus corpus = Variables.getAbstractsCorpus();
+        MLModel model = Variables.getModel();
+
+        for (Sentence s : corpus) {
+            List<Annotation> full = MLAnnotator.annotate(s, model.getCrf(), MLScoring.FULL);
+            List<Constants.LabelTag> labels = getLabels(s);
+
+            // The Viterbi path has the same labels and probability as the constrained lattice
+            List<Annotation> viterbi = MLAnnotator.annotate(s, model.getCrf(), MLScoring.VITERBI);
+            assertEquals(labels, getLabels(s));
+            assertEquals(full.toString(), viterbi.toString());
+            for (int i = 0; i < full.size(); i++) {
+                assertEquals(full.get(i).getScore(), viterbi.get(i).getScore(), 1e-9);
+            }
+
+            // Annotations without scoring have the same labels and a score of 1
+            List<Annotation> none = MLAnnotator.annotate(s, model.getCrf(), MLScoring.NONE);
+            assertEquals(labels, getLabels(s));
+            assertEquals(full.toString(), none.toString());
+            for (Annotation a : none) {
+                assertEquals(1.0, a.getScore());
+            }
+        }
+    }
+
+    private static List<Constants.LabelTag> getLabels(Sentence s) {
+        List<Constants.LabelTag> labels = new ArrayList<>();
+        for (Token t : s) {
+            labels.add(t.getLabel());
+        }
+        return labels;
+    }
+}
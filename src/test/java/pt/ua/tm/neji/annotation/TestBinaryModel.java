@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.Constants.Parsing;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.ml.MLAnnotator;
+import pt.ua.tm.neji.train.config.ModelConfig;
+import pt.ua.tm.neji.train.model.CRFModel;
+import pt.ua.tm.neji.train.model.BinaryModelReader;
+import pt.ua.tm.neji.train.model.BinaryModelWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Testing class for the binary model format, which converts the example model and compares the annotations
+ * provided by the serialized and the memory-mapped models.
+ *
+ * @version 1.0
+ */
+public class TestBinaryModel extends TestCase {
+
+    private static org.slf4j.Logger logger = LoggerFactory.getLogger(TestBinaryModel.class);
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestBinaryModel(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestBinaryModel.class);
+    }
+
+    public void test() throws NejiException, IOException {
+        Constants.verbose = true;
+        Corpus corpus = Variables.getAbstractsCorpus();
+        ModelConfig config = new ModelConfig("example/train/model.config");
+
+        long start = System.nanoTime();
+        CRFModel serialized = new CRFModel(config, Parsing.BW, new FileInputStream("example/train/model.gz"));
+        logger.info("Serialized model loaded in {} ms", (System.nanoTime() - start) / 1000000);
+
+        File file = File.createTempFile("model", ".bin");
+        file.deleteOnExit();
+        BinaryModelWriter.write(serialized.getCRF(), file);
+
+        assertTrue(BinaryModelReader.isBinaryModel(file));
+        assertFalse(BinaryModelReader.isBinaryModel(new File("example/train/model.gz")));
+
+        start = System.nanoTime();
+        CRFModel binary = new CRFModel(config, Parsing.BW);
+        binary.setCRF(BinaryModelReader.read(file));
+        logger.info("Binary model loaded in {} ms", (System.nanoTime() - start) / 1000000);
+
+        assertEquals(serialized.getCRF().getInputAlphabet().size(), binary.getCRF().getInputAlphabet().size());
+        assertEquals(serialized.getCRF().numStates(), binary.getCRF().numStates());
+
+        // Both models must provide the same annotations
+        for (Sentence s : corpus) {
+            String expected = MLAnnotator.annotate(s, serialized).toString();
+            String actual = MLAnnotator.annotate(s, binary).toString();
+            assertEquals(expected, actual);
+        }
+    }
+}
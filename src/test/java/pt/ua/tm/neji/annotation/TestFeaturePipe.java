@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import cc.mallet.pipe.SerialPipes;
+import cc.mallet.types.FeatureVectorSequence;
+import cc.mallet.types.Instance;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.Constants.Parsing;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.train.config.ModelConfig;
+import pt.ua.tm.neji.train.features.mallet.FeaturePipe;
+import pt.ua.tm.neji.train.model.CRFModel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Testing class for the compiled feature extraction, which compares the features extracted by the pipes of the
+ * example model with the ones extracted after replacing them by {@link FeaturePipe}s.
+ *
+ * @version 1.0
+ */
+public class TestFeaturePipe extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestFeaturePipe(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestFeaturePipe.class);
+    }
+
+    public void test() throws NejiException, IOException {
+        Constants.verbose = true;
+        Corpus corpus = Variables.getAbstractsCorpus();
+
+        ModelConfig config = new ModelConfig("example/train/model.config");
+        CRFModel model = new CRFModel(config, Parsing.BW, new FileInputStream("example/train/model.gz"));
+        model.getCRF().getInputPipe().getDataAlphabet().stopGrowth();
+
+        // Keep the original sequence of pipes, since compilation replaces them in place
+        SerialPipes compiled = (SerialPipes) model.getCRF().getInputPipe();
+        SerialPipes original = new SerialPipes(new ArrayList<>(compiled.pipes()));
+        FeaturePipe.compile(compiled);
+
+        assertTrue(compiled.size() < original.size());
+
+        // Both pipes must result in the same features
+        for (Sentence s : corpus) {
+            FeatureVectorSequence expected = (FeatureVectorSequence) original.instanceFrom(
+                    new Instance(s, null, 0, null)).getData();
+            FeatureVectorSequence actual = (FeatureVectorSequence) compiled.instanceFrom(
+                    new Instance(s, null, 0, null)).getData();
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getFeatureVector(i).toString(), actual.getFeatureVector(i).toString());
+            }
+        }
+    }
+}
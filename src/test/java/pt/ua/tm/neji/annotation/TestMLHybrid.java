@@ -24,6 +24,7 @@ import pt.ua.tm.neji.train.model.CRFBase;
 import pt.ua.tm.neji.core.corpus.*;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
 import pt.ua.tm.neji.core.pipeline.Pipeline;
+import pt.ua.tm.neji.tree.Tree;
 import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
 import pt.ua.tm.neji.exception.NejiException;
@@ -37,8 +38,10 @@ import pt.ua.tm.neji.reader.RawReader;
 import pt.ua.tm.neji.sentencesplitter.LingpipeSentenceSplitter;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Testing class for MLHybrid module, which uses the Annotator class and performs
@@ -180,5 +183,44 @@ public class TestMLHybrid extends TestCase {
 
         assertEquals(":::PRGE", c.getSentence(0).getTreeAnnotations(1).get(0).getStringIDs());
     }
-}
 
+    public void testBatch() throws Exception {
+        Constants.verbose = true;
+        String text = new String(Files.readAllBytes(new File("example/annotate/in/22528326.txt").toPath()), "UTF-8");
+        Corpus c1 = new Corpus();
+
+        Pipeline p = new DefaultPipeline(c1)
+            .add(new RawReader())
+            .add(new NLP(new GDepParser(ParserLanguage.ENGLISH, ParserLevel.CHUNKING, new LingpipeSentenceSplitter(), false)));
+        final String out = p.run(new ByteArrayInputStream(text.getBytes())).get(0).toString();
+
+        Corpus c2 = (Corpus)c1.clone();
+        Corpus c3 = (Corpus)c1.clone();
+        final MLModel model = Variables.getModel();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        annotate(out, c1, model, false, null);
+        annotate(out, c2, model, true, null);
+        annotate(out, c3, model, true, pool);
+        pool.shutdown();
+
+        // Sentences decoded in batch, sequentially or in parallel, must have the same annotations
+        assertTrue(c1.size() > 1);
+        for (int i = 0; i < c1.size(); i++) {
+            String expected = c1.getSentence(i).getTreeAnnotations(Tree.TreeTraversalOrderEnum.PRE_ORDER, false).toString();
+            assertEquals(expected, c2.getSentence(i).getTreeAnnotations(Tree.TreeTraversalOrderEnum.PRE_ORDER, false).toString());
+            assertEquals(expected, c3.getSentence(i).getTreeAnnotations(Tree.TreeTraversalOrderEnum.PRE_ORDER, false).toString());
+        }
+    }
+
+    private void annotate(final String str, final Corpus c, final MLModel model, final boolean batch,
+                          final ForkJoinPool pool) throws NejiException {
+        final MLHybrid ml = new MLHybrid(model.getCrf(), model.getSemanticGroup(), model.getNormalizationDictionaries(), true);
+        ml.setBatch(batch);
+        ml.setPool(pool);
+        new DefaultPipeline(c){{
+            add(ml);
+            run(new ByteArrayInputStream(str.getBytes()));
+        }};
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.dictionary.Dictionary;
+import pt.ua.tm.neji.ml.NormalizationCache;
+import uk.ac.man.documentparser.dataholders.Document;
+import uk.ac.man.entitytagger.Mention;
+import uk.ac.man.entitytagger.matching.Matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testing class for the cache of the identifiers found by normalization dictionaries.
+ *
+ * @version 1.0
+ */
+public class TestNormalizationCache extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestNormalizationCache(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestNormalizationCache.class);
+    }
+
+    public void test() {
+        CountingMatcher genes = new CountingMatcher("p53", "UMLS:C0079419:T116:PRGE");
+        CountingMatcher proteins = new CountingMatcher("IL-2", "UMLS:C0021756:T116:PRGE");
+        Dictionary d1 = new Dictionary(genes, "PRGE");
+        Dictionary d2 = new Dictionary(proteins, "PRGE");
+        NormalizationCache cache = new NormalizationCache("test", 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("UMLS:C0079419:T116:PRGE", cache.lookup(d1, "p53")[0]);
+            assertNull(cache.lookup(d1, "IL-2"));
+            assertEquals("UMLS:C0021756:T116:PRGE", cache.lookup(d2, "IL-2")[0]);
+        }
+
+        // Each text is matched once for each dictionary, including texts without mentions
+        assertEquals(2, genes.count);
+        assertEquals(1, proteins.count);
+        assertEquals(3, cache.getMisses());
+        assertEquals(27, cache.getHits());
+        assertEquals(0.9, cache.getHitRate(), 1e-9);
+    }
+
+    public void testCapacity() {
+        CountingMatcher genes = new CountingMatcher("p53", "UMLS:C0079419:T116:PRGE");
+        Dictionary d = new Dictionary(genes, "PRGE");
+        NormalizationCache cache = new NormalizationCache("test", 10);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.lookup(d, "p53");
+            cache.lookup(d, "gene " + i);
+            assertTrue(cache.size() <= 10);
+        }
+
+        // Frequent texts are kept while the other ones are evicted
+        assertEquals(1001, genes.count);
+        assertNull(cache.lookup(d, "gene 0"));
+        assertEquals(1002, genes.count);
+    }
+
+    /**
+     * Matcher of a single term, which counts how many texts were matched.
+     */
+    private static class CountingMatcher extends Matcher {
+
+        private final String term;
+        private final String id;
+        private int count;
+
+        CountingMatcher(String term, String id) {
+            this.term = term;
+            this.id = id;
+            this.count = 0;
+        }
+
+        @Override
+        public List<Mention> match(String text, Document document) {
+            return match(text);
+        }
+
+        @Override
+        public List<Mention> match(String text) {
+            count++;
+            List<Mention> mentions = new ArrayList<>();
+            if (text.equals(term)) {
+                mentions.add(new Mention(new String[]{id}, 0, text.length(), text));
+            }
+            return mentions;
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.annotation;
+
+import cc.mallet.pipe.Pipe;
+import cc.mallet.types.FeatureVectorSequence;
+import cc.mallet.types.Instance;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.ml.MLModel;
+
+/**
+ * Testing class for the conversion of sentences into Mallet instances, which compares the features extracted
+ * from the text representation of each sentence with the ones extracted directly from its tokens.
+ *
+ * @version 1.0
+ */
+public class TestSentenceInput extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestSentenceInput(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestSentenceInput.class);
+    }
+
+    public void test() throws NejiException {
+        Constants.verbose = true;
+        Corpus corpus = Variables.getAbstractsCorpus();
+        MLModel model = Variables.getModel();
+
+        model.getCrf().getCRF().getInputPipe().getDataAlphabet().stopGrowth();
+        Pipe pipe = model.getCrf().getCRF().getInputPipe();
+
+        // Both inputs must result in the same features
+        for (Sentence s : corpus) {
+            FeatureVectorSequence expected = (FeatureVectorSequence) pipe.instanceFrom(
+                    new Instance(s.toExportFormat(), null, 0, null)).getData();
+            FeatureVectorSequence actual = (FeatureVectorSequence) pipe.instanceFrom(
+                    new Instance(s, null, 0, null)).getData();
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getFeatureVector(i).toString(), actual.getFeatureVector(i).toString());
+            }
+        }
+    }
+}
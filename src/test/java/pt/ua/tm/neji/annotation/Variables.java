@@ -17,6 +17,8 @@ package pt.ua.tm.neji.annotation;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 import pt.ua.tm.neji.core.corpus.Corpus;
 import pt.ua.tm.neji.core.parser.Parser;
 import pt.ua.tm.neji.core.parser.ParserLanguage;
@@ -37,6 +39,7 @@ public class Variables {
     private static Corpus corpus;
     private static Corpus corpus2;
     private static Corpus corpus3;
+    private static Corpus abstracts;
     static final String str = "human BRCA1 gene";
     static final String str2 = str + " and P53";
     static final String str3 = "human NAT2 SNP genotyping";
@@ -96,4 +99,23 @@ public class Variables {
         }
         return corpus3;
     }
+
+    static Corpus getAbstractsCorpus() throws NejiException {
+        if(abstracts==null){
+            abstracts = new Corpus();
+
+            try {
+                Parser parser = new GDepParser(ParserLanguage.ENGLISH, ParserLevel.CHUNKING, new LingpipeSentenceSplitter(), false).launch();
+                File[] files = new File("example/annotate/in").listFiles();
+                Arrays.sort(files);
+                for (File f : files) {
+                    parser.parse(abstracts, new String(Files.readAllBytes(f.toPath()), "UTF-8"));
+                }
+                parser.close();
+            }catch (IOException ex){
+                throw new NejiException(ex);
+            }
+        }
+        return abstracts;
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.train.config.Resources;
+import pt.ua.tm.neji.train.dictionary.DictionaryAux;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the time per mention of the stopwords pattern and of the stopwords set, on the words and pairs of
+ * words of the example documents. Not run with the unit tests.
+ *
+ * @version 1.0
+ */
+public class StopwordsBenchmark {
+
+    private static Logger logger = LoggerFactory.getLogger(StopwordsBenchmark.class);
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws NejiException, IOException {
+        Pattern pattern = DictionaryAux.loadStopwords(Resources.getResource("stopwords"));
+        StopwordSet set = Resources.getStopwords();
+        List<String> mentions = TestStopwords.getMentions();
+
+        // Warm up and measure both
+        benchmark(pattern, mentions);
+        benchmark(set, mentions);
+        long patternTime = benchmark(pattern, mentions);
+        long setTime = benchmark(set, mentions);
+
+        int n = mentions.size() * ROUNDS;
+        logger.info("{} mentions", mentions.size());
+        logger.info("Stopwords pattern: {} ns per mention", patternTime / n);
+        logger.info("Stopwords set: {} ns per mention", setTime / n);
+    }
+
+    private static long benchmark(Pattern pattern, List<String> mentions) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (String m : mentions) {
+                if (pattern.matcher(m).matches()) {
+                    count++;
+                }
+            }
+        }
+        logger.debug("{} stopwords found", count);
+        return System.nanoTime() - start;
+    }
+
+    private static long benchmark(StopwordSet set, List<String> mentions) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            for (String m : mentions) {
+                if (set.contains(m)) {
+                    count++;
+                }
+            }
+        }
+        logger.debug("{} stopwords found", count);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.dictionary.CombinedMatcher;
+import uk.ac.man.entitytagger.Mention;
+
+import java.util.List;
+
+/**
+ * Testing class for the combined matcher, which matches the terms of several dictionaries in a single pass.
+ *
+ * @version 1.0
+ */
+public class TestCombinedMatcher extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestCombinedMatcher(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestCombinedMatcher.class);
+    }
+
+    public void test() {
+        CombinedMatcher matcher = new CombinedMatcher(true);
+        int prge = matcher.addDictionary();
+        int diso = matcher.addDictionary();
+        matcher.load(prge, "1:::PRGE\tNAT2|human NAT2 SNP");
+        matcher.load(prge, "2:::PRGE\tnat2");
+        matcher.load(diso, "3:::DISO\tNAT-2|SNP genotyping");
+        matcher.load(diso, "4:::DISO\tcorticosteroids");
+        assertEquals(2, matcher.getNumDictionaries());
+        assertEquals(2, matcher.getMatcher(diso).size());
+
+        String text = "Human  NAT2 SNP genotyping of NAT-2, NAT - 2 and NAT2s (corticosteroids).";
+        List<List<Mention>> mentions = matcher.match(text);
+
+        // Case is ignored and any white space matches a single space
+        List<Mention> first = mentions.get(prge);
+        assertEquals(2, first.size());
+        assertMention(first.get(0), 0, 15, "Human  NAT2 SNP", "1:::PRGE");
+        // Identifiers of the same term are merged, and words are not matched inside larger words
+        assertMention(first.get(1), 7, 11, "NAT2", "1:::PRGE", "2:::PRGE");
+
+        // Symbols must have the spacing of the term
+        List<Mention> second = mentions.get(diso);
+        assertEquals(3, second.size());
+        assertMention(second.get(0), 12, 26, "SNP genotyping", "3:::DISO");
+        assertMention(second.get(1), 30, 35, "NAT-2", "3:::DISO");
+        assertMention(second.get(2), 56, 71, "corticosteroids", "4:::DISO");
+
+        // The matcher of each dictionary only provides its mentions
+        assertMentions(second, matcher.getMatcher(diso).match(text));
+        assertMentions(first, matcher.match(text, prge));
+    }
+
+    private static void assertMentions(List<Mention> expected, List<Mention> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Mention m = expected.get(i);
+            assertMention(actual.get(i), m.getStart(), m.getEnd(), m.getText(), m.getIds());
+        }
+    }
+
+    private static void assertMention(Mention m, int start, int end, String text, String... ids) {
+        assertEquals(start, m.getStart());
+        assertEquals(end, m.getEnd());
+        assertEquals(text, m.getText());
+        assertEquals(ids.length, m.getIds().length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], m.getIds()[i]);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.dictionary.CompactMatcher;
+import pt.ua.tm.neji.exception.NejiException;
+import uk.ac.man.entitytagger.Mention;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Testing class for the compact matcher, which compiles a dictionary into an index and matches it.
+ *
+ * @version 1.0
+ */
+public class TestCompactMatcher extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestCompactMatcher(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestCompactMatcher.class);
+    }
+
+    public void test() throws IOException, NejiException {
+        File dictionary = File.createTempFile("dictionary", ".tsv");
+        dictionary.deleteOnExit();
+        try (PrintWriter pw = new PrintWriter(dictionary, "UTF-8")) {
+            pw.println("1:::PRGE\tNAT2|human NAT2 SNP|NAT2 SNP genotyping");
+            pw.println("# Comment");
+            pw.println("2:::PRGE\tnat2|NAT-2");
+            pw.println("3:::PRGE\tcorticosteroids|\u00e1cido");
+        }
+
+        File index = File.createTempFile("dictionary", ".idx");
+        index.deleteOnExit();
+        CompactMatcher.compile(dictionary, index, true);
+        CompactMatcher matcher = CompactMatcher.open(index);
+        assertTrue(matcher.isIgnoreCase());
+        assertEquals(6, matcher.size());
+
+        String text = "Human  NAT2 SNP analysis of NAT-2, NAT - 2, NAT2s and \u00c1cido (corticosteroids).";
+        List<Mention> mentions = matcher.match(text);
+        assertEquals(5, mentions.size());
+
+        // Case is ignored and any white space matches a single space
+        assertMention(mentions.get(0), 0, 15, "Human  NAT2 SNP", "1:::PRGE");
+        // Identifiers of the same term are merged, and a prefix of a term is not matched
+        assertMention(mentions.get(1), 7, 11, "NAT2", "1:::PRGE", "2:::PRGE");
+        // Symbols must have the spacing of the term
+        assertMention(mentions.get(2), 28, 33, "NAT-2", "2:::PRGE");
+        assertMention(mentions.get(3), 54, 59, "\u00c1cido", "3:::PRGE");
+        assertMention(mentions.get(4), 61, 76, "corticosteroids", "3:::PRGE");
+
+        // Case-sensitive index
+        CompactMatcher.compile(dictionary, index, false);
+        matcher = CompactMatcher.open(index);
+        assertFalse(matcher.isIgnoreCase());
+        mentions = matcher.match(text);
+        assertEquals(3, mentions.size());
+        assertMention(mentions.get(0), 7, 11, "NAT2", "1:::PRGE");
+    }
+
+    public void testOutdatedIndex() throws IOException, NejiException {
+        File dictionary = File.createTempFile("dictionary", ".tsv");
+        dictionary.deleteOnExit();
+        try (PrintWriter pw = new PrintWriter(dictionary, "UTF-8")) {
+            pw.println("1:::PRGE\tNAT2");
+        }
+
+        File index = File.createTempFile("dictionary", ".idx");
+        index.deleteOnExit();
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, true));
+
+        CompactMatcher.compile(dictionary, index, true);
+        assertTrue(CompactMatcher.isCompiled(dictionary, index, true));
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, false));
+
+        // Changing the dictionary makes the index outdated
+        try (PrintWriter pw = new PrintWriter(dictionary, "UTF-8")) {
+            pw.println("1:::PRGE\tNAT1");
+        }
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, true));
+    }
+
+    public void testInvalidIndex() throws IOException {
+        File index = File.createTempFile("dictionary", ".idx");
+        index.deleteOnExit();
+        try (PrintWriter pw = new PrintWriter(index, "UTF-8")) {
+            pw.println("1:::PRGE\tNAT2");
+        }
+
+        try {
+            CompactMatcher.open(index);
+            fail("Expected an exception for a file that is not an index.");
+        } catch (NejiException ex) {
+            // Expected
+        }
+    }
+
+    private static void assertMention(Mention m, int start, int end, String text, String... ids) {
+        assertEquals(start, m.getStart());
+        assertEquals(end, m.getEnd());
+        assertEquals(text, m.getText());
+        assertEquals(ids.length, m.getIds().length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], m.getIds()[i]);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.dictionary.CompactMatcher;
+import pt.ua.tm.neji.dictionary.DictionariesLoader;
+import pt.ua.tm.neji.dictionary.Dictionary;
+import pt.ua.tm.neji.exception.NejiException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Testing class for the dictionaries loader, which loads compiled dictionaries concurrently.
+ *
+ * @version 1.0
+ */
+public class TestDictionariesLoader extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestDictionariesLoader(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestDictionariesLoader.class);
+    }
+
+    public void test() throws IOException, NejiException {
+        File folder = Files.createTempDirectory("dictionaries").toFile();
+        List<String> priority = Arrays.asList("compact:d_DISO.tsv", "compact:a_PRGE.tsv", "c_ANAT.tsv",
+                "compact:b_CHED.tsv");
+        write(new File(folder, "a_PRGE.tsv"), "1:::PRGE\tNAT2");
+        write(new File(folder, "b_CHED.tsv"), "2:::CHED\tcorticosteroids");
+        write(new File(folder, "c_ANAT.tsv"), "3:::ANAT\tliver");
+        write(new File(folder, "d_DISO.tsv"), "4:::DISO\tasthma");
+
+        // Compile the compact dictionaries, except the last one that is compiled when loaded
+        List<String> names = new ArrayList<>(priority.subList(0, 3));
+        assertEquals(2, new DictionariesLoader(names).compile(folder, true));
+        assertEquals(0, new DictionariesLoader(names).compile(folder, true));
+
+        // Indexes of dictionaries without the compact prefix are ignored
+        File anatomy = new File(folder, "c_ANAT.tsv");
+        CompactMatcher.compile(anatomy, DictionariesLoader.getIndexFile(anatomy), true);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        DictionariesLoader dl = new DictionariesLoader(priority);
+        dl.load(folder, true, false, pool);
+        pool.shutdown();
+
+        // Dictionaries keep the priority order
+        Map<String, Dictionary> dictionaries = dl.getDictionaries();
+        assertEquals(Arrays.asList("d_DISO.tsv", "a_PRGE.tsv", "c_ANAT.tsv", "b_CHED.tsv"),
+                new ArrayList<>(dictionaries.keySet()));
+
+        String[] groups = {"DISO", "PRGE", "ANAT", "CHED"};
+        int i = 0;
+        for (Dictionary d : dictionaries.values()) {
+            assertEquals(groups[i], d.getGroup());
+            assertEquals(!groups[i].equals("ANAT"), d.getMatcher() instanceof CompactMatcher);
+            assertEquals(1, d.getMatcher().match("NAT2 in the liver of asthma patients under corticosteroids").size());
+            i++;
+        }
+
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    public void testOutdatedIndex() throws IOException, NejiException {
+        File folder = Files.createTempDirectory("dictionaries").toFile();
+        File dictionary = new File(folder, "a_PRGE.tsv");
+        File index = DictionariesLoader.getIndexFile(dictionary);
+        write(dictionary, "1:::PRGE\tNAT2");
+        CompactMatcher.compile(dictionary, index, true);
+        assertTrue(CompactMatcher.isCompiled(dictionary, index, true));
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, false));
+
+        // Touched dictionaries keep their index, since the checksum is the same
+        assertTrue(dictionary.setLastModified(dictionary.lastModified() - 10000));
+        assertTrue(CompactMatcher.isCompiled(dictionary, index, true));
+
+        // Modification times may only have a precision of seconds
+        write(dictionary, "1:::PRGE\tNAT1");
+        assertTrue(dictionary.setLastModified(dictionary.lastModified() + 10000));
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, true));
+
+        // Truncated indexes are compiled again when loaded
+        CompactMatcher.compile(dictionary, index, true);
+        try (RandomAccessFile raf = new RandomAccessFile(index, "rw")) {
+            raf.setLength(raf.length() - 8);
+        }
+        assertFalse(CompactMatcher.isCompiled(dictionary, index, true));
+
+        DictionariesLoader dl = new DictionariesLoader(Arrays.asList("compact:a_PRGE.tsv"));
+        dl.load(folder, true);
+        assertEquals(1, dl.getDictionaries().get("a_PRGE.tsv").getMatcher().match("NAT1 and NAT2").size());
+        assertTrue(CompactMatcher.isCompiled(dictionary, index, true));
+
+        dictionary.delete();
+        index.delete();
+        folder.delete();
+    }
+
+    public void testPriority() throws NejiException {
+        String priority = "a_PRGE.txt\ncompact:b_CHED.tsv\n";
+
+        // Entries keep the compact prefix, while names are the file names of the dictionaries
+        assertEquals(Arrays.asList("a_PRGE.tsv", "compact:b_CHED.tsv"), DictionariesLoader.loadPriorityEntries(
+                new ByteArrayInputStream(priority.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Arrays.asList("a_PRGE.tsv", "b_CHED.tsv"), DictionariesLoader.loadPriority(
+                new ByteArrayInputStream(priority.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(DictionariesLoader.isCompact("compact:b_CHED.tsv"));
+        assertEquals("b_CHED.tsv", DictionariesLoader.getDictionaryName("compact:b_CHED.tsv"));
+    }
+
+    private static void write(File file, String line) throws IOException {
+        try (PrintWriter pw = new PrintWriter(file, "UTF-8")) {
+            pw.println(line);
+        }
+    }
+}
@@ -20,13 +20,18 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import org.slf4j.LoggerFactory;
 import pt.ua.tm.neji.core.Constants;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.module.DfaCache;
+import pt.ua.tm.neji.core.pipeline.Pipeline;
 import pt.ua.tm.neji.pipeline.DefaultPipeline;
+import pt.ua.tm.neji.dictionary.CombinedMatcher;
 import pt.ua.tm.neji.dictionary.Dictionary;
 import pt.ua.tm.neji.dictionary.DictionaryHybrid;
 import pt.ua.tm.neji.dictionary.VariantMatcherLoader;
 import pt.ua.tm.neji.exception.NejiException;
 import pt.ua.tm.neji.parser.GDepParser;
 import pt.ua.tm.neji.core.parser.Parser;
+import pt.ua.tm.neji.misc.TextReplacer;
 import pt.ua.tm.neji.nlp.NLP;
 import pt.ua.tm.neji.core.parser.ParserLanguage;
 import pt.ua.tm.neji.core.parser.ParserLevel;
@@ -38,6 +43,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Testing class for DictionaryHybrid module, which matches terms and concepts from
@@ -83,6 +90,12 @@ public class TestDictionaryHybrid extends TestCase {
         testCase6(str, parser);
         testCase7(str, parser);
         testCase8(strDOUBLE, parser);
+        testCase9(str, parser);
+        testCase10(str, strDOUBLE, parser);
+        testCase11(strDOUBLE, parser);
+        testCase12(str, parser);
+        testCase13(strDOUBLE, parser);
+        testCase14(strDOUBLE, parser);
 
         parser.close();
     }
@@ -260,4 +273,191 @@ public class TestDictionaryHybrid extends TestCase {
                 "prescribed for asthma.\n" +
                 "\tT1\t 144  155\tmedications\t3:::PRGE", out.toString());
     }
+
+    private void testCase9(String str, Parser parser) throws NejiException, IOException {
+        //Test Case 9: two documents sharing the compiled automata of their modules
+
+        DfaCache cache = new DfaCache();
+        Dictionary dictionary = new Dictionary(new VariantMatcherLoader(true).
+                load("3:::PRGE\tmedications").
+                load("5:::PRGE\tcorticosteroids").
+                getMatcher(), "PRGE");
+
+        String expected = "S1\t   0  102\tInhaled corticosteroids (ICS) are the most" +
+                " commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE";
+
+        int cacheSize = 0;
+        for (int i = 0; i < 2; i++) {
+            InputStream in = new ByteArrayInputStream(str.getBytes("UTF-8"));
+            OutputStream out = new DefaultPipeline().
+                    setDfaCache(cache).
+                    add(new RawReader()).
+                    add(new NLP(parser)).
+                    add(new DictionaryHybrid(dictionary)).
+                    add(new NejiWriter()).
+                    run(in).get(0);
+
+//            logger.info("Test Case 9:\n{}", out.toString());
+            assertEquals(expected, out.toString());
+
+            if (i == 0) {
+                cacheSize = cache.size();
+            }
+        }
+        assertEquals(4, cacheSize);
+        assertEquals(cacheSize, cache.size());
+    }
+
+    private void testCase10(String str, String strDOUBLE, Parser parser) throws NejiException, IOException {
+        //Test Case 10: one pipeline reset and reused for several documents
+
+        Pipeline p = new DefaultPipeline().
+                add(new RawReader()).
+                add(new NLP(parser)).
+                add(new DictionaryHybrid(new Dictionary(new VariantMatcherLoader(true).
+                        load("3:::PRGE\tmedications").
+                        load("5:::PRGE\tcorticosteroids").
+                        getMatcher(), "PRGE"))).
+                add(new NejiWriter());
+
+        String expected = "S1\t   0  102\tInhaled corticosteroids (ICS) are the most" +
+                " commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE";
+
+        OutputStream out = p.run(new ByteArrayInputStream(str.getBytes("UTF-8"))).get(0);
+        assertEquals(expected, out.toString());
+        assertTrue(p.isResettable());
+
+        // Subclasses must be marked as resettable themselves
+        assertFalse(new DefaultPipeline().add(new TextReplacer("a", "b") {}).isResettable());
+
+        // A longer document leaves sentence counters and offsets that must not leak to the next one
+        Corpus corpus = new Corpus();
+        p.reset(corpus).run(new ByteArrayInputStream(strDOUBLE.getBytes("UTF-8")));
+        assertEquals(2, corpus.size());
+
+        corpus = new Corpus();
+        out = p.reset(corpus).run(new ByteArrayInputStream(str.getBytes("UTF-8"))).get(0);
+
+//        logger.info("Test Case 10:\n{}", out.toString());
+        assertEquals(expected, out.toString());
+        assertEquals(1, corpus.size());
+        assertSame(corpus, p.getCorpus());
+    }
+
+    private void testCase11(String str, Parser parser) throws NejiException, IOException {
+        //Test Case 11: two sentences matched in parallel, with annotations added in order
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        DictionaryHybrid dtl = new DictionaryHybrid(new Dictionary(new VariantMatcherLoader(true).
+                load("3:::PRGE\tmedications").
+                load("5:::PRGE\tcorticosteroids").
+                getMatcher(), "PRGE"));
+        dtl.setPool(pool);
+
+        InputStream in = new ByteArrayInputStream(str.getBytes("UTF-8"));
+        OutputStream out = new DefaultPipeline().
+                add(new RawReader()).
+                add(new NLP(parser)).
+                add(dtl).
+                add(new NejiWriter()).
+                run(in).get(0);
+        pool.shutdown();
+
+//        logger.info("Test Case 11:\n{}", out.toString());
+        assertEquals("S1\t   0  102\tInhaled corticosteroids (ICS) are the most " +
+                "commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE\n" +
+                "\n" +
+                "S2\t 106  178\tare the most commonly used controller medications " +
+                "prescribed for asthma.\n" +
+                "\tT1\t 144  155\tmedications\t3:::PRGE", out.toString());
+    }
+
+    private void testCase12(String str, Parser parser) throws NejiException, IOException {
+        //Test Case 12: two dictionaries of a combined matcher matched by a single module
+
+        CombinedMatcher matcher = new CombinedMatcher(true);
+        int first = matcher.addDictionary();
+        matcher.load(first, "5:::PRGE\tcorticosteroids");
+        int second = matcher.addDictionary();
+        matcher.load(second, "3:::PRGE\tmedications");
+
+        InputStream in = new ByteArrayInputStream(str.getBytes("UTF-8"));
+        OutputStream out = new DefaultPipeline().
+                add(new RawReader()).
+                add(new NLP(parser)).
+                add(new DictionaryHybrid(Arrays.asList(
+                        new Dictionary(matcher.getMatcher(first), "PRGE"),
+                        new Dictionary(matcher.getMatcher(second), "PRGE")))).
+                add(new NejiWriter()).
+                run(in).get(0);
+
+//        logger.info("Test Case 12:\n{}", out.toString());
+        assertEquals("S1\t   0  102\tInhaled corticosteroids (ICS) are the most" +
+                " commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE", out.toString());
+    }
+
+    private void testCase13(String str, Parser parser) throws NejiException, IOException {
+        //Test Case 13: text of the document matched at once, with mentions assigned to the two sentences
+
+        DictionaryHybrid dtl = new DictionaryHybrid(new Dictionary(new VariantMatcherLoader(true).
+                load("3:::PRGE\tmedications").
+                load("5:::PRGE\tcorticosteroids").
+                getMatcher(), "PRGE"));
+        dtl.setDocumentMatching(true);
+
+        InputStream in = new ByteArrayInputStream(str.getBytes("UTF-8"));
+        OutputStream out = new DefaultPipeline().
+                add(new RawReader()).
+                add(new NLP(parser)).
+                add(dtl).
+                add(new NejiWriter()).
+                run(in).get(0);
+
+//        logger.info("Test Case 13:\n{}", out.toString());
+        assertEquals("S1\t   0  102\tInhaled corticosteroids (ICS) are the most " +
+                "commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE\n" +
+                "\n" +
+                "S2\t 106  178\tare the most commonly used controller medications " +
+                "prescribed for asthma.\n" +
+                "\tT1\t 144  155\tmedications\t3:::PRGE", out.toString());
+    }
+
+    private void testCase14(String str, Parser parser) throws NejiException, IOException {
+        //Test Case 14: sentences waiting for the rest of the document are matched at the end of the stream
+
+        Corpus corpus = new Corpus();
+        corpus.setText(str);
+        parser.parse(corpus, str);
+        assertEquals(2, corpus.size());
+
+        DictionaryHybrid dtl = new DictionaryHybrid(new Dictionary(new VariantMatcherLoader(true).
+                load("3:::PRGE\tmedications").
+                load("5:::PRGE\tcorticosteroids").
+                getMatcher(), "PRGE"));
+        dtl.setDocumentMatching(true);
+
+        // Only the first sentence of the corpus reaches the module
+        String xml = "<s id=\"0\">" + corpus.getSentence(0).getText() + "</s>";
+        InputStream in = new ByteArrayInputStream(xml.getBytes("UTF-8"));
+        OutputStream out = new DefaultPipeline(corpus).
+                add(dtl).
+                add(new NejiWriter()).
+                run(in).get(0);
+
+//        logger.info("Test Case 14:\n{}", out.toString());
+        assertEquals("S1\t   0  102\tInhaled corticosteroids (ICS) are the most " +
+                "commonly used controller medications prescribed for asthma.\n" +
+                "\tT1\t   8   23\tcorticosteroids\t5:::PRGE\n" +
+                "\tT2\t  68   79\tmedications\t3:::PRGE", out.toString());
+    }
 }
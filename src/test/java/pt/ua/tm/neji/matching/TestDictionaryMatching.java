@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.dictionary.DictionaryMatching;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
+import uk.ac.man.entitytagger.Mention;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Testing class for the removal of overlapping mentions, which compares the sweep over the sorted mentions with
+ * the pairwise comparison on random sets of mentions.
+ *
+ * @version 1.0
+ */
+public class TestDictionaryMatching extends TestCase {
+
+    private static final int ROUNDS = 2000;
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestDictionaryMatching(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestDictionaryMatching.class);
+    }
+
+    public void test() {
+        DictionaryMatching matching = new DictionaryMatching(new StopwordSet(Collections.<String>emptyList()));
+
+        // The longer mention is kept
+        List<Mention> mentions = new ArrayList<>();
+        Mention longer = newMention(0, 0, 14);
+        Mention shorter = newMention(1, 9, 20);
+        mentions.add(shorter);
+        mentions.add(longer);
+        List<Mention> removed = matching.removeOverlaps(mentions);
+        assertEquals(1, removed.size());
+        assertSame(shorter, removed.get(0));
+        assertEquals(1, mentions.size());
+        assertSame(longer, mentions.get(0));
+
+        Random random = new Random(42);
+        for (int r = 0; r < ROUNDS; r++) {
+            // Dense sets of short mentions in a small text
+            int n = random.nextInt(40);
+            int length = 1 + random.nextInt(100);
+            mentions = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int start = random.nextInt(length);
+                int end = Math.min(length, start + 1 + random.nextInt(15));
+                mentions.add(newMention(i, start, end));
+            }
+            if (random.nextBoolean()) {
+                Collections.sort(mentions, new Comparator<Mention>() {
+                    @Override
+                    public int compare(Mention m1, Mention m2) {
+                        return Integer.compare(m1.getStart(), m2.getStart());
+                    }
+                });
+            }
+
+            Map<Mention, Boolean> expected = new IdentityHashMap<>();
+            for (Mention m : matching.removeList(mentions)) {
+                expected.put(m, true);
+            }
+            List<Mention> original = new ArrayList<>(mentions);
+            removed = matching.removeOverlaps(mentions);
+
+            assertEquals(expected.size(), removed.size());
+            assertEquals(original.size() - removed.size(), mentions.size());
+            int k = 0;
+            for (Mention m : original) {
+                if (expected.containsKey(m)) {
+                    assertTrue(removed.contains(m));
+                } else {
+                    // Kept mentions keep their order
+                    assertSame(m, mentions.get(k++));
+                }
+            }
+        }
+    }
+
+    private static Mention newMention(int id, int start, int end) {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        return new Mention(new String[]{"id" + id}, start, end, text.toString());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.matching;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.apache.commons.io.FileUtils;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.train.config.Resources;
+import pt.ua.tm.neji.train.dictionary.DictionaryAux;
+import pt.ua.tm.neji.util.stopwords.StopwordSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Testing class for the stopwords set, which compares it with the stopwords pattern on the words and pairs of
+ * words of the example documents.
+ *
+ * @version 1.0
+ */
+public class TestStopwords extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestStopwords(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestStopwords.class);
+    }
+
+    public void test() throws NejiException, IOException {
+        Pattern pattern = DictionaryAux.loadStopwords(Resources.getResource("stopwords"));
+        StopwordSet set = Resources.getStopwords();
+        assertSame(set, Resources.getStopwords());
+
+        assertTrue(set.contains("disease"));
+        assertTrue(set.contains("DiSeAsE"));
+        assertTrue(set.contains(new StringBuilder(" the "), 1, 4));
+        assertFalse(set.contains("diseasex"));
+        assertFalse(set.contains(""));
+
+        // Both must classify the same mentions
+        List<String> mentions = getMentions();
+        int stopwords = 0;
+        for (String m : mentions) {
+            boolean expected = pattern.matcher(m).matches();
+            assertEquals(m, expected, set.contains(m));
+            if (expected) {
+                stopwords++;
+            }
+        }
+        assertTrue(stopwords > 0);
+    }
+
+    /**
+     * Gets the words and pairs of words of the example documents, as candidate mentions.
+     */
+    static List<String> getMentions() throws IOException {
+        List<String> mentions = new ArrayList<>();
+        File[] files = new File("example/annotate/in").listFiles();
+        assertNotNull(files);
+        Arrays.sort(files);
+
+        Pattern word = Pattern.compile("[A-Za-z0-9]+");
+        for (File file : files) {
+            String text = FileUtils.readFileToString(file, "UTF-8");
+            Matcher m = word.matcher(text);
+            int previous = -1;
+            while (m.find()) {
+                mentions.add(m.group());
+                if (previous >= 0) {
+                    mentions.add(text.substring(previous, m.end()));
+                }
+                previous = m.start();
+            }
+        }
+        return mentions;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parsing;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.slf4j.LoggerFactory;
+import pt.ua.tm.neji.parser.gdep.GDepPipeline;
+import pt.ua.tm.neji.parser.gdep.ProcessConnector;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testing class for the pipelined connection to GDep, using a fake parser that replies with the tokens
+ * of each sentence.
+ *
+ * @version 1.0
+ */
+public class TestGDepPipeline extends TestCase {
+
+    private static org.slf4j.Logger logger = LoggerFactory.getLogger(TestGDepPipeline.class);
+
+    /**
+     * Fake parser that replies with one line for each token, followed by a blank line.
+     */
+    private static final String ECHO = "set -f\n"
+            + "while IFS= read -r line; do\n"
+            + "  i=1\n"
+            + "  for t in $line; do printf '%d\\t%s\\t%s\\n' $i \"$t\" \"$t\"; i=$((i+1)); done\n"
+            + "  echo\n"
+            + "done\n";
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestGDepPipeline(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestGDepPipeline.class);
+    }
+
+    public void test() throws IOException {
+        Connection c = new Connection(ECHO);
+        try {
+            List<String> sentences = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                sentences.add("Sentence " + i + " mentions BRCA1 .");
+            }
+
+            // More replies than the ones that fit in the queue or in the pipes
+            List<List<String>> replies = c.pipeline.parse(sentences);
+            assertEquals(1000, replies.size());
+            for (int i = 0; i < replies.size(); i++) {
+                assertEquals(Arrays.asList("1\tSentence\tSentence", "2\t" + i + "\t" + i,
+                        "3\tmentions\tmentions", "4\tBRCA1\tBRCA1", "5\t.\t."), replies.get(i));
+            }
+
+            // Empty sentences have empty replies
+            replies = c.pipeline.parse(Arrays.asList("", "p53"));
+            assertEquals(Arrays.<String>asList(), replies.get(0));
+            assertEquals(Arrays.asList("1\tp53\tp53"), replies.get(1));
+
+            assertEquals(1002, c.pipeline.getNumSentences());
+            assertEquals(2, c.pipeline.getNumTexts());
+            logger.info("GDep pipeline: {}", c.pipeline);
+        } finally {
+            c.close();
+        }
+    }
+
+    public void testFailure() throws IOException {
+        Connection c = new Connection("read -r line; echo \"1\t$line\t$line\"; echo\n");
+        try {
+            assertEquals(Arrays.asList("1\tp53\tp53"), c.pipeline.parse(Arrays.asList("p53")).get(0));
+            try {
+                c.pipeline.parse(Arrays.asList("BRCA1"));
+                fail("The parser process has ended.");
+            } catch (IOException ex) {
+                // Expected
+            }
+        } finally {
+            c.close();
+        }
+    }
+
+    /**
+     * Connection to a fake parser, using the same streams of the GDep parser.
+     */
+    private static class Connection {
+
+        private final ProcessConnector pc;
+        private final GDepPipeline pipeline;
+
+        Connection(String script) throws IOException {
+            File file = File.createTempFile("gdep", ".sh");
+            file.deleteOnExit();
+            try (PrintWriter pw = new PrintWriter(file)) {
+                pw.print(script);
+            }
+
+            PipedInputStream pis = new PipedInputStream();
+            PipedOutputStream sink = new PipedOutputStream(pis);
+            PipedOutputStream pos = new PipedOutputStream();
+            PipedInputStream source = new PipedInputStream(pos);
+            pc = new ProcessConnector(pis, pos, System.err);
+            pc.create("sh", file.getAbsolutePath());
+
+            pipeline = new GDepPipeline("test", new BufferedWriter(new OutputStreamWriter(sink)),
+                    new BufferedReader(new InputStreamReader(source)));
+        }
+
+        void close() {
+            pipeline.close();
+            pc.destroy();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parsing;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.core.parser.ParseCache;
+import pt.ua.tm.neji.core.parser.ParserLanguage;
+import pt.ua.tm.neji.core.parser.ParserLevel;
+import pt.ua.tm.neji.core.parser.ParserTool;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Testing class for the cache of the parser output of each sentence.
+ *
+ * @version 1.0
+ */
+public class TestParseCache extends TestCase {
+
+    private static final List<String> REPLY = Arrays.asList(
+            "1\tBRCA1\tBRCA1\tB-NP\tNN\tO\t2\tSUB",
+            "2\tmutations\tmutation\tI-NP\tNNS\tO\t0\tROOT");
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestParseCache(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestParseCache.class);
+    }
+
+    public void testKey() {
+        String key = ParseCache.key(ParserTool.GDEP, ParserLanguage.ENGLISH, ParserLevel.DEPENDENCY, "", "p53");
+        assertEquals(key, ParseCache.key(ParserTool.GDEP, ParserLanguage.ENGLISH, ParserLevel.DEPENDENCY, "", "p53"));
+        assertFalse(key.equals(ParseCache.key(ParserTool.GDEP, ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION,
+                "", "p53")));
+        assertFalse(key.equals(ParseCache.key(ParserTool.GDEP, ParserLanguage.ENGLISH, ParserLevel.DEPENDENCY,
+                "-wst", "p53")));
+        assertFalse(key.equals(ParseCache.key(ParserTool.GDEP, ParserLanguage.ENGLISH, ParserLevel.DEPENDENCY,
+                "", "p53 ")));
+    }
+
+    public void testMemory() {
+        ParseCache cache = new ParseCache(2);
+        assertNull(cache.get("a"));
+
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        entries.put("a", REPLY);
+        entries.put("b", Collections.<String>emptyList());
+        cache.putAll(entries);
+        assertEquals(REPLY, cache.get("a"));
+        assertEquals(Collections.<String>emptyList(), cache.get("b"));
+
+        // The least recently used sentence is evicted
+        cache.get("a");
+        cache.putAll(Collections.singletonMap("c", REPLY));
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(REPLY, cache.get("a"));
+
+        assertEquals(4, cache.getMemoryHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    public void testDisk() throws Exception {
+        File file = File.createTempFile("parse", ".db");
+        file.deleteOnExit();
+
+        ParseCache cache = new ParseCache(1, file);
+        Map<String, List<String>> entries = new LinkedHashMap<>();
+        entries.put("a", REPLY);
+        entries.put("b", Collections.<String>emptyList());
+        cache.putAll(entries);
+
+        // Sentences evicted from memory are read from disk
+        assertEquals(REPLY, cache.get("a"));
+        assertEquals(1, cache.getDiskHits());
+        cache.close();
+
+        // Sentences are kept across runs
+        cache = new ParseCache(1, file);
+        try {
+            assertEquals(Collections.<String>emptyList(), cache.get("b"));
+            assertEquals(REPLY, cache.get("a"));
+            assertNull(cache.get("c"));
+            assertEquals(2, cache.getDiskHits());
+            assertEquals(1, cache.getMisses());
+        } finally {
+            cache.close();
+        }
+    }
+}
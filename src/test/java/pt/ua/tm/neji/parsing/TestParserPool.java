@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016 BMD Software and University of Aveiro.
+ *
+ * Neji is a flexible and powerful platform for biomedical information extraction from text.
+ *
+ * This project is licensed under the Creative Commons Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * To view a copy of this license, visit http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ *
+ * This project is a free software, you are free to copy, distribute, change and transmit it.
+ * However, you may not use it for commercial purposes.
+ *
+ * It is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+
+package pt.ua.tm.neji.parsing;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import pt.ua.tm.neji.context.ParserPool;
+import pt.ua.tm.neji.core.corpus.Corpus;
+import pt.ua.tm.neji.core.corpus.Sentence;
+import pt.ua.tm.neji.core.parser.Parser;
+import pt.ua.tm.neji.core.parser.ParserLanguage;
+import pt.ua.tm.neji.core.parser.ParserLevel;
+import pt.ua.tm.neji.core.parser.ParserTool;
+import pt.ua.tm.neji.exception.NejiException;
+import pt.ua.tm.neji.exception.ParserTimeoutException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Testing class for the elastic pool of parsers, using fake parsers that can be crashed.
+ *
+ * @version 1.0
+ */
+public class TestParserPool extends TestCase {
+
+    /**
+     * Create the test case
+     *
+     * @param testName name of the test case
+     */
+    public TestParserPool(String testName){
+        super(testName);
+    }
+
+    /**
+     * @return the suite of tests being tested
+     */
+    public static Test suite() {
+        return new TestSuite(TestParserPool.class);
+    }
+
+    public void test() throws Exception {
+        ParserPool pool = new FakePool();
+        pool.setMaxSize(3);
+        pool.setTakeTimeout(50);
+        assertEquals(0, pool.getSize());
+
+        // Parsers are only launched when needed
+        Parser p1 = pool.take();
+        Parser p2 = pool.take();
+        Parser p3 = pool.take();
+        assertEquals(3, pool.getSize());
+        assertEquals(3, pool.getLaunched());
+        assertTrue(pool.isExhausted());
+
+        try {
+            pool.take();
+            fail("The pool is exhausted.");
+        } catch (ParserTimeoutException ex) {
+            // Expected
+        }
+        assertEquals(1, pool.getTimeouts());
+
+        // The most recently returned parser is reused
+        pool.put(p1);
+        pool.put(p2);
+        assertSame(p2, pool.take());
+        assertEquals(3, pool.getLaunched());
+
+        // Crashed parsers are replaced
+        ((FakeParser) p2).crash();
+        pool.put(p2);
+        assertFalse(p2.isLaunched());
+        assertEquals(2, pool.getSize());
+        assertEquals(1, pool.getRestarted());
+
+        ((FakeParser) p1).crash();
+        Parser p4 = pool.take();
+        assertNotSame(p1, p4);
+        assertTrue(p4.isHealthy());
+        assertEquals(2, pool.getRestarted());
+        assertEquals(4, pool.getLaunched());
+
+        double utilisation = pool.getUtilisation();
+        assertTrue(utilisation > 0 && utilisation <= 1);
+        pool.close();
+        pool.put(p3);
+        pool.put(p4);
+        assertFalse(p3.isLaunched());
+        assertEquals(0, pool.getSize());
+    }
+
+    public void testEviction() throws Exception {
+        ParserPool pool = new FakePool();
+        pool.setMaxSize(4);
+        pool.setIdleTimeout(0);
+
+        Parser[] parsers = new Parser[4];
+        for (int i = 0; i < parsers.length; i++) {
+            parsers[i] = pool.take();
+        }
+        for (Parser p : parsers) {
+            pool.put(p);
+        }
+        Thread.sleep(5);
+
+        // Least recently used parsers are closed, down to the minimum size
+        assertEquals(3, pool.evictIdle());
+        assertEquals(1, pool.getSize());
+        assertEquals(3, pool.getEvicted());
+        assertTrue(parsers[3].isLaunched());
+        assertFalse(parsers[0].isLaunched());
+        assertSame(parsers[3], pool.take());
+    }
+
+    public void testWait() throws Exception {
+        final ParserPool pool = new FakePool();
+        final Parser parser = pool.take();
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    // Return it anyway
+                }
+                pool.put(parser);
+            }
+        });
+        t.start();
+
+        // Waits for the parser to be returned
+        assertSame(parser, pool.take());
+        assertTrue(pool.getMaxWaitTime() > 0);
+        t.join();
+    }
+
+    /**
+     * Pool of fake parsers.
+     */
+    private static class FakePool extends ParserPool {
+
+        FakePool() {
+            super(ParserTool.OPENNLP, ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION, null);
+        }
+
+        @Override
+        protected Parser launch() throws NejiException {
+            FakeParser parser = new FakeParser();
+            try {
+                parser.launch();
+            } catch (IOException ex) {
+                throw new NejiException(ex);
+            }
+            return parser;
+        }
+    }
+
+    /**
+     * Parser that does not parse, which stops working once crashed.
+     */
+    private static class FakeParser extends Parser {
+
+        private volatile boolean crashed;
+
+        FakeParser() throws NejiException {
+            super(ParserTool.OPENNLP, ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION);
+            this.crashed = false;
+        }
+
+        void crash() {
+            crashed = true;
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return super.isHealthy() && !crashed;
+        }
+
+        @Override
+        public List<Sentence> parse(Corpus corpus, String text) throws NejiException {
+            throw new NejiException("Fake parser.");
+        }
+
+        @Override
+        protected List<Sentence> parseWithLevel_(ParserLevel parserLevel, Corpus corpus, String text)
+                throws NejiException {
+            throw new NejiException("Fake parser.");
+        }
+    }
+}
@@ -32,7 +32,7 @@ import java.io.IOException;
 import java.util.List;
 
 /**
- * Testing class for parsing at tokenization level for both GDep and OpenNLP tools.
+ * Testing class for parsing at tokenization level for the GDep, OpenNLP and in-process tokenizer tools.
  *
  * @author Eduardo Duarte (<a href="mailto:emod@ua.pt">emod@ua.pt</a>))
  * @version 2.0
@@ -98,6 +98,58 @@ public class TestTokenization extends TestCase {
         parser.close();
     }
 
+    public void testTOKENIZER() throws IOException, NejiException {
+        Parser parser = new TokenizerParser(ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION, new LingpipeSentenceSplitter(), false).launch();
+        int i, k, j;
+
+        // Same tokens as GDep
+        Variables[] variablesToTest = {
+                Variables.str1.gdep,
+                Variables.str2.gdep,
+                Variables.str3.gdep,
+                Variables.str4.gdep
+        };
+
+        for(Variables v : variablesToTest){
+            Corpus corpus = new Corpus();
+            corpus.setText(v.text);
+            List<Sentence> parsedSentences = parser.parse(corpus, v.text);
+            i = k = j = 0;
+            for(Sentence s : parsedSentences){
+                assertEquals(v.sentenceStart[j], s.getStart());
+                assertEquals(v.sentenceEnd[j], s.getEnd());
+
+                List<Token> tokenList = s.getTokens();
+                for(Token token : tokenList) {
+                    assertEquals(v.tokenStart[i], token.getStart());
+                    assertEquals(v.tokenEnd[i], token.getEnd());
+                    assertEquals(v.tokenText[i], token.getText());
+                    assertEquals(v.tokenLabel, token.getLabel());
+                    assertEquals(k,token.getIndex());
+                    i++;
+                    k++;
+                }
+                k = 0;
+                j++;
+            }
+            assertEquals(v.tokenText.length, i);
+        }
+
+        // Unlike GDep, text after line breaks is also tokenized
+        Corpus corpus = new Corpus();
+        corpus.setText(Variables.str5.gdep.text);
+        List<Sentence> parsedSentences = parser.parse(corpus, Variables.str5.gdep.text);
+        assertEquals(1, parsedSentences.size());
+        List<Token> tokenList = parsedSentences.get(0).getTokens();
+        String[] tokenText = Variables.str5.gdep.text.split("\\s+");
+        assertEquals(tokenText.length, tokenList.size());
+        for (i = 0; i < tokenText.length; i++) {
+            assertEquals(tokenText[i], tokenList.get(i).getText());
+        }
+
+        parser.close();
+    }
+
     public void testOPENNLP() throws IOException, NejiException {
         Parser parser = new OpenNLPParser(ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION).launch();
         int i, k, j;
@@ -137,4 +189,26 @@ public class TestTokenization extends TestCase {
 
         parser.close();
     }
+
+    public void testOPENNLPModels() throws IOException, NejiException {
+        // Sentence and tokenizer models are shared by the launched parsers
+        Parser first = new OpenNLPParser(ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION).launch();
+        Parser second = new OpenNLPParser(ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION).launch();
+        assertEquals(2, OpenNLPParser.getNumLoadedModels());
+        first.close();
+        assertEquals(2, OpenNLPParser.getNumLoadedModels());
+
+        // Models are released with the last parser, unless they are retained
+        second.close();
+        assertEquals(0, OpenNLPParser.getNumLoadedModels());
+
+        OpenNLPParser.retainModels();
+        try {
+            new OpenNLPParser(ParserLanguage.ENGLISH, ParserLevel.TOKENIZATION).launch().close();
+            assertEquals(2, OpenNLPParser.getNumLoadedModels());
+        } finally {
+            OpenNLPParser.releaseModels();
+        }
+        assertEquals(0, OpenNLPParser.getNumLoadedModels());
+    }
 }
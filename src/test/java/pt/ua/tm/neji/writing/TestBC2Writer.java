@@ -66,5 +66,19 @@ public class TestBC2Writer extends TestCase {
         in.close();
         
         assertEquals(expected, outStr);
-    }    
+    }
+
+    public void testReset() throws IOException, NejiException {
+
+        Pipeline p = new DefaultPipeline(Variables.corpus());
+        String strXML = "<s id=\"test1\">" + p.getCorpus().getSentence(0).getText() + "</s>";
+        p.add(new BC2Writer());
+        assertTrue(p.isResettable());
+
+        // Annotations of the previous document are not written again
+        p.run(new ByteArrayInputStream(strXML.getBytes("UTF-8")));
+        OutputStream out = p.reset(Variables.corpus()).run(new ByteArrayInputStream(strXML.getBytes("UTF-8"))).get(0);
+
+        assertEquals(Variables.expectedBC2, out.toString());
+    }
 }